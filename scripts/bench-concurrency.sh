@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Measures how many concurrent conversations a running instance sustains.
+#
+# Run once per execution mode and compare the tables, e.g.
+#   APP_VIRTUAL_THREADS=false SERVER_TOMCAT_THREADS_MAX=50 mvn spring-boot:run
+#   APP_VIRTUAL_THREADS=true  SERVER_TOMCAT_THREADS_MAX=50 mvn spring-boot:run
+# then:
+#   TOKEN=... ./scripts/bench-concurrency.sh
+set -euo pipefail
+
+: "${TOKEN:?Missing TOKEN (see scripts/get-token.sh)}"
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+LEVELS="${LEVELS:-8 32 128 256}"
+REQUESTS_PER_CONVERSATION="${REQUESTS_PER_CONVERSATION:-3}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+
+QUESTIONS=(
+  "Can I return a damaged item?"
+  "What is the status of order 12345?"
+  "Can I return it if it arrives damaged?"
+)
+
+run_conversation() {
+  local conversation="$1"
+  for ((i = 0; i < REQUESTS_PER_CONVERSATION; i++)); do
+    local question="${QUESTIONS[$((i % ${#QUESTIONS[@]}))]}"
+    curl -s -o /dev/null -m "$TIMEOUT_SECONDS" \
+      -w '%{http_code} %{time_total}\n' \
+      -X POST "$BASE_URL/chat" \
+      -H 'Content-Type: application/json' \
+      -H "Authorization: Bearer $TOKEN" \
+      -d "{\"conversationId\":\"$conversation\",\"question\":\"$question\"}" || echo "000 $TIMEOUT_SECONDS"
+  done
+}
+export -f run_conversation
+export BASE_URL TOKEN REQUESTS_PER_CONVERSATION TIMEOUT_SECONDS
+
+printf '%-12s %-8s %-8s %-8s %-8s %-10s %-10s %-10s\n' \
+  concurrency ok 429 errors total rps p50_s p95_s
+
+for level in $LEVELS; do
+  results="$(mktemp)"
+  start="$(date +%s.%N)"
+  seq 1 "$level" \
+    | xargs -P "$level" -I{} bash -c "$(declare -p QUESTIONS); run_conversation bench-$level-{}" \
+    > "$results"
+  end="$(date +%s.%N)"
+
+  sort -k2 -n "$results" | awk -v level="$level" -v start="$start" -v end="$end" '
+    { code[NR] = $1; latency[NR] = $2 }
+    $1 == 200 { ok++ }
+    $1 == 429 { shed++ }
+    $1 != 200 && $1 != 429 { errors++ }
+    END {
+      total = NR
+      elapsed = end - start
+      p50 = latency[int(total * 0.50) > 0 ? int(total * 0.50) : 1]
+      p95 = latency[int(total * 0.95) > 0 ? int(total * 0.95) : 1]
+      printf "%-12s %-8d %-8d %-8d %-8d %-10.2f %-10.2f %-10.2f\n",
+        level, ok, shed, errors, total, ok / elapsed, p50, p95
+    }'
+  rm -f "$results"
+done
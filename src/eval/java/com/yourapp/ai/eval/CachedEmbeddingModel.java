@@ -0,0 +1,168 @@
+package com.yourapp.ai.eval;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * Embedding model backed by a file of cached vectors keyed by the SHA-256 of the text.
+ *
+ * <p>Misses go to the delegate, which is only created on the first miss, so once the cache file
+ * covers the corpus and the dataset the suite runs without Ollama. Every call sleeps
+ * {@code latency}, standing in for the embedding round-trip a live request would pay, and is
+ * counted so the report can show embedding calls per question.
+ */
+final class CachedEmbeddingModel implements EmbeddingModel {
+
+    private static final int MAGIC = 0x454d4231; // "EMB1"
+
+    private final Supplier<EmbeddingModel> delegateFactory;
+    private final Path file;
+    private final Duration latency;
+    private final Map<String, float[]> cache = new LinkedHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private EmbeddingModel delegate;
+    private boolean dirty;
+
+    CachedEmbeddingModel(Supplier<EmbeddingModel> delegateFactory, Path file, Duration latency) {
+        this.delegateFactory = delegateFactory;
+        this.file = file;
+        this.latency = latency;
+        if (file != null && Files.exists(file)) {
+            load();
+        }
+    }
+
+    @Override
+    public synchronized EmbeddingResponse call(EmbeddingRequest request) {
+        calls.incrementAndGet();
+        pause();
+        List<String> texts = request.getInstructions();
+        List<String> missing = new ArrayList<>();
+        for (String text : texts) {
+            if (!cache.containsKey(key(text)) && !missing.contains(text)) {
+                missing.add(text);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<float[]> computed = delegate().embed(missing);
+            for (int i = 0; i < missing.size(); i++) {
+                cache.put(key(missing.get(i)), computed.get(i));
+            }
+            dirty = true;
+        }
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(cache.get(key(texts.get(i))), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    void resetCalls() {
+        calls.set(0);
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    /** Writes the cache back if any vector was added. */
+    synchronized void save() {
+        if (file == null || !dirty) {
+            return;
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                out.writeInt(MAGIC);
+                out.writeInt(cache.size());
+                for (Map.Entry<String, float[]> entry : cache.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    for (float value : entry.getValue()) {
+                        out.writeFloat(value);
+                    }
+                }
+            }
+            dirty = false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write embedding cache " + file, e);
+        }
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not an embedding cache: " + file);
+            }
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                String key = in.readUTF();
+                float[] vector = new float[in.readInt()];
+                for (int j = 0; j < vector.length; j++) {
+                    vector[j] = in.readFloat();
+                }
+                cache.put(key, vector);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read embedding cache " + file, e);
+        }
+    }
+
+    private EmbeddingModel delegate() {
+        if (delegate == null) {
+            delegate = delegateFactory.get();
+        }
+        return delegate;
+    }
+
+    private void pause() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String key(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.yourapp.ai.eval;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yourapp.ai.concurrency.AdaptiveConcurrencyLimiter;
+import com.yourapp.ai.loadtest.InMemoryVectorStore;
+import com.yourapp.ai.loadtest.StubEmbeddingModel;
+import com.yourapp.ai.observability.StageObserver;
+import com.yourapp.ai.rag.DocIngestor;
+import com.yourapp.ai.retreival.RetrievalCache;
+import com.yourapp.ai.retreival.RetrievalResult;
+import com.yourapp.ai.retreival.RetrieverService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.ollama.OllamaEmbeddingModel;
+import org.springframework.ai.ollama.api.OllamaApi;
+import org.springframework.ai.ollama.api.OllamaEmbeddingOptions;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Offline retrieval evaluation: sweeps similarity threshold, topK, chunking and policy expansion
+ * over a labelled question set and reports recall@k, MRR, context size and latency for each
+ * configuration.
+ *
+ * <p>Each configuration runs the production {@link RetrieverService} and {@link DocIngestor}
+ * against an in-memory vector store. Embeddings come from {@code --embedder}:
+ * <ul>
+ *   <li>{@code ollama} – real embeddings, cached in {@code --cache}; after one run against Ollama
+ *       the cache covers the corpus and dataset and later runs never contact it. The default;
+ *       without {@code --embedder} a missing cache file is an error rather than a silent switch
+ *       to the stub, since the stub's scores are not comparable.</li>
+ *   <li>{@code stub} – the deterministic hashing embedder from the load-test profile; needs
+ *       nothing, but absolute scores differ from {@code nomic-embed-text}. Only used when asked
+ *       for.</li>
+ * </ul>
+ *
+ * <p>Other arguments ({@code --name=value}): {@code thresholds}, {@code top-k}, {@code chunking}
+ * ({@code size:overlap} pairs), {@code expansions} (comma-separated sweeps); {@code embed-latency}
+ * (simulated round-trip per embedding call, default 20ms), {@code dataset}, {@code docs},
+ * {@code ollama-url}, {@code embedding-model} and {@code out} (default {@code target/eval}).
+ */
+public final class RetrievalEvalHarness {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final int[] RECALL_AT = {1, 3, 5};
+
+    /** The configuration in application.yml, marked in the report. */
+    private static final Config PRODUCTION = Config.fromApplicationYaml();
+
+    private final Options options;
+    private final CachedEmbeddingModel embeddings;
+    private final List<Question> questions;
+
+    private RetrievalEvalHarness(Options options, CachedEmbeddingModel embeddings, List<Question> questions) {
+        this.options = options;
+        this.embeddings = embeddings;
+        this.questions = questions;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        CachedEmbeddingModel embeddings = switch (options.embedder) {
+            case "stub" -> new CachedEmbeddingModel(() -> new StubEmbeddingModel(Duration.ZERO), null, options.embedLatency);
+            case "ollama" -> new CachedEmbeddingModel(ollama(options), options.cache, options.embedLatency);
+            default -> throw new IllegalArgumentException("Unknown embedder: " + options.embedder);
+        };
+        RetrievalEvalHarness harness = new RetrievalEvalHarness(options, embeddings, loadQuestions(options.dataset));
+        try {
+            harness.write(harness.run());
+        } finally {
+            embeddings.save();
+        }
+    }
+
+    private static Supplier<EmbeddingModel> ollama(Options options) {
+        return () -> OllamaEmbeddingModel.builder()
+                .ollamaApi(OllamaApi.builder().baseUrl(options.ollamaUrl).build())
+                .defaultOptions(OllamaEmbeddingOptions.builder().model(options.embeddingModel).build())
+                .build();
+    }
+
+    private Map<String, Object> run() throws IOException {
+        System.out.printf("Retrieval eval: %d questions, embedder=%s, embed-latency=%s%n",
+                questions.size(), options.embedder, options.embedLatency);
+        System.out.printf("%n  %-9s %4s %-9s %4s %8s %8s %8s %7s %8s %8s %7s %8s %8s%n",
+                "threshold", "topK", "chunking", "exp", "recall@1", "recall@3", "recall@5", "mrr",
+                "noise", "ctxChars", "embeds", "mean_ms", "p95_ms");
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int[] chunking : options.chunking) {
+            InMemoryVectorStore store = new InMemoryVectorStore(embeddings);
+            new DocIngestor(embeddings, store, MAPPER, chunking[0], chunking[1], "eval", null, "float32")
+                    .ingestClasspathDocs(options.docs);
+            for (double threshold : options.thresholds) {
+                for (int topK : options.topK) {
+                    for (int expansions : options.expansions) {
+                        Config config = new Config(threshold, topK, chunking[0], chunking[1], expansions);
+                        Map<String, Object> result = evaluate(config, store);
+                        results.add(result);
+                        print(config, result);
+                    }
+                }
+            }
+        }
+
+        System.out.println("\nBest by MRR, then mean latency:");
+        results.stream()
+                .sorted(Comparator.<Map<String, Object>>comparingDouble(r -> -(double) r.get("mrr"))
+                        .thenComparingDouble(r -> (double) r.get("meanMs")))
+                .limit(5)
+                .forEach(r -> System.out.printf("  %s mrr=%.3f recall@3=%.3f meanMs=%.1f%n",
+                        r.get("config"), r.get("mrr"), r.get("recall@3"), r.get("meanMs")));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("embedder", options.embedder);
+        report.put("embeddingModel", "ollama".equals(options.embedder) ? options.embeddingModel : "stub");
+        report.put("embedLatencyMs", options.embedLatency.toMillis());
+        report.put("questions", questions.size());
+        report.put("results", results);
+        return report;
+    }
+
+    private Map<String, Object> evaluate(Config config, InMemoryVectorStore store) {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                "embedding", 64, 64, 64, 0, Duration.ZERO, 2.0, 0.9, meters);
+        RetrieverService retriever = new RetrieverService(
+                embeddings, store, meters, limiter, new StageObserver(ObservationRegistry.NOOP),
+                // Uncached: every timed retrieval has to embed and search.
+                new RetrievalCache(() -> 0, 0, 0, meters),
+                config.threshold(), config.topK(), config.expansions(), 0, 0);
+
+        double[] recall = new double[RECALL_AT.length];
+        double reciprocalRanks = 0;
+        int labelled = 0;
+        int negatives = 0;
+        int noisy = 0;
+        long contextChars = 0;
+        long[] latencies = new long[questions.size()];
+        // Untimed pass: warms the JIT and, with --embedder=ollama, fills the cache before timing.
+        questions.forEach(question -> retriever.retrieve(question.question()));
+        embeddings.resetCalls();
+
+        for (int q = 0; q < questions.size(); q++) {
+            Question question = questions.get(q);
+            long start = System.nanoTime();
+            RetrievalResult result = retriever.retrieve(question.question());
+            latencies[q] = System.nanoTime() - start;
+            contextChars += result.context().length();
+
+            List<String> ranked = rankedPolicies(result.citations());
+            if (question.expected().isEmpty()) {
+                negatives++;
+                if (!result.context().isBlank()) {
+                    noisy++;
+                }
+                continue;
+            }
+            labelled++;
+            for (int i = 0; i < RECALL_AT.length; i++) {
+                List<String> top = ranked.subList(0, Math.min(RECALL_AT[i], ranked.size()));
+                long found = question.expected().stream().filter(top::contains).count();
+                recall[i] += (double) found / question.expected().size();
+            }
+            for (int rank = 0; rank < ranked.size(); rank++) {
+                if (question.expected().contains(ranked.get(rank))) {
+                    reciprocalRanks += 1.0 / (rank + 1);
+                    break;
+                }
+            }
+        }
+
+        Arrays.sort(latencies);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("config", config.toString());
+        out.put("threshold", config.threshold());
+        out.put("topK", config.topK());
+        out.put("chunkSize", config.chunkSize());
+        out.put("chunkOverlap", config.chunkOverlap());
+        out.put("expansions", config.expansions());
+        out.put("production", config.equals(PRODUCTION));
+        for (int i = 0; i < RECALL_AT.length; i++) {
+            out.put("recall@" + RECALL_AT[i], labelled == 0 ? 0.0 : recall[i] / labelled);
+        }
+        out.put("mrr", labelled == 0 ? 0.0 : reciprocalRanks / labelled);
+        out.put("noise", negatives == 0 ? 0.0 : (double) noisy / negatives);
+        out.put("meanContextChars", (double) contextChars / questions.size());
+        out.put("embedCallsPerQuestion", (double) embeddings.calls() / questions.size());
+        out.put("meanMs", Arrays.stream(latencies).average().orElse(0) / 1e6);
+        out.put("p95Ms", latencies[Math.max(0, (int) Math.ceil(0.95 * latencies.length) - 1)] / 1e6);
+        return out;
+    }
+
+    /** Distinct policy ids in retrieval order; citations look like {@code policy_returns#chunk0}. */
+    private static List<String> rankedPolicies(List<String> citations) {
+        Set<String> policies = new LinkedHashSet<>();
+        for (String citation : citations) {
+            int hash = citation.indexOf('#');
+            policies.add(hash < 0 ? citation : citation.substring(0, hash));
+        }
+        return new ArrayList<>(policies);
+    }
+
+    private static void print(Config config, Map<String, Object> result) {
+        System.out.printf("%s %-9.2f %4d %-9s %4d %8.3f %8.3f %8.3f %7.3f %8.2f %8.0f %7.2f %8.1f %8.1f%n",
+                config.equals(PRODUCTION) ? "*" : " ",
+                config.threshold(), config.topK(), config.chunkSize() + ":" + config.chunkOverlap(),
+                config.expansions(), result.get("recall@1"), result.get("recall@3"), result.get("recall@5"),
+                result.get("mrr"), result.get("noise"), result.get("meanContextChars"),
+                result.get("embedCallsPerQuestion"), result.get("meanMs"), result.get("p95Ms"));
+    }
+
+    private void write(Map<String, Object> report) throws IOException {
+        Files.createDirectories(options.out);
+        String name = "retrieval-" + report.get("timestamp").toString().replace(':', '-') + ".json";
+        Path file = options.out.resolve(name);
+        MAPPER.writeValue(file.toFile(), report);
+        Files.copy(file, options.out.resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+        System.out.printf("%n* = current application.yml settings. %d embeddings cached.%nReport written to %s%n",
+                embeddings.size(), file);
+    }
+
+    private static List<Question> loadQuestions(String dataset) throws IOException {
+        InputStream in = dataset.startsWith("classpath:")
+                ? RetrievalEvalHarness.class.getResourceAsStream("/" + dataset.substring("classpath:".length()))
+                : Files.newInputStream(Path.of(dataset));
+        if (in == null) {
+            throw new IllegalArgumentException("Dataset not found: " + dataset);
+        }
+        List<Question> questions = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    questions.add(MAPPER.readValue(line, new TypeReference<Question>() {}));
+                }
+            }
+        }
+        return questions;
+    }
+
+    /** One labelled question; {@code expected} is empty when no policy should be retrieved. */
+    record Question(String question, List<String> expected) {}
+
+    private record Config(double threshold, int topK, int chunkSize, int chunkOverlap, int expansions) {
+
+        static Config fromApplicationYaml() {
+            YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+            yaml.setResources(new ClassPathResource("application.yml"));
+            Properties properties = yaml.getObject();
+            return new Config(
+                    Double.parseDouble(properties.getProperty("app.rag.retrieval.similarity-threshold", "0.60")),
+                    Integer.parseInt(properties.getProperty("app.rag.retrieval.top-k", "4")),
+                    Integer.parseInt(properties.getProperty("app.rag.chunk-size", "800")),
+                    Integer.parseInt(properties.getProperty("app.rag.chunk-overlap", "100")),
+                    Integer.parseInt(properties.getProperty("app.rag.retrieval.max-expansions", "3")));
+        }
+
+        @Override
+        public String toString() {
+            return "threshold=" + threshold + " topK=" + topK + " chunking=" + chunkSize + ":" + chunkOverlap
+                    + " expansions=" + expansions;
+        }
+    }
+
+    private record Options(
+            String embedder,
+            Path cache,
+            String ollamaUrl,
+            String embeddingModel,
+            Duration embedLatency,
+            String dataset,
+            String docs,
+            List<Double> thresholds,
+            List<Integer> topK,
+            List<int[]> chunking,
+            List<Integer> expansions,
+            Path out) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+            String embeddingModel = values.getOrDefault("embedding-model", "nomic-embed-text");
+            List<int[]> chunking = new ArrayList<>();
+            for (String pair : values.getOrDefault("chunking", "200:40,400:50,800:100").split(",")) {
+                String[] parts = pair.trim().split(":");
+                chunking.add(new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])});
+            }
+            Path cache = Path.of(values.getOrDefault("cache", "src/eval/embeddings/" + embeddingModel + ".bin"));
+            if (!values.containsKey("embedder") && !Files.exists(cache)) {
+                throw new IllegalStateException("No embedding cache at " + cache + ". Run once with"
+                        + " --embedder=ollama against a running Ollama to create it (and commit it),"
+                        + " or pass --embedder=stub to rank configurations with the hashing embedder.");
+            }
+            return new Options(
+                    values.getOrDefault("embedder", "ollama"),
+                    cache,
+                    values.getOrDefault("ollama-url", "http://localhost:11434"),
+                    embeddingModel,
+                    Duration.ofMillis(Long.parseLong(values.getOrDefault("embed-latency", "20").replace("ms", ""))),
+                    values.getOrDefault("dataset", "classpath:eval/questions.jsonl"),
+                    values.getOrDefault("docs", "classpath:/docs/policy_*.txt"),
+                    split(values.getOrDefault("thresholds", "0.5,0.6,0.7")).stream().map(Double::parseDouble).toList(),
+                    split(values.getOrDefault("top-k", "2,4,8")).stream().map(Integer::parseInt).toList(),
+                    chunking,
+                    split(values.getOrDefault("expansions", "0,1,3")).stream().map(Integer::parseInt).toList(),
+                    Path.of(values.getOrDefault("out", "target/eval")));
+        }
+
+        private static List<String> split(String value) {
+            return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.yourapp.ai.agent;
+
+import com.yourapp.ai.rag.BenchmarkFixtures;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Covers the deterministic code around the two LLM calls: plan overrides before retrieval and
+ * answer sanitizing after the answer model returns.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnswerPostProcessingBenchmark {
+
+    private static final AgentPlan RETRIEVAL_ONLY = new AgentPlan(true, false, null, null);
+
+    private String answer;
+
+    @Setup
+    public void setUp() {
+        // A typical multi-section answer: policy text quoted from the corpus plus a system section
+        // and the hedging lines the sanitizer strips.
+        answer = "Policy:\n"
+                + BenchmarkFixtures.read("policy_returns.txt")
+                + BenchmarkFixtures.read("policy_damaged_items.txt")
+                + "However, I don't have information about your specific purchase.\n"
+                + "System:\n"
+                + "Order 12345 is IN_TRANSIT with estimated delivery 2026-01-07.\n"
+                + "No TOOL_RESULT was needed for the policy part.\n";
+    }
+
+    @Benchmark
+    public String sanitizeAnswer() {
+        return AgentOrchestrator.sanitizeAnswer(answer, true, true);
+    }
+
+    @Benchmark
+    public AgentPlan applyDeterministicOverridesOperational() {
+        return AgentOrchestrator.applyDeterministicOverrides(
+                RETRIEVAL_ONLY, "Can I return a damaged item and what is the status of order 12345?");
+    }
+
+    @Benchmark
+    public AgentPlan applyDeterministicOverridesPolicyOnly() {
+        return AgentOrchestrator.applyDeterministicOverrides(
+                RETRIEVAL_ONLY, "What is the refund timing for damaged items?");
+    }
+}
@@ -0,0 +1,56 @@
+package com.yourapp.ai.agent;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlannerOutputParserBenchmark {
+
+    @Param({"retrieval", "tool", "both"})
+    public String shape;
+
+    @Benchmark
+    public AgentPlan parse() {
+        return PlannerOutputParser.parse(json(shape));
+    }
+
+    static String json(String shape) {
+        return switch (shape) {
+            case "retrieval" -> """
+                    {
+                      "needsRetrieval": true,
+                      "needsTool": false,
+                      "toolName": null,
+                      "toolArgument": null
+                    }""";
+            case "tool" -> """
+                    {
+                      "needsRetrieval": false,
+                      "needsTool": true,
+                      "toolName": "getOrderStatus",
+                      "toolArgument": "12345"
+                    }""";
+            default -> """
+                    {
+                      "needsRetrieval": true,
+                      "needsTool": true,
+                      "toolName": "getOrderStatus",
+                      "toolArgument": "12345"
+                    }""";
+        };
+    }
+}
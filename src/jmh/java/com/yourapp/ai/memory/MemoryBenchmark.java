@@ -0,0 +1,86 @@
+package com.yourapp.ai.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encode/decode cost of the memory codecs. {@code facts} is a conversation with only tool facts,
+ * {@code history} one with a full turn window, pending turns and a summary. Payload sizes are
+ * printed at setup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemoryBenchmark {
+
+    private static final String ANSWER = "Policy: Damaged items can be returned within 30 days of delivery. "
+            + "Refunds are issued to the original payment method within 5-7 business days once the "
+            + "return is received. System: The order record shows status IN_TRANSIT.";
+
+    @Param({"json", "binary", "binary-uncompressed"})
+    public String codec;
+
+    @Param({"facts", "history"})
+    public String shape;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MemoryCodecs codecs;
+    private ConversationMemory memory;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        MemoryCodec writer = switch (codec) {
+            case "json" -> new JsonMemoryCodec(mapper);
+            case "binary" -> new BinaryMemoryCodec(mapper, 1024);
+            default -> new BinaryMemoryCodec(mapper, 0);
+        };
+        codecs = new MemoryCodecs(writer.name(), List.of(writer));
+        memory = new ConversationMemory(Map.of(
+                "lastOrderId", "12345",
+                "lastOrderStatus", "IN_TRANSIT",
+                "_tokens", 18_432L));
+        if (shape.equals("history")) {
+            for (int i = 0; i < 20; i++) {
+                TurnHistory.append(memory,
+                        new TurnHistory.Turn("What is the status of order " + (12345 + i) + " and can I return it?", ANSWER),
+                        4, 16);
+            }
+            memory.put(TurnHistory.SUMMARY_KEY, "The customer asked about several orders in transit and the return policy "
+                    + "for damaged items; refunds take 5-7 business days.");
+        }
+        payload = codecs.encode(memory, "bench");
+        System.out.printf("%n%s/%s payload: %d bytes%n", codec, shape, payload.length);
+    }
+
+    @Benchmark
+    public Map<String, Object> snapshot() {
+        return memory.snapshot();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codecs.encode(memory, "bench");
+    }
+
+    @Benchmark
+    public ConversationMemory decode() {
+        return codecs.decode(payload, "bench");
+    }
+}
@@ -0,0 +1,65 @@
+package com.yourapp.ai.rag;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.ai.document.Document;
+
+/**
+ * Realistic inputs for the benchmarks, built from the policy documents shipped in
+ * {@code src/main/resources/docs}.
+ */
+public final class BenchmarkFixtures {
+
+    public static final List<String> POLICY_FILES = List.of(
+            "policy_damaged_items.txt",
+            "policy_international_shipping.txt",
+            "policy_refunds.txt",
+            "policy_returns.txt",
+            "policy_shipping.txt");
+
+    /** The largest document in the corpus; exercises multi-chunk splitting. */
+    public static final String LARGE_FILE = "chatGPT.txt";
+
+    private BenchmarkFixtures() {}
+
+    public static String read(String filename) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/docs/" + filename)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture /docs/" + filename);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Map<String, String> policies() {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (String file : POLICY_FILES) {
+            out.put(file, read(file));
+        }
+        return out;
+    }
+
+    /** Chunks every policy document exactly as {@link DocIngestor} does at ingest time. */
+    public static List<Document> policyChunks() {
+        List<Document> out = new ArrayList<>();
+        policies().forEach((file, text) -> out.addAll(chunk(file, text)));
+        return out;
+    }
+
+    public static List<Document> chunk(String filename, String text) {
+        String policyId = filename.replaceFirst("\\.[^.]+$", "");
+        return DocIngestor.chunk(text, Map.of(
+                "source", "classpath",
+                "path", filename,
+                "policyId", policyId,
+                "title", policyId));
+    }
+}
@@ -0,0 +1,40 @@
+package com.yourapp.ai.rag;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChunkingBenchmark {
+
+    @Param({"policy_returns.txt", "chatGPT.txt"})
+    public String file;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkFixtures.read(file);
+    }
+
+    @Benchmark
+    public List<Document> chunk() {
+        return BenchmarkFixtures.chunk(file, text);
+    }
+}
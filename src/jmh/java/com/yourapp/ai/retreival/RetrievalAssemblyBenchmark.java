@@ -0,0 +1,61 @@
+package com.yourapp.ai.retreival;
+
+import com.yourapp.ai.rag.BenchmarkFixtures;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+
+/**
+ * Dedup, policy-reference expansion and citation building in {@link RetrieverService}, with the
+ * vector store replaced by precomputed search results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetrievalAssemblyBenchmark {
+
+    private List<Document> primaryHits;
+    private Map<String, List<Document>> expansionsByPolicy;
+
+    @Setup
+    public void setUp() {
+        List<Document> chunks = BenchmarkFixtures.policyChunks();
+        // Returns policy plus a duplicate, as a similarity search over overlapping chunks yields.
+        primaryHits = chunks.stream()
+                .filter(doc -> "policy_returns".equals(doc.getMetadata().get("policyId")))
+                .collect(Collectors.toList());
+        primaryHits.addAll(List.copyOf(primaryHits));
+
+        expansionsByPolicy = new HashMap<>();
+        expansionsByPolicy.put("Damaged Items", byPolicy(chunks, "policy_damaged_items"));
+        expansionsByPolicy.put("Refunds", byPolicy(chunks, "policy_refunds"));
+    }
+
+    @Benchmark
+    public RetrievalResult assemble() {
+        return RetrieverService.assemble(primaryHits,
+                policy -> expansionsByPolicy.getOrDefault(policy.trim(), List.of()), 3);
+    }
+
+    private static List<Document> byPolicy(List<Document> chunks, String policyId) {
+        return chunks.stream()
+                .filter(doc -> policyId.equals(doc.getMetadata().get("policyId")))
+                .toList();
+    }
+}
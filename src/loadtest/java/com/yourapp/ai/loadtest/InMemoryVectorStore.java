@@ -0,0 +1,82 @@
+package com.yourapp.ai.loadtest;
+
+import com.yourapp.ai.rag.EmbeddingSearch;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * Brute-force cosine vector store replacing pgvector. Also implements {@link EmbeddingSearch} so
+ * the batched retrieval path runs against the same data.
+ */
+public class InMemoryVectorStore implements VectorStore, EmbeddingSearch {
+
+    private final EmbeddingModel embeddingModel;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public InMemoryVectorStore(EmbeddingModel embeddingModel) {
+        this.embeddingModel = embeddingModel;
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        add(documents, embeddingModel.embed(documents.stream().map(Document::getText).toList()));
+    }
+
+    @Override
+    public void add(List<Document> documents, List<float[]> embeddings) {
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            entries.put(document.getId(), new Entry(document, embeddings.get(i)));
+        }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        idList.forEach(entries::remove);
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        throw new UnsupportedOperationException("Filter deletes are not used by the application");
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        return search(embeddingModel.embed(request.getQuery()), request.getSimilarityThreshold(), request.getTopK());
+    }
+
+    @Override
+    public List<Document> search(float[] embedding, double similarityThreshold, int topK) {
+        List<Document> hits = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            double score = cosine(embedding, entry.embedding());
+            if (score >= similarityThreshold) {
+                hits.add(entry.document().mutate().score(score).build());
+            }
+        }
+        hits.sort(Comparator.comparing(Document::getScore).reversed());
+        return hits.size() > topK ? new ArrayList<>(hits.subList(0, topK)) : hits;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+
+    private record Entry(Document document, float[] embedding) {}
+}
@@ -0,0 +1,54 @@
+package com.yourapp.ai.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Local stand-ins for Ollama, pgvector and Auth0. Only active under the {@code loadtest} profile,
+ * which also switches the memory store to the in-process implementation.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    @Bean
+    public ChatModel stubChatModel(
+            @Value("${app.loadtest.chat.first-token-latency:PT0.1S}") Duration firstTokenLatency,
+            @Value("${app.loadtest.chat.tokens-per-second:200}") double tokensPerSecond,
+            @Value("${app.loadtest.chat.answer-failure-rate:0}") double answerFailureRate,
+            @Value("${app.loadtest.chat.answer-hang-rate:0}") double answerHangRate) {
+        return new StubChatModel(firstTokenLatency, tokensPerSecond, answerFailureRate, answerHangRate);
+    }
+
+    @Bean
+    public EmbeddingModel stubEmbeddingModel(
+            @Value("${app.loadtest.embedding.latency:PT0.005S}") Duration latency) {
+        return new StubEmbeddingModel(latency);
+    }
+
+    @Bean
+    public InMemoryVectorStore inMemoryVectorStore(EmbeddingModel embeddingModel) {
+        return new InMemoryVectorStore(embeddingModel);
+    }
+
+    /**
+     * Writes the local key set to the JWKS cache file, in place of the Auth0 endpoint. The
+     * production decoder reads it from there (the profile sets no JWKS URI), so tokens go through
+     * the same decoder stack, and its metrics are registered once.
+     */
+    @Bean
+    public LocalJwtSigner localJwtSigner(
+            @Value("${app.security.auth0.audience}") String audience,
+            @Value("${app.security.jwks.cache-file}") String jwksFile) throws IOException {
+        LocalJwtSigner signer = new LocalJwtSigner(audience);
+        signer.writeJwks(Path.of(jwksFile));
+        return signer;
+    }
+}
@@ -0,0 +1,444 @@
+package com.yourapp.ai.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yourapp.ai.SpringAiFullDemoApplication;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application in-process under the {@code loadtest} profile and drives mixed-intent
+ * traffic at {@code /chat}, {@code /chat/stream} and {@code /chat/batch}.
+ *
+ * <p>Arguments ({@code --name=value}):
+ * <ul>
+ *   <li>{@code concurrency} – concurrent virtual-thread clients (default 32)</li>
+ *   <li>{@code duration} / {@code warmup} – ISO-8601 or seconds (defaults 30s / 5s)</li>
+ *   <li>{@code mix} – endpoint weights, e.g. {@code chat=70,stream=20,batch=10}</li>
+ *   <li>{@code batch-size} – questions per batch request (default 8)</li>
+ *   <li>{@code baseline} – a previous report to compare against</li>
+ *   <li>{@code out} – report directory (default {@code target/loadtest})</li>
+ *   <li>{@code ollama-servers} – start this many local {@link StubOllamaServer}s and route the
+ *       planner, answer and embedding pools over them instead of the in-process stubs (default 0)</li>
+ *   <li>{@code ollama-slow} – extra latency of the first stub server, e.g. {@code PT0.3S}</li>
+ * </ul>
+ * Any other {@code --spring.*} or {@code --app.*} argument is passed to the application, e.g.
+ * {@code --app.loadtest.chat.tokens-per-second=50}.
+ */
+public final class LoadTestHarness {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /** Mixed intents in roughly the proportions seen in production: policy, order, both, neither. */
+    private static final List<String> QUESTIONS = List.of(
+            "Can I return a damaged item?",
+            "How long do refunds take to process?",
+            "What is the warranty policy for electronics?",
+            "Do you ship internationally and what does it cost?",
+            "What is the status of order 12345?",
+            "Where is my order 98765? Has the shipment left?",
+            "My order 55501 arrived damaged, can I return it and what is its status?",
+            "Is order 40404 eligible for a refund?",
+            "Hello, who am I talking to?",
+            "Thanks for the help!");
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final String baseUrl;
+    private final LocalJwtSigner signer;
+    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    private final Options options;
+    private volatile boolean recording;
+
+    private LoadTestHarness(String baseUrl, LocalJwtSigner signer, Options options) {
+        this.baseUrl = baseUrl;
+        this.signer = signer;
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        List<StubOllamaServer> servers = startOllamaServers(options);
+        List<String> applicationArgs = new ArrayList<>(Arrays.asList(options.applicationArgs()));
+        if (!servers.isEmpty()) {
+            String endpoints = String.join(",", servers.stream().map(StubOllamaServer::url).toList());
+            for (String role : List.of("planner", "answer", "embedding")) {
+                applicationArgs.add("--app.ollama.pools." + role + ".endpoints=" + endpoints);
+            }
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringAiFullDemoApplication.class)
+                .profiles("loadtest")
+                .properties("server.port=0")
+                .run(applicationArgs.toArray(String[]::new))) {
+            String port = context.getEnvironment().getRequiredProperty("local.server.port");
+            LoadTestHarness harness = new LoadTestHarness(
+                    "http://localhost:" + port, context.getBean(LocalJwtSigner.class), options);
+            harness.awaitReady(Duration.ofMinutes(2));
+            Map<String, Object> report = harness.run();
+            harness.write(report);
+        } finally {
+            servers.forEach(StubOllamaServer::close);
+        }
+        // The Spring context leaves non-daemon threads behind on some shutdown paths.
+        System.exit(0);
+    }
+
+    /** Stub servers use the in-process stubs' latency settings, so results stay comparable. */
+    private static List<StubOllamaServer> startOllamaServers(Options options) throws IOException {
+        List<StubOllamaServer> servers = new ArrayList<>();
+        for (int i = 0; i < options.ollamaServers; i++) {
+            servers.add(new StubOllamaServer(
+                    Options.duration(options.applicationArg("app.loadtest.chat.first-token-latency", "PT0.1S")),
+                    Double.parseDouble(options.applicationArg("app.loadtest.chat.tokens-per-second", "200")),
+                    Options.duration(options.applicationArg("app.loadtest.embedding.latency", "PT0.005S")),
+                    i == 0 ? options.ollamaSlow : Duration.ZERO));
+        }
+        return servers;
+    }
+
+    private void awaitReady(Duration timeout) throws InterruptedException {
+        Instant deadline = Instant.now().plus(timeout);
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).GET().build();
+        while (Instant.now().isBefore(deadline)) {
+            try {
+                if (http.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Application did not become ready within " + timeout);
+    }
+
+    private Map<String, Object> run() throws InterruptedException {
+        System.out.printf("Load test: concurrency=%d warmup=%s duration=%s mix=%s%n",
+                options.concurrency, options.warmup, options.duration, options.mix);
+
+        long endNanos = System.nanoTime() + options.warmup.toNanos() + options.duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.concurrency; i++) {
+                int client = i;
+                clients.submit(() -> drive(client, endNanos));
+            }
+            Thread.sleep(options.warmup.toMillis());
+            recording = true;
+            long start = System.nanoTime();
+            clients.shutdown();
+            clients.awaitTermination(options.duration.toSeconds() + 300, TimeUnit.SECONDS);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            return summarize(elapsedSeconds);
+        }
+    }
+
+    private void drive(int client, long endNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int turn = 0;
+        while (System.nanoTime() < endNanos) {
+            // A conversation lasts a few turns so memory reads and writes hit existing entries.
+            String conversationId = "lt-" + client + "-" + (turn++ / 4);
+            String endpoint = options.pickEndpoint(random.nextInt(options.totalWeight()));
+            long start = System.nanoTime();
+            int status = 0;
+            String serverTiming = null;
+            try {
+                HttpResponse<InputStream> response = send(endpoint, conversationId, random);
+                status = response.statusCode();
+                serverTiming = response.headers().firstValue("Server-Timing").orElse(null);
+            } catch (Exception e) {
+                // counted as an error below
+            }
+            if (recording) {
+                stats.computeIfAbsent(endpoint, key -> new EndpointStats())
+                        .record(status, System.nanoTime() - start, serverTiming);
+            }
+        }
+    }
+
+    private HttpResponse<InputStream> send(String endpoint, String conversationId, ThreadLocalRandom random)
+            throws IOException, InterruptedException {
+        String body;
+        String path;
+        switch (endpoint) {
+            case "stream" -> {
+                path = "/chat/stream";
+                body = requestJson(conversationId, random);
+            }
+            case "batch" -> {
+                path = "/chat/batch";
+                List<String> items = new ArrayList<>(options.batchSize);
+                for (int i = 0; i < options.batchSize; i++) {
+                    items.add(requestJson(conversationId + "-b" + (i % 3), random));
+                }
+                body = "[" + String.join(",", items) + "]";
+            }
+            default -> {
+                path = "/chat";
+                body = requestJson(conversationId, random);
+            }
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token(endpoint))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        // Read the whole body: for streaming endpoints the latency that matters is the last byte.
+        HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = response.body()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return response;
+    }
+
+    /** One subject per endpoint, so each endpoint is its own tenant for fair-share scheduling. */
+    private String token(String endpoint) {
+        return tokens.computeIfAbsent(endpoint, key -> signer.mint("loadtest-" + key, Duration.ofHours(1)));
+    }
+
+    private static String requestJson(String conversationId, ThreadLocalRandom random) {
+        String question = QUESTIONS.get(random.nextInt(QUESTIONS.size()));
+        return "{\"conversationId\":\"" + conversationId + "\",\"question\":\"" + question + "\"}";
+    }
+
+    private Map<String, Object> summarize(double elapsedSeconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-8s %8s %8s %8s %8s %10s %10s %10s %10s%n",
+                "endpoint", "total", "ok", "429", "errors", "rps", "p50_ms", "p95_ms", "p99_ms");
+        for (String endpoint : List.of("chat", "stream", "batch")) {
+            EndpointStats s = stats.get(endpoint);
+            if (s == null) {
+                continue;
+            }
+            Map<String, Object> summary = s.summary(elapsedSeconds);
+            endpoints.put(endpoint, summary);
+            System.out.printf("%-8s %8d %8d %8d %8d %10.2f %10.1f %10.1f %10.1f%n",
+                    endpoint, summary.get("total"), summary.get("ok"), summary.get("rejected"),
+                    summary.get("errors"), summary.get("rps"), summary.get("p50Ms"),
+                    summary.get("p95Ms"), summary.get("p99Ms"));
+            if (summary.get("stageMeanMs") instanceof Map<?, ?> stageMeans) {
+                StringBuilder line = new StringBuilder("         stages (mean ms):");
+                stageMeans.forEach((stage, mean) ->
+                        line.append(String.format(" %s=%.1f", stage, (Double) mean)));
+                System.out.println(line);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("concurrency", options.concurrency);
+        report.put("durationSeconds", elapsedSeconds);
+        report.put("mix", options.mix);
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private void write(Map<String, Object> report) throws IOException {
+        Files.createDirectories(options.out);
+        String name = "report-" + report.get("timestamp").toString().replace(':', '-') + ".json";
+        Path file = options.out.resolve(name);
+        MAPPER.writeValue(file.toFile(), report);
+        Files.copy(file, options.out.resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("\nReport written to " + file);
+
+        if (options.baseline != null) {
+            compare(MAPPER.valueToTree(report), MAPPER.readTree(options.baseline.toFile()));
+        }
+    }
+
+    private void compare(JsonNode current, JsonNode baseline) {
+        System.out.printf("%nAgainst baseline %s (%s):%n", options.baseline, baseline.path("timestamp").asText());
+        System.out.printf("%-8s %-8s %12s %12s %9s%n", "endpoint", "metric", "baseline", "current", "change");
+        current.path("endpoints").fieldNames().forEachRemaining(endpoint -> {
+            JsonNode now = current.path("endpoints").path(endpoint);
+            JsonNode before = baseline.path("endpoints").path(endpoint);
+            if (before.isMissingNode()) {
+                return;
+            }
+            for (String metric : List.of("rps", "p50Ms", "p95Ms", "p99Ms")) {
+                double was = before.path(metric).asDouble();
+                double is = now.path(metric).asDouble();
+                double change = was == 0 ? 0 : (is - was) / was * 100;
+                System.out.printf("%-8s %-8s %12.2f %12.2f %+8.1f%%%n", endpoint, metric, was, is, change);
+            }
+        });
+    }
+
+    /** Latencies for one endpoint. Appends are cheap next to a request, so a monitor is enough. */
+    private static final class EndpointStats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int ok;
+        private int rejected;
+        private int errors;
+        private final Map<String, double[]> stageTotals = new LinkedHashMap<>();
+
+        synchronized void record(int status, long nanos, String serverTiming) {
+            if (serverTiming != null) {
+                recordStages(serverTiming);
+            }
+            if (status >= 200 && status < 300) {
+                ok++;
+            } else if (status == 429) {
+                rejected++;
+            } else {
+                errors++;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        synchronized Map<String, Object> summary(double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("total", count);
+            out.put("ok", ok);
+            out.put("rejected", rejected);
+            out.put("errors", errors);
+            out.put("rps", ok / elapsedSeconds);
+            out.put("p50Ms", percentile(sorted, 0.50));
+            out.put("p95Ms", percentile(sorted, 0.95));
+            out.put("p99Ms", percentile(sorted, 0.99));
+            if (!stageTotals.isEmpty()) {
+                Map<String, Double> stageMeans = new LinkedHashMap<>();
+                stageTotals.forEach((stage, total) -> stageMeans.put(stage, total[0] / total[1]));
+                out.put("stageMeanMs", stageMeans);
+            }
+            return out;
+        }
+
+        /** Accumulates the per-request {@code Server-Timing} breakdown, e.g. {@code planner;dur=12.5}. */
+        private void recordStages(String serverTiming) {
+            for (String entry : serverTiming.split(",")) {
+                String[] parts = entry.trim().split(";");
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].startsWith("dur=")) {
+                        double[] total = stageTotals.computeIfAbsent(parts[0], key -> new double[2]);
+                        total[0] += Double.parseDouble(parts[i].substring(4));
+                        total[1]++;
+                    }
+                }
+            }
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+    }
+
+    private record Options(
+            int concurrency,
+            Duration warmup,
+            Duration duration,
+            String mix,
+            Map<String, Integer> weights,
+            int batchSize,
+            Path baseline,
+            Path out,
+            int ollamaServers,
+            Duration ollamaSlow,
+            String[] applicationArgs) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            List<String> applicationArgs = new ArrayList<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                if (name.startsWith("spring.") || name.startsWith("app.") || name.startsWith("logging.")) {
+                    applicationArgs.add(arg);
+                } else {
+                    values.put(name, arg.substring(arg.indexOf('=') + 1));
+                }
+            }
+            String mix = values.getOrDefault("mix", "chat=70,stream=20,batch=10");
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            for (String part : mix.split(",")) {
+                String[] kv = part.split("=");
+                String endpoint = kv[0].trim();
+                if (!List.of("chat", "stream", "batch").contains(endpoint)) {
+                    throw new IllegalArgumentException("Unknown endpoint in mix: " + endpoint);
+                }
+                weights.put(endpoint, Integer.parseInt(kv[1].trim()));
+            }
+            String baseline = values.get("baseline");
+            return new Options(
+                    Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                    duration(values.getOrDefault("warmup", "5")),
+                    duration(values.getOrDefault("duration", "30")),
+                    mix,
+                    weights,
+                    Integer.parseInt(values.getOrDefault("batch-size", "8")),
+                    baseline == null || baseline.isBlank() ? null : Path.of(baseline),
+                    Path.of(values.getOrDefault("out", "target/loadtest")),
+                    Integer.parseInt(values.getOrDefault("ollama-servers", "0")),
+                    duration(values.getOrDefault("ollama-slow", "0")),
+                    applicationArgs.toArray(String[]::new));
+        }
+
+        String applicationArg(String name, String defaultValue) {
+            for (String arg : applicationArgs) {
+                if (arg.startsWith("--" + name + "=")) {
+                    return arg.substring(name.length() + 3);
+                }
+            }
+            return defaultValue;
+        }
+
+        int totalWeight() {
+            return weights.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        String pickEndpoint(int roll) {
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                roll -= weight.getValue();
+                if (roll < 0) {
+                    return weight.getKey();
+                }
+            }
+            return "chat";
+        }
+
+        private static Duration duration(String value) {
+            return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+        }
+    }
+}
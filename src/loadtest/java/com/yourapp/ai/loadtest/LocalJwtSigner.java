@@ -0,0 +1,81 @@
+package com.yourapp.ai.loadtest;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Mints RS256 access tokens with an in-process key pair in place of Auth0. The public key is
+ * published as a JWKS file, which the production decoder stack reads like a cached Auth0 key set.
+ */
+public class LocalJwtSigner {
+
+    static final String ISSUER = "https://loadtest.local/";
+
+    private final RSAPublicKey publicKey;
+    private final JwtEncoder encoder;
+    private final String keyId = UUID.randomUUID().toString();
+    private final String audience;
+
+    public LocalJwtSigner(String audience) {
+        KeyPair keyPair = generateKeyPair();
+        this.publicKey = (RSAPublicKey) keyPair.getPublic();
+        RSAKey jwk = new RSAKey.Builder(publicKey)
+                .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                .keyID(keyId)
+                .build();
+        this.encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+        this.audience = audience;
+    }
+
+    public String mint(String subject, Duration ttl) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject(subject)
+                .audience(List.of(audience))
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .claim("scope", "chat:access")
+                .build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256).keyId(keyId).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    /** Writes the public key set to {@code file} and returns it. */
+    public Path writeJwks(Path file) throws IOException {
+        RSAKey jwk = new RSAKey.Builder(publicKey).keyID(keyId).build();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, new JWKSet(jwk).toString(true), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("RSA is not available", e);
+        }
+    }
+}
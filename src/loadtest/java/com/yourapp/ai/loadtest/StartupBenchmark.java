@@ -0,0 +1,265 @@
+package com.yourapp.ai.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yourapp.ai.SpringAiFullDemoApplication;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures time-to-first-successful-{@code /chat} of a fresh JVM, the latency a node added by the
+ * autoscaler adds before it takes traffic.
+ *
+ * <p>Each run starts a child JVM that boots the application under the {@code loadtest} profile,
+ * waits for {@code /actuator/health/readiness} like a load balancer would, then sends
+ * {@code /chat} until one succeeds. Times are taken from process spawn. Variants, comma-separated
+ * and combinable with {@code +}:
+ * <ul>
+ *   <li>{@code baseline} – no startup options</li>
+ *   <li>{@code defer} – {@code app.startup.defer-ingestion=true}</li>
+ *   <li>{@code cds} – an AppCDS archive recorded by one training run of the same classpath</li>
+ * </ul>
+ * Class directories are packed into jars first, since CDS only archives classes from jars.
+ * Spring AOT is not covered: it needs the bean set fixed at build time, which the
+ * {@code fast-startup} Maven profile does for the production configuration.
+ *
+ * <p>Arguments ({@code --name=value}): {@code runs} (default 3), {@code variants} (default
+ * {@code baseline,defer,cds,cds+defer}), {@code jvm-args} (extra child JVM flags,
+ * space-separated), {@code out} (default {@code target/loadtest}). {@code --spring.*} and
+ * {@code --app.*} arguments are passed to the application.
+ * Run: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.yourapp.ai.loadtest.StartupBenchmark}
+ */
+public final class StartupBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String RESULT_PREFIX = "STARTUP_RESULT ";
+    private static final String CHILD = "--child";
+
+    private record Run(long mainMs, long readyMs, long firstChatMs) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(CHILD)) {
+            child(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.startsWith("spring.") || name.startsWith("app.") || name.startsWith("logging.")) {
+                applicationArgs.add(arg);
+            } else {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        List<String> variants = List.of(options.getOrDefault("variants", "baseline,defer,cds,cds+defer").split(","));
+        List<String> jvmArgs = options.getOrDefault("jvm-args", "").isBlank()
+                ? List.of()
+                : List.of(options.get("jvm-args").trim().split("\\s+"));
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest"));
+        Path work = out.resolve("startup");
+        Files.createDirectories(work);
+
+        // Same jar classpath for every variant, so only the option under test differs.
+        String classpath = jarClasspath(System.getProperty("java.class.path"), work);
+        Path archive = work.resolve("startup.jsa");
+        if (variants.stream().anyMatch(variant -> variant.contains("cds"))) {
+            System.out.println("Recording CDS archive " + archive);
+            List<String> training = new ArrayList<>(jvmArgs);
+            training.add("-XX:ArchiveClassesAtExit=" + archive);
+            training.add("-Xlog:cds=error");
+            launch(work, classpath, training, applicationArgs);
+        }
+
+        System.out.printf("Startup benchmark: runs=%d variants=%s%n", runs, variants);
+        System.out.printf("%n%-16s %6s %10s %10s %14s %14s%n",
+                "variant", "runs", "main_ms", "ready_ms", "first_chat_ms", "best_chat_ms");
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (String variant : variants) {
+            List<String> childJvmArgs = new ArrayList<>(jvmArgs);
+            List<String> childAppArgs = new ArrayList<>(applicationArgs);
+            for (String option : variant.split("\\+")) {
+                switch (option.trim()) {
+                    case "baseline" -> { }
+                    case "defer" -> childAppArgs.add("--app.startup.defer-ingestion=true");
+                    case "cds" -> {
+                        childJvmArgs.add("-XX:SharedArchiveFile=" + archive);
+                        childJvmArgs.add("-Xlog:cds=error");
+                    }
+                    default -> throw new IllegalArgumentException("Unknown variant option " + option);
+                }
+            }
+            List<Run> measured = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                measured.add(launch(work, classpath, childJvmArgs, childAppArgs));
+            }
+            long[] main = measured.stream().mapToLong(Run::mainMs).sorted().toArray();
+            long[] ready = measured.stream().mapToLong(Run::readyMs).sorted().toArray();
+            long[] chat = measured.stream().mapToLong(Run::firstChatMs).sorted().toArray();
+            System.out.printf("%-16s %6d %10d %10d %14d %14d%n",
+                    variant, runs, median(main), median(ready), median(chat), chat[0]);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("jvmArgs", childJvmArgs);
+            result.put("applicationArgs", childAppArgs);
+            result.put("medianMainMs", median(main));
+            result.put("medianReadyMs", median(ready));
+            result.put("medianFirstChatMs", median(chat));
+            result.put("runs", measured);
+            results.put(variant, result);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("cpus", Runtime.getRuntime().availableProcessors());
+        report.put("variants", results);
+        Path file = out.resolve("startup-" + Instant.now().toString().replace(':', '-') + ".json");
+        MAPPER.writeValue(file.toFile(), report);
+        System.out.println("\nReport written to " + file);
+    }
+
+    /** Starts one child JVM and returns its startup times, measured from spawn. */
+    private static Run launch(Path work, String classpath, List<String> jvmArgs, List<String> applicationArgs)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(StartupBenchmark.class.getName());
+        command.add(CHILD);
+        command.addAll(applicationArgs);
+
+        Path log = work.resolve("child.log");
+        long spawnedAt = System.currentTimeMillis();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter output = Files.newBufferedWriter(log)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                output.write(line);
+                output.newLine();
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = line.substring(RESULT_PREFIX.length());
+                }
+            }
+        }
+        int exit = process.waitFor();
+        if (result == null || exit != 0) {
+            throw new IllegalStateException("Startup run failed with exit code " + exit + "; see " + log);
+        }
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (String pair : result.split(" ")) {
+            times.put(pair.substring(0, pair.indexOf('=')), Long.parseLong(pair.substring(pair.indexOf('=') + 1)));
+        }
+        return new Run(times.get("main") - spawnedAt, times.get("ready") - spawnedAt, times.get("chat") - spawnedAt);
+    }
+
+    /** Runs inside the child JVM: boot, wait for readiness, then the first successful chat. */
+    private static void child(String[] applicationArgs) throws Exception {
+        long mainAt = System.currentTimeMillis();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringAiFullDemoApplication.class)
+                .profiles("loadtest")
+                .properties("server.port=0")
+                .run(applicationArgs);
+        String baseUrl = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+        HttpClient http = HttpClient.newHttpClient();
+
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).GET().build();
+        long readyAt = awaitStatus(http, readiness);
+        String token = context.getBean(LocalJwtSigner.class).mint("startup-benchmark", Duration.ofMinutes(5));
+        HttpRequest chat = HttpRequest.newBuilder(URI.create(baseUrl + "/chat"))
+                .timeout(Duration.ofMinutes(1))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"conversationId\":\"startup\",\"question\":\"Can I return a damaged item?\"}"))
+                .build();
+        long chatAt = awaitStatus(http, chat);
+
+        System.out.println(RESULT_PREFIX + "main=" + mainAt + " ready=" + readyAt + " chat=" + chatAt);
+        System.out.flush();
+        // The Spring context leaves non-daemon threads behind on some shutdown paths.
+        System.exit(0);
+    }
+
+    /** Sends {@code request} until it returns 200 and returns the wall-clock time it did. */
+    private static long awaitStatus(HttpClient http, HttpRequest request) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return System.currentTimeMillis();
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("No 200 from " + request.uri() + " within 2 minutes");
+    }
+
+    /** The classpath with every class directory replaced by a jar of its contents. */
+    private static String jarClasspath(String classpath, Path work) throws IOException {
+        List<String> entries = new ArrayList<>();
+        int index = 0;
+        for (String entry : classpath.split(File.pathSeparator)) {
+            Path path = Path.of(entry);
+            if (!Files.isDirectory(path)) {
+                entries.add(entry);
+                continue;
+            }
+            Path jar = work.resolve("classes-" + index++ + ".jar");
+            try (OutputStream file = Files.newOutputStream(jar);
+                 JarOutputStream out = new JarOutputStream(file);
+                 Stream<Path> files = Files.walk(path)) {
+                // Directory entries too: component scanning looks packages up as resources.
+                for (Path source : files.filter(source -> !source.equals(path)).sorted().toList()) {
+                    String name = path.relativize(source).toString().replace(File.separatorChar, '/');
+                    boolean directory = Files.isDirectory(source);
+                    out.putNextEntry(new JarEntry(directory ? name + "/" : name));
+                    if (!directory) {
+                        Files.copy(source, out);
+                    }
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+}
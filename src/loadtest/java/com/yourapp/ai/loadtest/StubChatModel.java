@@ -0,0 +1,213 @@
+package com.yourapp.ai.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * Offline replacement for the Ollama chat models.
+ *
+ * <p>Planner prompts get a plan derived from the same keywords the planner prompt lists; answer
+ * prompts get a {@code Policy:}/{@code System:} answer built from the CONTEXT and TOOL_RESULT
+ * blocks. Each response costs {@code firstTokenLatency} plus one token interval per output token,
+ * so a blocking call takes as long as the equivalent streamed one. A share
+ * {@code answerFailureRate} of answer calls fails after the first-token latency, like an Ollama
+ * host that accepts the connection and then errors; a share {@code answerHangRate} never responds
+ * until the caller gives up.
+ */
+public class StubChatModel implements ChatModel {
+
+    private static final Pattern ORDER_ID = Pattern.compile("\\b(\\d{4,})\\b");
+    private static final Pattern TOKEN = Pattern.compile("\\S+\\s*");
+    private static final List<String> POLICY_WORDS =
+            List.of("return", "refund", "damaged", "policy", "eligib", "warranty", "shipping");
+    private static final List<String> ORDER_WORDS =
+            List.of("order", "status", "tracking", "delivery", "shipment");
+
+    private final Duration firstTokenLatency;
+    private final long tokenIntervalNanos;
+    private final double answerFailureRate;
+    private final double answerHangRate;
+
+    public StubChatModel(Duration firstTokenLatency, double tokensPerSecond) {
+        this(firstTokenLatency, tokensPerSecond, 0, 0);
+    }
+
+    public StubChatModel(
+            Duration firstTokenLatency, double tokensPerSecond, double answerFailureRate, double answerHangRate) {
+        this.firstTokenLatency = firstTokenLatency;
+        this.tokenIntervalNanos = tokensPerSecond <= 0 ? 0 : (long) (1_000_000_000L / tokensPerSecond);
+        this.answerFailureRate = answerFailureRate;
+        this.answerHangRate = answerHangRate;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        if (hangs(prompt)) {
+            pause(Long.MAX_VALUE);
+        }
+        if (fails(prompt)) {
+            pause(firstTokenLatency.toNanos());
+            throw new IllegalStateException("Stub answer model failure");
+        }
+        String text = respond(prompt);
+        List<String> tokens = tokenize(text);
+        pause(firstTokenLatency.toNanos() + tokenIntervalNanos * tokens.size());
+        return response(prompt, text, tokens.size());
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            if (hangs(prompt)) {
+                return Flux.<ChatResponse>never();
+            }
+            if (fails(prompt)) {
+                return Flux.<ChatResponse>error(new IllegalStateException("Stub answer model failure"))
+                        .delaySubscription(firstTokenLatency);
+            }
+            String text = respond(prompt);
+            List<String> tokens = tokenize(text);
+            // Like Ollama, a final empty "done" chunk follows the tokens and alone reports usage.
+            return Flux.range(0, tokens.size() + 1)
+                    .delayElements(Duration.ofNanos(Math.max(1, tokenIntervalNanos)))
+                    .delaySubscription(firstTokenLatency)
+                    .map(i -> i == tokens.size()
+                            ? response(prompt, "", tokens.size())
+                            : response(prompt, tokens.get(i), 0));
+        });
+    }
+
+    private boolean fails(Prompt prompt) {
+        return answerFailureRate > 0
+                && prompt.getContents().contains("HAS_CONTEXT:")
+                && ThreadLocalRandom.current().nextDouble() < answerFailureRate;
+    }
+
+    private boolean hangs(Prompt prompt) {
+        return answerHangRate > 0
+                && prompt.getContents().contains("HAS_CONTEXT:")
+                && ThreadLocalRandom.current().nextDouble() < answerHangRate;
+    }
+
+    private static String respond(Prompt prompt) {
+        String system = "";
+        String user = "";
+        for (Message message : prompt.getInstructions()) {
+            if (message.getMessageType() == MessageType.SYSTEM) {
+                system = message.getText();
+            } else if (message.getMessageType() == MessageType.USER) {
+                user = message.getText();
+            }
+        }
+        return respond(system, user);
+    }
+
+    static String respond(String system, String user) {
+        if (system.contains("planner")) {
+            return plan(user);
+        }
+        return answer(user);
+    }
+
+    static String plan(String question) {
+        String lower = question.toLowerCase(Locale.ROOT);
+        boolean retrieval = POLICY_WORDS.stream().anyMatch(lower::contains);
+        Matcher orderId = ORDER_ID.matcher(question);
+        boolean tool = orderId.find() && ORDER_WORDS.stream().anyMatch(lower::contains);
+        return "{\"needsRetrieval\": " + retrieval
+                + ", \"needsTool\": " + tool
+                + ", \"toolName\": " + (tool ? "\"getOrderStatus\"" : "null")
+                + ", \"toolArgument\": " + (tool ? "\"" + orderId.group(1) + "\"" : "null")
+                + "}";
+    }
+
+    static String answer(String prompt) {
+        String context = block(prompt, "CONTEXT:\n");
+        String toolResult = block(prompt, "TOOL_RESULT:\n");
+        boolean hasContext = prompt.contains("HAS_CONTEXT: true") && !context.isBlank();
+        boolean hasTool = prompt.contains("HAS_TOOL_RESULT: true") && !toolResult.isBlank();
+
+        StringBuilder out = new StringBuilder();
+        if (hasContext) {
+            out.append("Policy:\n").append(firstSentences(context, 3)).append('\n');
+        }
+        if (hasTool) {
+            out.append("System:\nThe order record shows ").append(toolResult.strip()).append('\n');
+        }
+        if (out.isEmpty()) {
+            return "I don't have enough information to answer.";
+        }
+        return out.toString().strip();
+    }
+
+    private static String block(String prompt, String header) {
+        int start = prompt.indexOf(header);
+        if (start < 0) {
+            return "";
+        }
+        start += header.length();
+        int end = prompt.indexOf("\n\n", start);
+        return end < 0 ? prompt.substring(start) : prompt.substring(start, end);
+    }
+
+    private static String firstSentences(String text, int count) {
+        String flat = text.replaceAll("\\s+", " ").strip();
+        int end = 0;
+        for (int i = 0; i < count; i++) {
+            int next = flat.indexOf(". ", end);
+            if (next < 0) {
+                return flat;
+            }
+            end = next + 1;
+        }
+        return flat.substring(0, end);
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        return tokens;
+    }
+
+    private static ChatResponse response(Prompt prompt, String text, int completionTokens) {
+        String model = prompt.getOptions() == null ? "stub" : prompt.getOptions().getModel();
+        ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder().model(model);
+        if (completionTokens > 0) {
+            metadata.usage(new DefaultUsage(prompt.getContents().length() / 4, completionTokens));
+        }
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata.build());
+    }
+
+    /** Like an HTTP call to Ollama, an interrupted pause aborts the call. */
+    static void pause(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Stub model call interrupted");
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
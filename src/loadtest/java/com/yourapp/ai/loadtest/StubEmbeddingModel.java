@@ -0,0 +1,80 @@
+package com.yourapp.ai.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * Deterministic hashing embedder standing in for {@code nomic-embed-text}.
+ *
+ * <p>Each word is hashed into one of {@link #DIMENSIONS} buckets. A constant bias component is
+ * added before normalising, so cosine similarity is {@code (1 + wordOverlap) / 2}: unrelated text
+ * scores about 0.5 and text sharing vocabulary clears the retriever's 0.60 threshold, which keeps
+ * the retrieval path exercised the way real embeddings would.
+ */
+public class StubEmbeddingModel implements EmbeddingModel {
+
+    static final int DIMENSIONS = 768;
+
+    private final Duration latency;
+
+    public StubEmbeddingModel(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        StubChatModel.pause(latency.toNanos());
+        List<Embedding> embeddings = new ArrayList<>(request.getInstructions().size());
+        for (int i = 0; i < request.getInstructions().size(); i++) {
+            embeddings.add(new Embedding(embedText(request.getInstructions().get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return DIMENSIONS;
+    }
+
+    static float[] embedText(String text) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+                if (word.length() < 3) {
+                    continue;
+                }
+                int hash = word.hashCode();
+                vector[1 + Math.floorMod(hash, DIMENSIONS - 1)] += 1f;
+            }
+            for (int i = 1; i < DIMENSIONS; i++) {
+                norm += vector[i] * vector[i];
+            }
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 1; i < DIMENSIONS; i++) {
+                vector[i] *= scale;
+            }
+        }
+        // Bias component: both halves have unit length, so the whole vector is normalised by sqrt(2).
+        vector[0] = 1f;
+        float half = (float) (1.0 / Math.sqrt(2.0));
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] *= half;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,140 @@
+package com.yourapp.ai.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * A local HTTP server speaking the subset of the Ollama API the application uses
+ * ({@code /api/chat}, blocking and NDJSON streaming, and {@code /api/embed}), so Ollama pools can
+ * be exercised without Ollama.
+ *
+ * <p>Responses come from the same logic as {@link StubChatModel} and {@link StubEmbeddingModel}.
+ * {@code slowdown} is added to every response, to stand in for an overloaded host.
+ */
+final class StubOllamaServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final Duration firstTokenLatency;
+    private final long tokenIntervalNanos;
+    private final Duration embeddingLatency;
+    private final Duration slowdown;
+
+    StubOllamaServer(Duration firstTokenLatency, double tokensPerSecond, Duration embeddingLatency, Duration slowdown)
+            throws IOException {
+        this.firstTokenLatency = firstTokenLatency;
+        this.tokenIntervalNanos = tokensPerSecond <= 0 ? 0 : (long) (1_000_000_000L / tokensPerSecond);
+        this.embeddingLatency = embeddingLatency;
+        this.slowdown = slowdown;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/chat", exchange -> handle(exchange, this::chat));
+        server.createContext("/api/embed", exchange -> handle(exchange, this::embed));
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private interface Handler {
+        void handle(JsonNode request, HttpExchange exchange) throws IOException;
+    }
+
+    private static void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+            handler.handle(request, exchange);
+        } catch (IOException | RuntimeException e) {
+            // The client went away (e.g. a cancelled hedge); nothing left to answer.
+        }
+    }
+
+    private void chat(JsonNode request, HttpExchange exchange) throws IOException {
+        String system = "";
+        String user = "";
+        for (JsonNode message : request.path("messages")) {
+            switch (message.path("role").asText()) {
+                case "system" -> system = message.path("content").asText();
+                case "user" -> user = message.path("content").asText();
+                default -> { }
+            }
+        }
+        String model = request.path("model").asText("stub");
+        String text = StubChatModel.respond(system, user);
+        List<String> tokens = StubChatModel.tokenize(text);
+        int promptTokens = (system.length() + user.length()) / 4;
+
+        if (!request.path("stream").asBoolean(true)) {
+            StubChatModel.pause(slowdown.toNanos() + firstTokenLatency.toNanos() + tokenIntervalNanos * tokens.size());
+            send(exchange, "application/json", chatChunk(model, text, true, promptTokens, tokens.size()));
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        StubChatModel.pause(slowdown.toNanos() + firstTokenLatency.toNanos());
+        for (int i = 0; i < tokens.size(); i++) {
+            StubChatModel.pause(tokenIntervalNanos);
+            out.write(chatChunk(model, tokens.get(i), false, 0, 0));
+            out.write('\n');
+            out.flush();
+        }
+        // Like Ollama, only the final chunk reports usage.
+        out.write(chatChunk(model, "", true, promptTokens, tokens.size()));
+        out.write('\n');
+    }
+
+    private void embed(JsonNode request, HttpExchange exchange) throws IOException {
+        StubChatModel.pause(slowdown.toNanos() + embeddingLatency.toNanos());
+        JsonNode input = request.path("input");
+        ObjectNode response = MAPPER.createObjectNode().put("model", request.path("model").asText("stub"));
+        ArrayNode embeddings = response.putArray("embeddings");
+        for (JsonNode text : input.isArray() ? input : MAPPER.createArrayNode().add(input)) {
+            ArrayNode vector = embeddings.addArray();
+            for (float value : StubEmbeddingModel.embedText(text.asText())) {
+                vector.add(value);
+            }
+        }
+        send(exchange, "application/json", MAPPER.writeValueAsBytes(response));
+    }
+
+    private static byte[] chatChunk(String model, String content, boolean done, int promptTokens, int completionTokens)
+            throws IOException {
+        ObjectNode chunk = MAPPER.createObjectNode()
+                .put("model", model)
+                .put("created_at", Instant.now().toString());
+        chunk.putObject("message").put("role", "assistant").put("content", content);
+        chunk.put("done", done);
+        if (done) {
+            chunk.put("done_reason", "stop")
+                    .put("prompt_eval_count", promptTokens)
+                    .put("eval_count", completionTokens);
+        }
+        return MAPPER.writeValueAsBytes(chunk);
+    }
+
+    private static void send(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
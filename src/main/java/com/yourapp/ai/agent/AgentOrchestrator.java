@@ -1,18 +1,52 @@
 package com.yourapp.ai.agent;
 
+import com.yourapp.ai.concurrency.AdaptiveConcurrencyLimiter;
+import com.yourapp.ai.concurrency.CircuitBreaker;
+import com.yourapp.ai.concurrency.CircuitOpenException;
+import com.yourapp.ai.concurrency.Deadline;
+import com.yourapp.ai.concurrency.DeadlineExceededException;
+import com.yourapp.ai.concurrency.LimiterRejectedException;
+import com.yourapp.ai.concurrency.TenantFlow;
+import com.yourapp.ai.jfr.AnswerEvent;
+import com.yourapp.ai.jfr.PlanEvent;
+import com.yourapp.ai.jfr.RetrievalEvent;
+import com.yourapp.ai.jfr.ToolEvent;
 import com.yourapp.ai.memory.ConversationMemory;
+import com.yourapp.ai.observability.PipelineContext;
+import com.yourapp.ai.observability.Stage;
+import com.yourapp.ai.observability.StageObserver;
+import com.yourapp.ai.observability.TokenAccounting;
 import com.yourapp.ai.retreival.RetrievalResult;
 import com.yourapp.ai.retreival.RetrieverService;
 import com.yourapp.ai.tools.OrderTools;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.ollama.api.OllamaChatOptions;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -108,33 +142,85 @@ public class AgentOrchestrator {
     private final ChatClient answerChatClient;
     private final OrderTools orderTools;
     private final RetrieverService retriever;
-    private final Timer plannerTimer;
-    private final Timer answerTimer;
-    private final Timer toolTimer;
-    private final Timer retrievalTimer;
+    private final StageObserver stages;
+    private final TokenAccounting tokens;
+    private final ConversationBudget budget;
+    private final ConversationHistory history;
+    private final String plannerModel;
+    private final String answerModel;
+    private final String keepAlive;
+    private final int plannerMaxTokens;
+    private final boolean plannerSchema;
+    private final AdaptiveConcurrencyLimiter plannerLimiter;
+    private final AdaptiveConcurrencyLimiter answerLimiter;
+    private final CircuitBreaker plannerBreaker;
+    private final CircuitBreaker answerBreaker;
+    private final FallbackAnswers fallbacks;
+    private final ExecutorService stageExecutor;
+    private final ExecutorService modelCallExecutor;
+    private final Scheduler stageScheduler;
+    private final Counter planParsed;
+    private final Counter planWrapped;
+    private final Counter planFailed;
+    private final Counter plannerEarlyStops;
 
     public AgentOrchestrator(
             @Qualifier("plannerChatClient") ChatClient plannerChatClient,
             @Qualifier("answerChatClient") ChatClient answerChatClient,
             OrderTools orderTools,
             RetrieverService retriever,
+            StageObserver stages,
+            TokenAccounting tokens,
+            ConversationBudget budget,
+            ConversationHistory history,
+            @Value("${app.models.planner:llama3.2:3b}") String plannerModel,
+            @Value("${app.models.answer:mistral:7b-instruct}") String answerModel,
+            @Value("${app.models.keep-alive:30m}") String keepAlive,
+            @Value("${app.planner.max-tokens:64}") int plannerMaxTokens,
+            @Value("${app.planner.json-schema:true}") boolean plannerSchema,
+            @Qualifier("plannerLimiter") AdaptiveConcurrencyLimiter plannerLimiter,
+            @Qualifier("answerLimiter") AdaptiveConcurrencyLimiter answerLimiter,
+            @Qualifier("plannerBreaker") CircuitBreaker plannerBreaker,
+            @Qualifier("answerBreaker") CircuitBreaker answerBreaker,
+            FallbackAnswers fallbacks,
+            @Qualifier("stageExecutor") ExecutorService stageExecutor,
+            @Qualifier("modelCallExecutor") ExecutorService modelCallExecutor,
+            @Qualifier("stageScheduler") Scheduler stageScheduler,
             MeterRegistry meterRegistry
     ) {
         this.plannerChatClient = plannerChatClient;
         this.answerChatClient = answerChatClient;
+        this.plannerLimiter = plannerLimiter;
+        this.answerLimiter = answerLimiter;
+        this.plannerBreaker = plannerBreaker;
+        this.answerBreaker = answerBreaker;
+        this.fallbacks = fallbacks;
+        this.stageExecutor = stageExecutor;
+        this.modelCallExecutor = modelCallExecutor;
+        this.stageScheduler = stageScheduler;
         this.orderTools = orderTools;
         this.retriever = retriever;
-        this.plannerTimer = Timer.builder("agent.planner.duration")
-                .description("Planner LLM call duration")
+        this.stages = stages;
+        this.tokens = tokens;
+        this.budget = budget;
+        this.history = history;
+        this.plannerModel = plannerModel;
+        this.answerModel = answerModel;
+        this.keepAlive = keepAlive;
+        this.plannerMaxTokens = plannerMaxTokens;
+        this.plannerSchema = plannerSchema;
+        this.planParsed = planParseCounter(meterRegistry, "ok");
+        this.planWrapped = planParseCounter(meterRegistry, "wrapped");
+        this.planFailed = planParseCounter(meterRegistry, "failed");
+        this.plannerEarlyStops = Counter.builder("agent.planner.early.stop")
+                .description("Planner generations cancelled once the plan object closed")
                 .register(meterRegistry);
-        this.answerTimer = Timer.builder("agent.answer.duration")
-                .description("Answer LLM call duration")
-                .register(meterRegistry);
-        this.toolTimer = Timer.builder("agent.tool.duration")
-                .description("Tool execution duration")
-                .register(meterRegistry);
-        this.retrievalTimer = Timer.builder("agent.retrieval.duration")
-                .description("Retrieval duration")
+    }
+
+    private static Counter planParseCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("agent.planner.parse")
+                .description("Planner outputs by parse result: ok, wrapped in other text, or failed")
+                .tag("result", result)
                 .register(meterRegistry);
     }
 
@@ -142,91 +228,152 @@ public class AgentOrchestrator {
 
 
     /**
-     * Main agent entry point
+     * Main agent entry point. Every stage runs within the request's {@link Deadline}: a stage
+     * that would start after it is skipped, and a running one is cancelled, with
+     * {@link DeadlineExceededException}.
      */
     public AgentAnswer run(String question, ConversationMemory memory) {
+        Deadline deadline = PipelineContext.currentDeadline();
+        Stage pipeline = stages.pipeline("sync");
+        try {
+            AgentPlan plan = planFor(question, memory);
+            return execute(question, memory, plan, () -> timedRetrieve(question, deadline), pipeline, false);
+        } catch (RuntimeException e) {
+            pipeline.error(e);
+            throw e;
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    /**
+     * Steps 1-2: enrich the question with MEMORY and plan it. Exposed separately so batch
+     * callers can plan many questions before sharing retrieval work across them.
+     */
+    public AgentPlan planFor(String question, ConversationMemory memory) {
+        budget.admit(currentConversationId(), memory);
 
         /* -------------------------------------------------
          * 1. Enrich question with MEMORY (read-only)
          * ------------------------------------------------- */
-        String enrichedQuestion = question;
-
-        if (memory.contains("lastOrderId")) {
-            enrichedQuestion +=
-                    "\n\nPrevious context: lastOrderId=" + memory.get("lastOrderId");
-        }
+        String enrichedQuestion = enrichQuestion(question, memory);
 
         /* -------------------------------------------------
          * 2. PLAN (LLM #1)
          * ------------------------------------------------- */
-        AgentPlan plan = plan(enrichedQuestion);
+        AgentPlan plan = plan(enrichedQuestion, memory);
         plan = applyDeterministicOverrides(plan, question);
-        AgentPlan finalPlan = plan;
-        
 
         log.info("Agent plan {}", plan);
+        return plan;
+    }
+
+    /**
+     * Steps 3-5 for an already planned question. {@code retrieval} is only invoked when the plan
+     * needs retrieval.
+     *
+     * <p>Retrieval and the tool call run on the calling thread: batch items already run on the
+     * stage executor, and submitting their stages back to that bounded pool could leave every
+     * stage thread waiting on work queued behind it.
+     */
+    public AgentAnswer execute(
+            String question,
+            ConversationMemory memory,
+            AgentPlan plan,
+            Supplier<RetrievalResult> retrieval) {
+        Stage pipeline = stages.pipeline("batch");
+        try {
+            return execute(question, memory, plan, retrieval, pipeline, true);
+        } catch (RuntimeException e) {
+            pipeline.error(e);
+            throw e;
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    private AgentAnswer execute(
+            String question,
+            ConversationMemory memory,
+            AgentPlan plan,
+            Supplier<RetrievalResult> retrieval,
+            Stage pipeline,
+            boolean inline) {
+        pipeline.tag("plan", planType(plan));
 
         if (plan.needsTool() && plan.toolArgument() == null) {
-            return new AgentAnswer(
+            return pipeline.end("missing_order_id", new AgentAnswer(
                     "Missing required orderId for tool execution.",
                     List.of(),
                     "low"
-            );
+            ));
         }
         if (plan.needsTool() && plan.toolArgument() != null
                 && !plan.toolArgument().matches("\\d+")) {
-            return new AgentAnswer(
+            return pipeline.end("invalid_order_id", new AgentAnswer(
                     "Invalid orderId for tool execution.",
                     List.of(),
                     "low"
-            );
+            ));
         }
 
         /* -------------------------------------------------
-         * 3. RETRIEVE (RAG)
+         * 3. RETRIEVE (RAG) and 4. TOOL run concurrently (inline for
+         *    batch items); results are applied on the request thread
          * ------------------------------------------------- */
+        Deadline deadline = PipelineContext.currentDeadline();
         String contextBlock = "";
         List<String> citations = List.of();
+        RetrievalResult retrieved = null;
+
+        if (plan.needsRetrieval()) {
+            deadline.check("retrieval");
+        }
+        if (plan.needsTool()) {
+            deadline.check("tool");
+        }
+        Future<RetrievalResult> retrievalFuture = plan.needsRetrieval()
+                ? startStage(retrieval::get, inline)
+                : CompletableFuture.completedFuture(null);
+        Future<Map<String, Object>> toolFuture = plan.needsTool() && plan.toolArgument() != null
+                ? startStage(() -> timedGetOrderStatus(plan.toolArgument()), inline)
+                : CompletableFuture.completedFuture(null);
 
         if (plan.needsRetrieval()) {
-            long startNanos = System.nanoTime();
-            RetrievalResult retrieval = retriever.retrieve(question);
-            long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
-            contextBlock = "CONTEXT:\n" + retrieval.context() + "\n\n";
-            citations = retrieval.citations();
-            retrievalTimer.record(durationMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-            log.info("Retrieval completed durationMs={} citations={}", durationMs, citations.size());
-            if (retrieval.context() == null || retrieval.context().isBlank()) {
-                return new AgentAnswer(
+            try {
+                retrieved = await(retrievalFuture, deadline, "retrieval");
+            } catch (RuntimeException e) {
+                toolFuture.cancel(true);
+                throw e;
+            }
+            contextBlock = "CONTEXT:\n" + retrieved.context() + "\n\n";
+            citations = retrieved.citations();
+            if (retrieved.context() == null || retrieved.context().isBlank()) {
+                toolFuture.cancel(true);
+                return pipeline.end("no_context", new AgentAnswer(
                         "No relevant policy documents were found for this question.",
                         List.of(),
                         "low"
-                );
+                ));
             }
         }
 
-        /* -------------------------------------------------
-         * 4. TOOL EXECUTION (deterministic, code-owned)
-         * ------------------------------------------------- */
         String toolResultBlock = "";
+        Map<String, Object> result = null;
 
         if (plan.needsTool() && plan.toolArgument() != null) {
             String orderId = plan.toolArgument();
-
-            log.info("Tool invocation name=getOrderStatus orderId={}", orderId);
-            Map<String, Object> result;
             try {
-                long startNanos = System.nanoTime();
-                result = orderTools.getOrderStatus(orderId);
-                long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
-                toolTimer.record(durationMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+                result = await(toolFuture, deadline, "tool");
+            } catch (DeadlineExceededException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("Tool invocation failed name=getOrderStatus orderId={}", orderId, e);
-                return new AgentAnswer(
+                return pipeline.end("tool_failed", new AgentAnswer(
                         "Tool execution failed for orderId " + orderId + ".",
                         List.of(),
                         "low"
-                );
+                ));
             }
 
             // Persist to MEMORY (write-only by code)
@@ -238,127 +385,381 @@ public class AgentOrchestrator {
         }
 
         /* -------------------------------------------------
-         * 5. ANSWER (LLM #2)
+         * 5. ANSWER (LLM #2), or an extractive answer while
+         *    the answer model's breaker is open
          * ------------------------------------------------- */
-        String memoryBlock = "";
-
-        if (!memory.snapshot().isEmpty()) {
-            memoryBlock =
-                    "MEMORY (read-only):\n" +
-                            memory.snapshot() +
-                            "\n\n";
+        String conversationId = currentConversationId();
+        CircuitBreaker.Call answerCall;
+        try {
+            answerCall = answerBreaker.acquire();
+        } catch (CircuitOpenException e) {
+            AgentAnswer fallback = fallbacks.answer(question, plan, retrieved, result);
+            history.record(conversationId, memory, question, fallback.answer());
+            return pipeline.end("fallback", fallback);
         }
+        boolean degraded = budget.exhausted(memory);
+        String finalPrompt = answerPrompt(
+                conversationId, question, memory, plan, contextBlock, toolResultBlock, degraded);
 
-        String hasContext = plan.needsRetrieval() ? "true" : "false";
-        String hasToolResult = toolResultBlock.isBlank() ? "false" : "true";
-        String finalToolResultBlock = toolResultBlock;
-       
-
-        String finalPrompt =
-                memoryBlock +
-                        "QUESTION:\n" + question + "\n\n" +
-                        "HAS_CONTEXT: " + hasContext + "\n" +
-                        "HAS_TOOL_RESULT: " + hasToolResult + "\n\n" +
-                        contextBlock +
-                        toolResultBlock +
-                        """
-                                Answer the question using:
-                                - CONTEXT for policies and documentation
-                                - TOOL_RESULT for system data
-                                - MEMORY only as reference
-                                                
-                                Rules:
-                                - If TOOL_RESULT is present, you MUST include it
-                                - Do NOT guess
-                                - Do NOT describe tool results as simulated
-                                - If information is missing, say so
-                                - Separate policy info and system data clearly when both are present
-                                - Do NOT suggest contacting customer service or checking a website unless asked
-                                - Do NOT ask for more details unless the question cannot be answered with provided CONTEXT/TOOL_RESULT
-                                - Output must match the required format exactly and contain only those sections
-                                - If the question asks for timing, durations, or windows, you MUST include numeric timing from CONTEXT
-                                """;
-
-        String answer =
-                callAnswerModel(finalPrompt);
-        answer = sanitizeAnswer(answer, plan.needsRetrieval(), !toolResultBlock.isBlank());
+        String rawAnswer = answerCall.execute(
+                () -> callAnswerModel(finalPrompt, plan, memory, degraded, deadline));
+        boolean hasToolResult = !toolResultBlock.isBlank();
+        String answer = stages.observe("sanitize",
+                () -> sanitizeAnswer(rawAnswer, plan.needsRetrieval(), hasToolResult));
 
 
 //        String answer =
 //                response.getResult().getOutput().getText();
 
+        history.record(conversationId, memory, question, answer);
+
         List<String> finalCitations =
                 plan.needsRetrieval() ? citations : List.of();
 
         return new AgentAnswer(answer, finalCitations, "medium");
     }
 
+    /**
+     * Non-blocking variant of {@link #run}. Planner and answer calls use the streaming ChatClient
+     * API, so cancelling the returned Flux aborts the Ollama request. The answer is sanitized as a
+     * whole and emitted as one element once the model finishes; nothing is written to the client
+     * before that, so the caller must write something else meanwhile (the controller sends SSE
+     * heartbeats) for a client disconnect to be noticed and cancel the Flux. Blocking stages (JDBC retrieval, tools) run on the stage scheduler and are interrupted on
+     * cancellation. The caller's {@link TenantFlow} and {@link Deadline} are captured here,
+     * because the model calls may be subscribed on threads that carry no request context; each
+     * stage is cancelled once the deadline passes.
+     */
     public Flux<String> runStream(String question, ConversationMemory memory) {
-        String enrichedQuestion = question;
+        String conversationId = currentConversationId();
+        TenantFlow flow = answerLimiter.currentFlow();
+        Deadline deadline = PipelineContext.currentDeadline();
+        budget.admit(conversationId, memory);
+        String enrichedQuestion = enrichQuestion(question, memory);
+
+        return Flux.defer(() -> {
+            Stage pipeline = stages.pipeline("stream");
+            return stages.observe(pipeline, planReactive(enrichedQuestion, memory, flow, deadline)
+                    .map(plan -> applyDeterministicOverrides(plan, question))
+                    .doOnNext(plan -> log.info("Agent plan {}", plan))
+                    .flatMapMany(plan -> {
+                        pipeline.tag("plan", planType(plan));
+                        if (plan.needsTool() && plan.toolArgument() == null) {
+                            return Flux.just(pipeline.end("missing_order_id",
+                                    "Missing required orderId for tool execution."));
+                        }
+                        if (plan.needsTool() && plan.toolArgument() != null
+                                && !plan.toolArgument().matches("\\d+")) {
+                            return Flux.just(pipeline.end("invalid_order_id",
+                                    "Invalid orderId for tool execution."));
+                        }
+
+                        Mono<Optional<RetrievalResult>> retrieval = plan.needsRetrieval()
+                                ? within(Mono.fromCallable(() -> {
+                                            deadline.check("retrieval");
+                                            return Optional.of(timedRetrieve(question, deadline));
+                                        }).subscribeOn(stageScheduler), deadline, "retrieval")
+                                : Mono.just(Optional.empty());
+                        Mono<ToolOutcome> tool = plan.needsTool()
+                                ? within(Mono.fromCallable(() -> {
+                                            deadline.check("tool");
+                                            return ToolOutcome.success(timedGetOrderStatus(plan.toolArgument()));
+                                        }).subscribeOn(stageScheduler), deadline, "tool")
+                                        .onErrorResume(e -> !(e instanceof DeadlineExceededException),
+                                                e -> Mono.just(ToolOutcome.failure(e)))
+                                : Mono.just(ToolOutcome.NONE);
+
+                        return Mono.zip(retrieval, tool)
+                                .flatMapMany(results -> answerStream(
+                                        conversationId, flow, deadline, question, memory, plan,
+                                        results.getT1(), results.getT2(), pipeline));
+                    }));
+        });
+    }
 
-        if (memory.contains("lastOrderId")) {
-            enrichedQuestion +=
-                    "\n\nPrevious context: lastOrderId=" + memory.get("lastOrderId");
+    private Flux<String> answerStream(
+            String conversationId,
+            TenantFlow flow,
+            Deadline deadline,
+            String question,
+            ConversationMemory memory,
+            AgentPlan plan,
+            Optional<RetrievalResult> retrieval,
+            ToolOutcome tool,
+            Stage pipeline) {
+        String contextBlock = "";
+        if (retrieval.isPresent()) {
+            RetrievalResult result = retrieval.get();
+            if (result.context() == null || result.context().isBlank()) {
+                return Flux.just(pipeline.end("no_context",
+                        "No relevant policy documents were found for this question."));
+            }
+            contextBlock = "CONTEXT:\n" + result.context() + "\n\n";
         }
 
-        AgentPlan plan = plan(enrichedQuestion);
-        plan = applyDeterministicOverrides(plan, question);
-        log.info("Agent plan {}", plan);
-
-        if (plan.needsTool() && plan.toolArgument() == null) {
-            return Flux.just("Missing required orderId for tool execution.");
+        String toolResultBlock = "";
+        if (tool.error() != null) {
+            log.warn("Tool invocation failed name=getOrderStatus orderId={}", plan.toolArgument(), tool.error());
+            return Flux.just(pipeline.end("tool_failed",
+                    "Tool execution failed for orderId " + plan.toolArgument() + "."));
         }
-        if (plan.needsTool() && plan.toolArgument() != null
-                && !plan.toolArgument().matches("\\d+")) {
-            return Flux.just("Invalid orderId for tool execution.");
+        if (tool.result() != null) {
+            memory.put("lastOrderId", plan.toolArgument());
+            memory.put("lastOrderStatus", tool.result().get("status"));
+            toolResultBlock = "TOOL_RESULT:\n" + tool.result() + "\n\n";
         }
 
-        String contextBlock = "";
-        if (plan.needsRetrieval()) {
-            long startNanos = System.nanoTime();
-            RetrievalResult retrieval = retriever.retrieve(question);
-            long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
-            contextBlock = "CONTEXT:\n" + retrieval.context() + "\n\n";
-            retrievalTimer.record(durationMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-            log.info("Retrieval completed durationMs={} citations={}", durationMs, retrieval.citations().size());
-            if (retrieval.context() == null || retrieval.context().isBlank()) {
-                return Flux.just("No relevant policy documents were found for this question.");
+        boolean degraded = budget.exhausted(memory);
+        String finalPrompt = answerPrompt(
+                conversationId, question, memory, plan, contextBlock, toolResultBlock, degraded);
+        boolean hasToolResult = !toolResultBlock.isBlank();
+
+        return Flux.defer(() -> {
+            deadline.check("answer");
+            CircuitBreaker.Call answerCall;
+            try {
+                answerCall = answerBreaker.acquire();
+            } catch (CircuitOpenException e) {
+                String fallback = fallbacks.answer(question, plan, retrieval.orElse(null), tool.result()).answer();
+                history.record(conversationId, memory, question, fallback);
+                return Flux.just(pipeline.end("fallback", fallback));
             }
-        }
+            Stage answer = stages.start("answer").tag("model", answerModel).tag("plan", planType(plan));
+            return stages.observe(answer, guarded(answerCall, limited(answerLimiter, flow, deadline, "answer",
+                    aggregate(answerRequest(finalPrompt, degraded).stream().chatResponse())))
+                    .map(response -> chargeAnswer(answer, finalPrompt, plan, memory, degraded, response)))
+                    .doOnSuccess(rawAnswer -> log.info("LLM answer stream completed durationMs={}", answer.stop()))
+                    .doOnCancel(() -> log.info("LLM answer stream cancelled"))
+                    .map(rawAnswer -> stages.observe("sanitize",
+                            () -> sanitizeAnswer(rawAnswer, plan.needsRetrieval(), hasToolResult)))
+                    .doOnNext(text -> history.record(conversationId, memory, question, text))
+                    .flux();
+        });
+    }
 
-        String toolResultBlock = "";
-        if (plan.needsTool() && plan.toolArgument() != null) {
-            String orderId = plan.toolArgument();
-            log.info("Tool invocation name=getOrderStatus orderId={}", orderId);
+    private Mono<AgentPlan> planReactive(
+            String enrichedQuestion, ConversationMemory memory, TenantFlow flow, Deadline deadline) {
+        return Mono.defer(() -> {
+            deadline.check("planner");
+            CircuitBreaker.Call plannerCall;
             try {
-                long startNanos = System.nanoTime();
-                Map<String, Object> result = orderTools.getOrderStatus(orderId);
-                long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
-                toolTimer.record(durationMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+                plannerCall = plannerBreaker.acquire();
+            } catch (CircuitOpenException e) {
+                return Mono.just(fallbacks.plan(enrichedQuestion, FallbackAnswers.BREAKER_OPEN));
+            }
+            recordPlannerPrompt(enrichedQuestion);
+            Stage planner = stages.start("planner").tag("model", plannerModel);
+            return stages.observe(planner, guarded(plannerCall, limited(plannerLimiter, flow, deadline, "planner",
+                    plannerStream(enrichedQuestion)))
+                    .map(response -> parsePlan(planner, enrichedQuestion, memory, response)))
+                    .doOnSuccess(plan -> log.info("LLM planner stream completed durationMs={}", planner.stop()));
+        });
+    }
 
-                memory.put("lastOrderId", orderId);
-                memory.put("lastOrderStatus", result.get("status"));
+    /**
+     * Joins streamed chunks into one response. Ollama reports token usage on the final chunk, so
+     * the last chunk carrying usage supplies the metadata.
+     */
+    private static Mono<ChatResponse> aggregate(Flux<ChatResponse> chunks) {
+        return aggregate(chunks, 0);
+    }
 
-                toolResultBlock = "TOOL_RESULT:\n" + result + "\n\n";
-            } catch (Exception e) {
-                log.warn("Tool invocation failed name=getOrderStatus orderId={}", orderId, e);
-                return Flux.just("Tool execution failed for orderId " + orderId + ".");
+    /**
+     * As {@link #aggregate(Flux)}; a stream stopped before its final chunk has its usage estimated
+     * instead, {@code promptChars} at {@link TokenAccounting#CHARS_PER_TOKEN} and one completion
+     * token per chunk, which is how Ollama streams.
+     */
+    private static Mono<ChatResponse> aggregate(Flux<ChatResponse> chunks, int promptChars) {
+        return chunks.reduceWith(StreamedResponse::new, StreamedResponse::add)
+                .map(response -> response.toResponse(promptChars));
+    }
+
+    private static final class StreamedResponse {
+        private final StringBuilder text = new StringBuilder();
+        private ChatResponseMetadata metadata;
+        private int chunks;
+
+        StreamedResponse add(ChatResponse chunk) {
+            chunks++;
+            text.append(text(chunk));
+            ChatResponseMetadata chunkMetadata = chunk.getMetadata();
+            if (chunkMetadata != null && chunkMetadata.getUsage() != null
+                    && chunkMetadata.getUsage().getTotalTokens() != null
+                    && chunkMetadata.getUsage().getTotalTokens() > 0) {
+                metadata = chunkMetadata;
             }
+            return this;
         }
 
-        String memoryBlock = "";
-        if (!memory.snapshot().isEmpty()) {
-            memoryBlock =
-                    "MEMORY (read-only):\n" +
-                            memory.snapshot() +
-                            "\n\n";
+        ChatResponse toResponse(int promptChars) {
+            ChatResponseMetadata result = metadata;
+            if (result == null) {
+                result = promptChars <= 0
+                        ? new ChatResponseMetadata()
+                        : ChatResponseMetadata.builder()
+                                .usage(new DefaultUsage((int) TokenAccounting.estimateTokens(promptChars), chunks))
+                                .build();
+            }
+            return new ChatResponse(List.of(new Generation(new AssistantMessage(text.toString()))), result);
         }
+    }
+
+    private static String text(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return "";
+        }
+        String text = response.getResult().getOutput().getText();
+        return text == null ? "" : text;
+    }
+
+    /**
+     * Holds a limiter permit for the lifetime of the subscription. The permit is acquired on the
+     * stage scheduler because waiting for it may block; the wait and then the call are each bounded
+     * by the time the deadline leaves.
+     */
+    private <T> Mono<T> limited(
+            AdaptiveConcurrencyLimiter limiter, TenantFlow flow, Deadline deadline, String stage, Mono<T> call) {
+        return Mono.usingWhen(
+                Mono.fromCallable(() -> acquire(limiter, flow, deadline, stage)).subscribeOn(stageScheduler),
+                permit -> within(call, deadline, stage),
+                permit -> Mono.fromRunnable(() -> permit.release(true)),
+                (permit, error) -> Mono.fromRunnable(
+                        () -> permit.release(error instanceof DeadlineExceededException)),
+                permit -> Mono.fromRunnable(() -> permit.release(true)));
+    }
+
+    /**
+     * Releases an admitted breaker call with the outcome of {@code call}. Wraps the limited call,
+     * so a limiter rejection or a cancellation is released too, as an outcome that does not count.
+     */
+    private static <T> Mono<T> guarded(CircuitBreaker.Call admitted, Mono<T> call) {
+        return call
+                .doOnSuccess(result -> admitted.success())
+                .doOnError(admitted::release)
+                .doOnCancel(admitted::ignore);
+    }
+
+    /**
+     * Waits for a permit no longer than the deadline allows. A rejection caused by the deadline
+     * running out is reported as such rather than as overload.
+     */
+    private static AdaptiveConcurrencyLimiter.Permit acquire(
+            AdaptiveConcurrencyLimiter limiter, TenantFlow flow, Deadline deadline, String stage) {
+        deadline.check(stage);
+        try {
+            return limiter.acquire(flow, deadline.remainingOr(limiter.maxQueueWait()));
+        } catch (LimiterRejectedException e) {
+            if (deadline.expired()) {
+                throw deadline.exceeded(stage);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fails {@code call} with {@link DeadlineExceededException} when the deadline passes first.
+     * The timeout cancels the call, which aborts the Ollama request or interrupts the stage thread.
+     */
+    private static <T> Mono<T> within(Mono<T> call, Deadline deadline, String stage) {
+        if (deadline.isNone()) {
+            return call;
+        }
+        return call.timeout(deadline.remaining(), Mono.error(() -> deadline.exceeded(stage)));
+    }
+
+    /**
+     * Blocking model call within the deadline. The permit is acquired on the calling thread; the
+     * call itself runs on its own virtual thread, so when the deadline passes it is cancelled and
+     * the interrupt aborts the HTTP request to Ollama instead of leaving it to finish. It is not
+     * queued on the stage executor, which the caller may be occupying already. Running out of
+     * time is not counted as a model failure by the limiter.
+     */
+    private ChatResponse callWithin(
+            AdaptiveConcurrencyLimiter limiter,
+            Deadline deadline,
+            String stage,
+            Supplier<ChatResponse> call) {
+        if (deadline.isNone()) {
+            return limiter.execute(call);
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = acquire(limiter, limiter.currentFlow(), deadline, stage);
+        Future<ChatResponse> future;
+        try {
+            future = modelCallExecutor.submit(() -> {
+                boolean success = false;
+                try {
+                    ChatResponse response = call.get();
+                    success = true;
+                    return response;
+                } finally {
+                    permit.release(success || deadline.expired());
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.release(false);
+            throw e;
+        }
+        return await(future, deadline, stage);
+    }
+
+    private record ToolOutcome(Map<String, Object> result, Throwable error) {
+        static final ToolOutcome NONE = new ToolOutcome(null, null);
+
+        static ToolOutcome success(Map<String, Object> result) {
+            return new ToolOutcome(result, null);
+        }
+
+        static ToolOutcome failure(Throwable error) {
+            return new ToolOutcome(null, error);
+        }
+    }
+
+    private static String enrichQuestion(String question, ConversationMemory memory) {
+        String enrichedQuestion = question;
+        if (memory.contains("lastOrderId")) {
+            enrichedQuestion +=
+                    "\n\nPrevious context: lastOrderId=" + memory.get("lastOrderId");
+        }
+        return enrichedQuestion;
+    }
+
+    /**
+     * Builds the answer prompt and records the size of each section. The MEMORY block carries the
+     * bounded turn history from {@link ConversationHistory}. A degraded request (token budget
+     * spent) drops the MEMORY block and truncates CONTEXT.
+     */
+    private String answerPrompt(
+            String conversationId,
+            String question,
+            ConversationMemory memory,
+            AgentPlan plan,
+            String contextBlock,
+            String toolResultBlock,
+            boolean degraded) {
+        history.prepare(conversationId, memory);
+        String memoryBlock = degraded ? "" : history.memoryBlock(memory);
+        String context = contextBlock;
+        if (degraded && context.length() > budget.degradedContextChars()) {
+            context = context.substring(0, budget.degradedContextChars()) + "\n\n";
+        }
+        tokens.recordPromptSections(answerModel, planType(plan), Map.of(
+                "system", ANSWER_SYSTEM_PROMPT,
+                "question", question,
+                "memory", memoryBlock,
+                "context", context,
+                "tool_result", toolResultBlock));
+        return buildAnswerPrompt(question, memoryBlock, plan.needsRetrieval(), context, toolResultBlock);
+    }
 
-        String hasContext = plan.needsRetrieval() ? "true" : "false";
+    private static String buildAnswerPrompt(
+            String question,
+            String memoryBlock,
+            boolean needsRetrieval,
+            String contextBlock,
+            String toolResultBlock) {
+        String hasContext = needsRetrieval ? "true" : "false";
         String hasToolResult = toolResultBlock.isBlank() ? "false" : "true";
 
-        String finalPrompt =
-                memoryBlock +
+        return memoryBlock +
                         "QUESTION:\n" + question + "\n\n" +
                         "HAS_CONTEXT: " + hasContext + "\n" +
                         "HAS_TOOL_RESULT: " + hasToolResult + "\n\n" +
@@ -379,24 +780,14 @@ public class AgentOrchestrator {
                                 - Do NOT suggest contacting customer service or checking a website unless asked
                                 - Do NOT ask for more details unless the question cannot be answered with provided CONTEXT/TOOL_RESULT
                                 - Output must match the required format exactly and contain only those sections
+                                - If the question asks for timing, durations, or windows, you MUST include numeric timing from CONTEXT
                                 """;
-
-        long startNanos = System.nanoTime();
-        String content = answerChatClient.prompt()
-                .system(system -> system.text(ANSWER_SYSTEM_PROMPT))
-                .user(user -> user.text(finalPrompt))
-                .call()
-                .content();
-        String sanitized = sanitizeAnswer(content, plan.needsRetrieval(), !toolResultBlock.isBlank());
-        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
-        log.info("LLM answer stream completed durationMs={}", durationMs);
-        return Flux.just(sanitized);
     }
 
     /* -------------------------------------------------
      * PLANNER (LLM-based, intent only)
      * ------------------------------------------------- */
-    private AgentPlan plan(String enrichedQuestion) {
+    private AgentPlan plan(String enrichedQuestion, ConversationMemory memory) {
 
         String plannerPrompt =
                 """
@@ -437,21 +828,154 @@ public class AgentOrchestrator {
             }
                         """;
 
-        long startNanos = System.nanoTime();
-        String json =
-                plannerChatClient.prompt()
-                        .system(system -> system.text(PLANNER_SYSTEM_PROMPT))
-                        .user(user -> user.text(enrichedQuestion))
-                        .call()
-                        .content();
-        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
-        plannerTimer.record(durationMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-        log.info("LLM planner call completed durationMs={}", durationMs);
+        Deadline deadline = PipelineContext.currentDeadline();
+        deadline.check("planner");
+        CircuitBreaker.Call plannerCall;
+        try {
+            plannerCall = plannerBreaker.acquire();
+        } catch (CircuitOpenException e) {
+            return fallbacks.plan(enrichedQuestion, FallbackAnswers.BREAKER_OPEN);
+        }
+        recordPlannerPrompt(enrichedQuestion);
+        Stage planner = stages.start("planner").tag("model", plannerModel);
+        AgentPlan plan = stages.observe(planner, () -> {
+            ChatResponse response = plannerCall.execute(() -> callWithin(plannerLimiter, deadline, "planner",
+                    () -> plannerStream(enrichedQuestion).block()));
+            return parsePlan(planner, enrichedQuestion, memory, response);
+        });
+        log.info("LLM planner call completed durationMs={}", planner.stop());
+        return plan;
+    }
+
+    /** Charges the planner call and parses its output while the planner stage is still open. */
+    private AgentPlan parsePlan(
+            Stage planner, String enrichedQuestion, ConversationMemory memory, ChatResponse response) {
+        long totalTokens = tokens.recordUsage("planner", plannerModel, "none", response);
+        budget.charge(memory, totalTokens);
+        PlannerOutputParser.Incremental parser = new PlannerOutputParser.Incremental();
+        parser.accept(text(response));
+        if (parser.plan() == null) {
+            // A plan from the keywords beats failing the request.
+            planFailed.increment();
+            planner.outcome("unparsable");
+            log.warn("Planner output is not a valid plan, using keyword plan: {}", parser.error().getMessage());
+            return fallbacks.plan(enrichedQuestion, FallbackAnswers.UNPARSABLE);
+        }
+        (parser.wrapped() ? planWrapped : planParsed).increment();
+        AgentPlan plan = parser.plan();
+        planner.jfr(PlanEvent.class, event -> {
+            event.needsRetrieval = plan.needsRetrieval();
+            event.needsTool = plan.needsTool();
+            event.promptChars = PLANNER_SYSTEM_PROMPT.length() + enrichedQuestion.length();
+            event.totalTokens = totalTokens;
+        });
+        return plan;
+    }
+
+    /**
+     * Streams the planner call and cancels it as soon as the plan object has closed, rather than
+     * waiting for the model to stop by itself; a blocking caller blocks on the result.
+     */
+    private Mono<ChatResponse> plannerStream(String enrichedQuestion) {
+        return Mono.defer(() -> {
+            PlannerOutputParser.Incremental parser = new PlannerOutputParser.Incremental();
+            return aggregate(plannerRequest(enrichedQuestion).stream().chatResponse()
+                            .doOnCancel(() -> {
+                                if (parser.plan() != null) {
+                                    plannerEarlyStops.increment();
+                                }
+                            })
+                            .takeUntil(chunk -> parser.accept(text(chunk))),
+                    PLANNER_SYSTEM_PROMPT.length() + enrichedQuestion.length());
+        });
+    }
+
+    /**
+     * Requests the plan as JSON-schema structured output, capped at {@code app.planner.max-tokens};
+     * the options replace the client defaults.
+     */
+    private ChatClient.ChatClientRequestSpec plannerRequest(String enrichedQuestion) {
+        OllamaChatOptions.Builder options = OllamaChatOptions.builder()
+                .model(plannerModel)
+                .keepAlive(keepAlive)
+                .numPredict(plannerMaxTokens);
+        if (plannerSchema) {
+            options.format(PlannerOutputParser.SCHEMA);
+        }
+        return plannerChatClient.prompt()
+                .system(system -> system.text(PLANNER_SYSTEM_PROMPT))
+                .user(user -> user.text(enrichedQuestion))
+                .options(options.build());
+    }
+
+    private void recordPlannerPrompt(String enrichedQuestion) {
+        tokens.recordPromptSections(plannerModel, "none", Map.of(
+                "system", PLANNER_SYSTEM_PROMPT,
+                "question", enrichedQuestion));
+    }
+
+    private RetrievalResult timedRetrieve(String question, Deadline deadline) {
+        Stage stage = stages.start("retrieval");
+        RetrievalResult retrieval = stages.observe(stage, () -> {
+            RetrievalResult result = retriever.retrieve(question, deadline);
+            if (result.context() == null || result.context().isBlank()) {
+                stage.outcome("empty");
+            }
+            stage.jfr(RetrievalEvent.class, event -> {
+                event.chunkCount = result.citations().size();
+                event.contextChars = result.context() == null ? 0 : result.context().length();
+            });
+            return result;
+        });
+        log.info("Retrieval completed durationMs={} citations={}", stage.stop(), retrieval.citations().size());
+        return retrieval;
+    }
 
-        return PlannerOutputParser.parse(json);
+    private Map<String, Object> timedGetOrderStatus(String orderId) {
+        log.info("Tool invocation name=getOrderStatus orderId={}", orderId);
+        Stage tool = stages.start("tool").jfr(ToolEvent.class, event -> event.tool = "getOrderStatus");
+        return stages.observe(tool, () -> orderTools.getOrderStatus(orderId));
     }
 
-    private AgentPlan applyDeterministicOverrides(AgentPlan plan, String question) {
+    /**
+     * Starts a stage on the stage executor, or runs it to completion on the calling thread when
+     * {@code inline}; either way the result is collected with {@link #await}.
+     */
+    private <T> Future<T> startStage(Callable<T> work, boolean inline) {
+        if (!inline) {
+            return stageExecutor.submit(work);
+        }
+        FutureTask<T> task = new FutureTask<>(work);
+        task.run();
+        return task;
+    }
+
+    /**
+     * Waits for a stage running on the stage executor, at most until the deadline. A stage whose
+     * result comes too late is cancelled, which interrupts its thread.
+     */
+    private static <T> T await(Future<T> future, Deadline deadline, String stage) {
+        try {
+            if (deadline.isNone()) {
+                return future.get();
+            }
+            return future.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw deadline.exceeded(stage);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + stage, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(stage + " failed", e.getCause());
+        }
+    }
+
+    static AgentPlan applyDeterministicOverrides(AgentPlan plan, String question) {
         String lower = question.toLowerCase();
         boolean operational =
                 lower.contains("order status")
@@ -484,21 +1008,69 @@ public class AgentOrchestrator {
         return new AgentPlan(plan.needsRetrieval(), needsTool, toolName, toolArgument);
     }
 
-    private String callAnswerModel(String finalPrompt) {
-        long startNanos = System.nanoTime();
-        String content =
-                answerChatClient.prompt()
-                        .system(system -> system.text(ANSWER_SYSTEM_PROMPT))
-                        .user(user -> user.text(finalPrompt))
-                        .call()
-                        .content();
-        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
-        answerTimer.record(durationMs, java.util.concurrent.TimeUnit.MILLISECONDS);
-        log.info("LLM answer call completed durationMs={}", durationMs);
-        return content;
+    private String callAnswerModel(
+            String finalPrompt, AgentPlan plan, ConversationMemory memory, boolean degraded, Deadline deadline) {
+        deadline.check("answer");
+        Stage answer = stages.start("answer").tag("model", answerModel).tag("plan", planType(plan));
+        String rawAnswer = stages.observe(answer, () -> {
+            ChatResponse response = callWithin(answerLimiter, deadline, "answer",
+                    () -> answerRequest(finalPrompt, degraded).call().chatResponse());
+            return chargeAnswer(answer, finalPrompt, plan, memory, degraded, response);
+        });
+        log.info("LLM answer call completed durationMs={}", answer.stop());
+        return rawAnswer;
+    }
+
+    private String chargeAnswer(
+            Stage answer,
+            String finalPrompt,
+            AgentPlan plan,
+            ConversationMemory memory,
+            boolean degraded,
+            ChatResponse response) {
+        long totalTokens = tokens.recordUsage("answer", answerModel, planType(plan), response);
+        budget.charge(memory, totalTokens);
+        String rawAnswer = text(response);
+        answer.jfr(AnswerEvent.class, event -> {
+            event.promptChars = ANSWER_SYSTEM_PROMPT.length() + finalPrompt.length();
+            event.completionChars = rawAnswer.length();
+            event.totalTokens = totalTokens;
+            event.degraded = degraded;
+        });
+        return rawAnswer;
+    }
+
+    /** Degraded requests cap the completion length; the options replace the client defaults. */
+    private ChatClient.ChatClientRequestSpec answerRequest(String finalPrompt, boolean degraded) {
+        ChatClient.ChatClientRequestSpec request = answerChatClient.prompt()
+                .system(system -> system.text(ANSWER_SYSTEM_PROMPT))
+                .user(user -> user.text(finalPrompt));
+        if (degraded) {
+            request = request.options(OllamaChatOptions.builder()
+                    .model(answerModel)
+                    .keepAlive(keepAlive)
+                    .numPredict(budget.degradedMaxTokens())
+                    .build());
+        }
+        return request;
+    }
+
+    private static String currentConversationId() {
+        PipelineContext context = PipelineContext.current();
+        return context == null ? null : context.conversationId();
+    }
+
+    static String planType(AgentPlan plan) {
+        if (plan.needsRetrieval() && plan.needsTool()) {
+            return "both";
+        }
+        if (plan.needsRetrieval()) {
+            return "retrieval";
+        }
+        return plan.needsTool() ? "tool" : "none";
     }
 
-    private String sanitizeAnswer(String answer, boolean hasContext, boolean hasToolResult) {
+    static String sanitizeAnswer(String answer, boolean hasContext, boolean hasToolResult) {
         String[] lines = answer.split("\\R");
         StringBuilder out = new StringBuilder();
         boolean includePolicy = false;
@@ -0,0 +1,209 @@
+package com.yourapp.ai.agent;
+
+import com.yourapp.ai.memory.ConversationMemory;
+import com.yourapp.ai.memory.MemoryStore;
+import com.yourapp.ai.model.BatchChatResult;
+import com.yourapp.ai.model.ChatRequest;
+import com.yourapp.ai.observability.PipelineContext;
+import com.yourapp.ai.observability.Stage;
+import com.yourapp.ai.observability.StageObserver;
+import com.yourapp.ai.retreival.RetrievalResult;
+import com.yourapp.ai.retreival.RetrieverService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Runs many chat requests as one unit of work:
+ * PLAN (bounded parallelism across conversations) -> RETRIEVE (one batched embedding call, shared policy expansions)
+ * -> TOOL + ANSWER (bounded parallelism, results emitted as each item completes).
+ *
+ * <p>Items are planned against the conversation memory as it stood when the batch started.
+ * Items that share a conversationId are planned and answered in submission order so they never
+ * mutate the same {@link ConversationMemory} concurrently (planning charges the token budget).
+ * Each item runs with its conversation bound to a {@link PipelineContext#forConversation} context,
+ * as {@code /chat} binds it, so budgets, summaries and stage observations see the right one.
+ */
+@Service
+public class BatchOrchestrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchOrchestrator.class);
+
+    private final AgentOrchestrator agent;
+    private final RetrieverService retriever;
+    private final MemoryStore memoryStore;
+    private final Scheduler stageScheduler;
+    private final StageObserver stages;
+    private final int parallelism;
+
+    public BatchOrchestrator(
+            AgentOrchestrator agent,
+            RetrieverService retriever,
+            MemoryStore memoryStore,
+            @Qualifier("stageScheduler") Scheduler stageScheduler,
+            StageObserver stages,
+            @Value("${app.batch.parallelism:4}") int parallelism) {
+        this.agent = agent;
+        this.retriever = retriever;
+        this.memoryStore = memoryStore;
+        this.stageScheduler = stageScheduler;
+        this.stages = stages;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public Flux<BatchChatResult> runBatch(List<ChatRequest> requests) {
+        return Mono.fromCallable(() -> loadMemories(requests))
+                .subscribeOn(stageScheduler)
+                .flatMapMany(memories -> planAll(requests, memories)
+                        .flatMapMany(planned -> Mono.fromCallable(() -> retrieveShared(planned))
+                                .subscribeOn(stageScheduler)
+                                .flatMapMany(retrievals -> answerAll(planned, retrievals, memories))));
+    }
+
+    /** Reads every conversation of the batch in one store call. */
+    private Map<String, ConversationMemory> loadMemories(List<ChatRequest> requests) {
+        Set<String> conversationIds = new LinkedHashSet<>();
+        for (ChatRequest request : requests) {
+            conversationIds.add(conversationId(request));
+        }
+        Map<String, ConversationMemory> stored =
+                stages.observe("memory.get", () -> memoryStore.getAll(conversationIds));
+        Map<String, ConversationMemory> memories = new LinkedHashMap<>();
+        for (String conversationId : conversationIds) {
+            memories.put(conversationId, stored.getOrDefault(conversationId, new ConversationMemory()));
+        }
+        return memories;
+    }
+
+    /** Plans each conversation's items in order, conversations in parallel; returns submission order. */
+    private Mono<List<PlannedItem>> planAll(List<ChatRequest> requests, Map<String, ConversationMemory> memories) {
+        Map<String, List<Integer>> byConversation = new LinkedHashMap<>();
+        for (int index = 0; index < requests.size(); index++) {
+            byConversation.computeIfAbsent(conversationId(requests.get(index)), key -> new ArrayList<>()).add(index);
+        }
+        return Flux.fromIterable(byConversation.values())
+                .flatMap(indexes -> Flux.fromIterable(indexes)
+                                .concatMap(index -> plan(index, requests.get(index), memories)),
+                        parallelism)
+                .collectSortedList(Comparator.comparingInt(PlannedItem::index));
+    }
+
+    private Mono<PlannedItem> plan(int index, ChatRequest request, Map<String, ConversationMemory> memories) {
+        String conversationId = conversationId(request);
+        return Mono.fromCallable(() -> inConversation(conversationId, () -> new PlannedItem(
+                        index, conversationId, request.question(),
+                        agent.planFor(request.question(), memories.get(conversationId)), null)))
+                .subscribeOn(stageScheduler)
+                .onErrorResume(e -> {
+                    log.warn("Batch item planning failed index={}", index, e);
+                    return Mono.just(new PlannedItem(index, conversationId, request.question(), null, e));
+                });
+    }
+
+    private Map<String, RetrievalResult> retrieveShared(List<PlannedItem> planned) {
+        List<String> questions = new ArrayList<>();
+        for (PlannedItem item : planned) {
+            if (item.plan() != null && item.plan().needsRetrieval()) {
+                questions.add(item.question());
+            }
+        }
+        Stage stage = stages.start("retrieval");
+        Map<String, RetrievalResult> results = stages.observe(stage, () -> retriever.retrieveAll(questions));
+        log.info("Batch retrieval completed durationMs={} questions={} distinct={}",
+                stage.stop(), questions.size(), results.size());
+        return results;
+    }
+
+    private Flux<BatchChatResult> answerAll(
+            List<PlannedItem> planned,
+            Map<String, RetrievalResult> retrievals,
+            Map<String, ConversationMemory> memories) {
+        Map<String, List<PlannedItem>> byConversation = new LinkedHashMap<>();
+        for (PlannedItem item : planned) {
+            byConversation.computeIfAbsent(item.conversationId(), key -> new ArrayList<>()).add(item);
+        }
+
+        return Flux.fromIterable(byConversation.entrySet())
+                .flatMap(group -> Flux.fromIterable(group.getValue())
+                        .concatMap(item -> answer(item, retrievals, memories.get(group.getKey())))
+                        .concatWith(save(group.getKey(), memories.get(group.getKey()))),
+                        parallelism);
+    }
+
+    private Mono<BatchChatResult> save(String conversationId, ConversationMemory memory) {
+        return Mono.fromCallable(() -> inConversation(conversationId, () -> {
+                    stages.run("memory.put", () -> memoryStore.put(conversationId, memory));
+                    return conversationId;
+                }))
+                .subscribeOn(stageScheduler)
+                .then(Mono.empty());
+    }
+
+    private Mono<BatchChatResult> answer(
+            PlannedItem item,
+            Map<String, RetrievalResult> retrievals,
+            ConversationMemory memory) {
+        if (item.error() != null) {
+            return Mono.just(failed(item, item.error()));
+        }
+        return Mono.fromCallable(() -> inConversation(item.conversationId(), () -> new BatchChatResult(
+                        item.index(),
+                        item.conversationId(),
+                        agent.execute(item.question(), memory, item.plan(),
+                                () -> retrievals.get(item.question())),
+                        null)))
+                .subscribeOn(stageScheduler)
+                .onErrorResume(e -> {
+                    log.warn("Batch item failed index={}", item.index(), e);
+                    return Mono.just(failed(item, e));
+                });
+    }
+
+    private static BatchChatResult failed(PlannedItem item, Throwable error) {
+        return new BatchChatResult(item.index(), item.conversationId(), null,
+                error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    /** Runs {@code work} with a context for {@code conversationId} derived from the batch request's. */
+    private static <T> T inConversation(String conversationId, Callable<T> work) throws Exception {
+        PipelineContext request = PipelineContext.current();
+        if (request == null) {
+            return work.call();
+        }
+        PipelineContext.bind(request.forConversation(conversationId));
+        try {
+            return work.call();
+        } finally {
+            PipelineContext.bind(request);
+        }
+    }
+
+    private static String conversationId(ChatRequest request) {
+        String conversationId = request.conversationId();
+        if (conversationId == null || conversationId.isBlank()) {
+            return "default";
+        }
+        return conversationId;
+    }
+
+    private record PlannedItem(
+            int index,
+            String conversationId,
+            String question,
+            AgentPlan plan,
+            Throwable error
+    ) {}
+}
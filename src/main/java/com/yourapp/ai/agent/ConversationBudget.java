@@ -0,0 +1,88 @@
+package com.yourapp.ai.agent;
+
+import com.yourapp.ai.memory.ConversationMemory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional per-conversation token budget. Tokens reported by the planner and answer models are
+ * accumulated in the conversation's memory under {@link #TOKENS_KEY}, so the budget lives and
+ * expires with the conversation. Once the budget is spent the conversation is either rejected
+ * with {@link TokenBudgetExceededException} ({@code reject}) or answered with a smaller prompt
+ * and a capped completion ({@code degrade}). A budget of 0 disables the check.
+ */
+@Component
+public class ConversationBudget {
+
+    public static final String TOKENS_KEY = ConversationMemory.INTERNAL_PREFIX + "tokensUsed";
+
+    enum Mode { REJECT, DEGRADE }
+
+    private final long budgetTokens;
+    private final Mode mode;
+    private final int degradedContextChars;
+    private final int degradedMaxTokens;
+    private final Counter rejectedCounter;
+    private final Counter degradedCounter;
+
+    public ConversationBudget(
+            @Value("${app.budget.conversation-tokens:0}") long budgetTokens,
+            @Value("${app.budget.mode:degrade}") String mode,
+            @Value("${app.budget.degraded-context-chars:2000}") int degradedContextChars,
+            @Value("${app.budget.degraded-max-tokens:256}") int degradedMaxTokens,
+            MeterRegistry meterRegistry) {
+        this.budgetTokens = budgetTokens;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.degradedContextChars = degradedContextChars;
+        this.degradedMaxTokens = degradedMaxTokens;
+        this.rejectedCounter = Counter.builder("agent.budget.exceeded")
+                .description("Requests on conversations that spent their token budget")
+                .tag("action", "reject")
+                .register(meterRegistry);
+        this.degradedCounter = Counter.builder("agent.budget.exceeded")
+                .description("Requests on conversations that spent their token budget")
+                .tag("action", "degrade")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called before planning. Returns {@code true} when the request should run degraded; throws
+     * when the budget is spent and the mode is {@code reject}.
+     */
+    public boolean admit(String conversationId, ConversationMemory memory) {
+        if (!exhausted(memory)) {
+            return false;
+        }
+        if (mode == Mode.REJECT) {
+            rejectedCounter.increment();
+            throw new TokenBudgetExceededException(conversationId, used(memory), budgetTokens);
+        }
+        degradedCounter.increment();
+        return true;
+    }
+
+    public boolean exhausted(ConversationMemory memory) {
+        return budgetTokens > 0 && used(memory) >= budgetTokens;
+    }
+
+    public void charge(ConversationMemory memory, long tokens) {
+        if (tokens > 0) {
+            memory.put(TOKENS_KEY, used(memory) + tokens);
+        }
+    }
+
+    public long used(ConversationMemory memory) {
+        return memory.get(TOKENS_KEY) instanceof Number used ? used.longValue() : 0;
+    }
+
+    public int degradedContextChars() {
+        return degradedContextChars;
+    }
+
+    public int degradedMaxTokens() {
+        return degradedMaxTokens;
+    }
+}
@@ -0,0 +1,306 @@
+package com.yourapp.ai.agent;
+
+import com.yourapp.ai.concurrency.AdaptiveConcurrencyLimiter;
+import com.yourapp.ai.concurrency.CircuitBreaker;
+import com.yourapp.ai.concurrency.LimiterRejectedException;
+import com.yourapp.ai.concurrency.TenantFlow;
+import com.yourapp.ai.memory.ConversationMemory;
+import com.yourapp.ai.memory.TurnHistory;
+import com.yourapp.ai.memory.TurnHistory.Turn;
+import com.yourapp.ai.observability.TokenAccounting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.ollama.api.OllamaChatOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the conversation's recent turns in its memory and renders the MEMORY block of the answer
+ * prompt within {@code app.memory.history.max-tokens}, however long the conversation runs.
+ *
+ * <p>Turns that leave the {@link TurnHistory} window are summarized by the planner model on
+ * {@code summaryExecutor}, off the request path. The finished summary is held here and folded
+ * into the memory at the conversation's next turn, which then persists it with the usual memory
+ * write; the request never waits for a summary. Until then the pending turns are simply not
+ * shown. If the instance restarts, or the next turn lands on another instance, the pending turns
+ * are still in the stored memory and are summarized again there.
+ *
+ * <p>Summaries share the planner model with request planning, so they go through
+ * {@code plannerLimiter} as {@link TenantFlow#BULK} work of the conversation's tenant and queue
+ * behind interactive and standard requests. While {@code plannerBreaker} is open no summary is
+ * started; the turns stay pending until a later turn.
+ */
+@Component
+public class ConversationHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationHistory.class);
+
+    private static final String SUMMARY_SYSTEM_PROMPT = """
+            You maintain a running summary of a customer support conversation.
+
+            Rules:
+            - Merge the EXISTING SUMMARY with the NEW TURNS into one summary
+            - Keep order ids, order statuses, policy names, dates and the customer's open questions
+            - Drop greetings, repetition and formatting
+            - Do NOT add facts that are not in the input
+            - Write plain sentences, no headings or lists
+            """;
+
+    private static final String ELLIPSIS = "...\n";
+
+    /** Finished summaries not yet folded are dropped beyond this many conversations. */
+    private static final int MAX_TRACKED = 10_000;
+
+    /** A compaction started on this instance; {@code turns} are the pending turns it covers. */
+    private record Compaction(List<Turn> turns, CompletableFuture<Summary> result) {}
+
+    private record Summary(String text, long tokens) {}
+
+    private final ChatClient plannerChatClient;
+    private final AdaptiveConcurrencyLimiter plannerLimiter;
+    private final CircuitBreaker plannerBreaker;
+    private final TokenAccounting tokens;
+    private final ConversationBudget budget;
+    private final ExecutorService summaryExecutor;
+    private final String plannerModel;
+    private final String keepAlive;
+    private final int capacity;
+    private final int maxPending;
+    private final int maxTurnChars;
+    private final int maxTokens;
+    private final int summaryMaxTokens;
+    private final ConcurrentMap<String, Compaction> compactions = new ConcurrentHashMap<>();
+    private final Counter compacted;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter skipped;
+
+    public ConversationHistory(
+            @Qualifier("plannerChatClient") ChatClient plannerChatClient,
+            @Qualifier("plannerLimiter") AdaptiveConcurrencyLimiter plannerLimiter,
+            @Qualifier("plannerBreaker") CircuitBreaker plannerBreaker,
+            TokenAccounting tokens,
+            ConversationBudget budget,
+            @Qualifier("summaryExecutor") ExecutorService summaryExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${app.models.planner:llama3.2:3b}") String plannerModel,
+            @Value("${app.models.keep-alive:30m}") String keepAlive,
+            @Value("${app.memory.history.turns:4}") int capacity,
+            @Value("${app.memory.history.max-pending:16}") int maxPending,
+            @Value("${app.memory.history.max-turn-chars:600}") int maxTurnChars,
+            @Value("${app.memory.history.max-tokens:512}") int maxTokens,
+            @Value("${app.memory.history.summary-max-tokens:160}") int summaryMaxTokens) {
+        this.plannerChatClient = plannerChatClient;
+        this.plannerLimiter = plannerLimiter;
+        this.plannerBreaker = plannerBreaker;
+        this.tokens = tokens;
+        this.budget = budget;
+        this.summaryExecutor = summaryExecutor;
+        this.plannerModel = plannerModel;
+        this.keepAlive = keepAlive;
+        this.capacity = capacity;
+        this.maxPending = maxPending;
+        this.maxTurnChars = maxTurnChars;
+        this.maxTokens = maxTokens;
+        this.summaryMaxTokens = summaryMaxTokens;
+        this.compacted = compactionCounter(meterRegistry, "success");
+        this.failed = compactionCounter(meterRegistry, "failed");
+        this.rejected = compactionCounter(meterRegistry, "rejected");
+        this.skipped = compactionCounter(meterRegistry, "breaker_open");
+    }
+
+    /**
+     * Called before the answer prompt is built: folds a summary that finished since the last turn
+     * into {@code memory} and charges its tokens to the conversation.
+     */
+    public void prepare(String conversationId, ConversationMemory memory) {
+        if (conversationId == null) {
+            return;
+        }
+        Compaction compaction = compactions.get(conversationId);
+        if (compaction == null || !compaction.result().isDone()) {
+            return;
+        }
+        compactions.remove(conversationId, compaction);
+        Summary summary = compaction.result().exceptionally(e -> null).join();
+        if (summary != null && TurnHistory.fold(memory, compaction.turns(), summary.text())) {
+            budget.charge(memory, summary.tokens());
+        }
+    }
+
+    /**
+     * Called after an answer: appends the turn and, when turns left the window, starts summarizing
+     * them in the background. Without a conversation id the turns wait in the memory until a turn
+     * of that conversation arrives with one.
+     */
+    public void record(String conversationId, ConversationMemory memory, String question, String answer) {
+        if (capacity <= 0) {
+            return;
+        }
+        TurnHistory.append(memory, new Turn(truncate(question), truncate(answer)), capacity, maxPending);
+        if (conversationId == null || summaryMaxTokens <= 0) {
+            return;
+        }
+        List<Turn> pending = TurnHistory.pending(memory);
+        if (pending.isEmpty() || compactions.containsKey(conversationId)) {
+            return;
+        }
+        if (plannerBreaker.isOpen()) {
+            skipped.increment();
+            return;
+        }
+        if (compactions.size() >= MAX_TRACKED) {
+            // Conversations that never came back; their pending turns are still in their memory.
+            compactions.values().removeIf(compaction -> compaction.result().isDone());
+        }
+
+        String previous = TurnHistory.summary(memory);
+        TenantFlow flow = new TenantFlow(plannerLimiter.currentFlow().tenant(), TenantFlow.BULK);
+        CompletableFuture<Summary> result = new CompletableFuture<>();
+        Compaction compaction = new Compaction(pending, result);
+        if (compactions.putIfAbsent(conversationId, compaction) != null) {
+            return;
+        }
+        try {
+            summaryExecutor.execute(() -> {
+                try {
+                    if (plannerBreaker.isOpen()) {
+                        skipped.increment();
+                        result.complete(null);
+                        return;
+                    }
+                    result.complete(plannerLimiter.execute(flow, () -> summarize(previous, pending)));
+                    compacted.increment();
+                } catch (LimiterRejectedException e) {
+                    // The planner is saturated with requests; the turns are summarized on a later turn.
+                    rejected.increment();
+                    result.complete(null);
+                } catch (RuntimeException e) {
+                    log.warn("Conversation summary failed turns={}", pending.size(), e);
+                    failed.increment();
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            compactions.remove(conversationId, compaction);
+            rejected.increment();
+        }
+    }
+
+    /**
+     * The MEMORY block: the model-visible facts, then the summary and the most recent turns within
+     * the token cap. The summary may take at most half of what the facts leave; turns are added
+     * newest first until the cap is reached, and the block is cut hard if the facts alone exceed it.
+     */
+    public String memoryBlock(ConversationMemory memory) {
+        Map<String, Object> facts = memory.promptSnapshot();
+        String summary = TurnHistory.summary(memory);
+        List<Turn> turns = TurnHistory.recent(memory);
+        if (facts.isEmpty() && summary.isBlank() && turns.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder block = new StringBuilder("MEMORY (read-only):\n");
+        if (!facts.isEmpty()) {
+            block.append(facts).append('\n');
+        }
+        long remaining = maxTokens - TokenAccounting.estimateTokens(block.length());
+
+        String summaryText = "";
+        if (!summary.isBlank() && remaining > 0) {
+            summaryText = fit("Summary of earlier turns: " + summary + "\n", remaining / 2);
+            remaining -= TokenAccounting.estimateTokens(summaryText.length());
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            Turn turn = turns.get(i);
+            String line = "User: " + turn.question() + "\nAssistant: " + turn.answer() + "\n";
+            long cost = TokenAccounting.estimateTokens(line.length());
+            if (cost > remaining) {
+                break;
+            }
+            lines.add(0, line);
+            remaining -= cost;
+        }
+
+        block.append(summaryText);
+        if (!lines.isEmpty()) {
+            block.append("Recent turns:\n");
+            lines.forEach(block::append);
+        }
+        return fit(block.append('\n').toString(), maxTokens);
+    }
+
+    private Summary summarize(String previous, List<Turn> turns) {
+        StringBuilder input = new StringBuilder();
+        input.append("EXISTING SUMMARY:\n").append(previous.isBlank() ? "(none)" : previous).append("\n\n");
+        input.append("NEW TURNS:\n");
+        for (Turn turn : turns) {
+            input.append("User: ").append(turn.question()).append('\n');
+            input.append("Assistant: ").append(turn.answer()).append('\n');
+        }
+        input.append("\nReply with the updated summary in at most ")
+                .append(summaryMaxTokens * 3 / 4).append(" words.");
+
+        // The options replace the client defaults, so the model and keep-alive are repeated.
+        ChatResponse response = plannerChatClient.prompt()
+                .system(system -> system.text(SUMMARY_SYSTEM_PROMPT))
+                .user(user -> user.text(input.toString()))
+                .options(OllamaChatOptions.builder()
+                        .model(plannerModel)
+                        .keepAlive(keepAlive)
+                        .numPredict(summaryMaxTokens)
+                        .build())
+                .call()
+                .chatResponse();
+        long used = tokens.recordUsage("summary", plannerModel, "none", response);
+        String text = response == null || response.getResult() == null
+                || response.getResult().getOutput() == null
+                ? null
+                : response.getResult().getOutput().getText();
+        if (text == null || text.isBlank()) {
+            throw new IllegalStateException("Planner model returned an empty summary");
+        }
+        return new Summary(fit(text.strip(), summaryMaxTokens), used);
+    }
+
+    private String truncate(String text) {
+        if (text == null || text.length() <= maxTurnChars) {
+            return text;
+        }
+        return text.substring(0, maxTurnChars) + "...";
+    }
+
+    /** Cuts {@code text} to at most {@code tokens} estimated tokens. */
+    private static String fit(String text, long tokens) {
+        if (tokens <= 0) {
+            return "";
+        }
+        if (TokenAccounting.estimateTokens(text.length()) <= tokens) {
+            return text;
+        }
+        int chars = (int) Math.min(text.length(), tokens * TokenAccounting.CHARS_PER_TOKEN - ELLIPSIS.length());
+        return text.substring(0, Math.max(0, chars)) + ELLIPSIS;
+    }
+
+    private static Counter compactionCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("agent.memory.compactions")
+                .description("Background summaries of conversation turns that left the history window")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,153 @@
+package com.yourapp.ai.agent;
+
+import com.yourapp.ai.retreival.RetrievalResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plans and answers built without a model, used while a model's circuit breaker is open and, for
+ * the plan, when the planner's output holds no valid plan.
+ *
+ * <p>The fallback plan needs retrieval when the question mentions one of the policy keywords the
+ * planner prompt lists; order lookups are added by the deterministic overrides as usual. The
+ * fallback answer is extractive: the {@code Policy:} section quotes the top
+ * {@code app.breakers.fallback.max-chunks} retrieved chunks (the lines sharing a term with the
+ * question, or all of them when none does) and cites exactly those chunks; the {@code System:}
+ * section renders the tool result through {@code app.breakers.fallback.system-template}, whose
+ * {@code {key}} placeholders name tool result fields. Fallback answers have confidence
+ * {@code low}. Both are counted as {@code agent.fallback}, tagged with the {@code reason}.
+ */
+@Component
+public class FallbackAnswers {
+
+    static final String CONFIDENCE = "low";
+    static final String BREAKER_OPEN = "breaker_open";
+    static final String UNPARSABLE = "unparsable";
+
+    private static final List<String> POLICY_KEYWORDS = List.of(
+            "return", "refund", "damaged", "policy", "eligib", "warranty", "faq", "terms", "shipping");
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)}");
+    private static final Pattern WORD = Pattern.compile("[a-z0-9]+");
+    /** Words this short carry no topic; longer ones are matched on this many leading characters. */
+    private static final int TERM_LENGTH = 4;
+    private static final int STEM_LENGTH = 5;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "what", "when", "where", "which", "does", "have", "with", "from", "this", "that", "your", "about", "there");
+    private static final String DEFAULT_SYSTEM_TEMPLATE =
+            "Order {orderId}: status {status}, estimated delivery {estimatedDelivery}.";
+
+    private final int maxChunks;
+    private final int maxChars;
+    private final String systemTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public FallbackAnswers(
+            MeterRegistry meterRegistry,
+            @Value("${app.breakers.fallback.max-chunks:2}") int maxChunks,
+            @Value("${app.breakers.fallback.max-chars:1200}") int maxChars,
+            @Value("${app.breakers.fallback.system-template:}") String systemTemplate) {
+        this.meterRegistry = meterRegistry;
+        this.maxChunks = Math.max(1, maxChunks);
+        this.maxChars = maxChars;
+        this.systemTemplate = systemTemplate.isBlank() ? DEFAULT_SYSTEM_TEMPLATE : systemTemplate;
+    }
+
+    /** Keyword plan for a question the planner model did not plan, for {@code reason}. */
+    public AgentPlan plan(String question, String reason) {
+        String lower = question.toLowerCase(Locale.ROOT);
+        boolean policy = POLICY_KEYWORDS.stream().anyMatch(lower::contains);
+        count("planner", policy ? "retrieval" : "none", reason);
+        return new AgentPlan(policy, false, null, null);
+    }
+
+    /**
+     * The answer for a planned question whose retrieval and tool stages ran, without the answer
+     * model. {@code retrieval} and {@code toolResult} are {@code null} when the plan skipped them.
+     */
+    public AgentAnswer answer(
+            String question, AgentPlan plan, RetrievalResult retrieval, Map<String, Object> toolResult) {
+        count("answer", AgentOrchestrator.planType(plan), BREAKER_OPEN);
+        StringBuilder answer = new StringBuilder();
+        List<String> citations = List.of();
+        if (retrieval != null && !retrieval.chunks().isEmpty()) {
+            int count = Math.min(maxChunks, retrieval.chunks().size());
+            answer.append("Policy:\n").append(extract(question, retrieval.chunks().subList(0, count)));
+            citations = List.copyOf(retrieval.citations().subList(0, Math.min(count, retrieval.citations().size())));
+        }
+        if (toolResult != null) {
+            answer.append("System:\n").append(render(toolResult));
+        }
+        if (answer.isEmpty()) {
+            return new AgentAnswer("I don't have enough information to answer.", List.of(), CONFIDENCE);
+        }
+        return new AgentAnswer(answer.toString().trim(), citations, CONFIDENCE);
+    }
+
+    private String extract(String question, List<String> chunks) {
+        Set<String> terms = terms(question);
+        StringBuilder out = new StringBuilder();
+        for (String chunk : chunks) {
+            List<String> lines = chunk.lines().map(String::strip).filter(line -> !line.isEmpty()).toList();
+            if (lines.isEmpty()) {
+                continue;
+            }
+            // "Policy: Returns" titles the chunk; the section header already says Policy.
+            String title = lines.get(0).startsWith("Policy:") ? lines.get(0).substring(7).strip() : lines.get(0);
+            List<String> body = lines.subList(1, lines.size());
+            List<String> relevant = body.stream().filter(line -> terms(line).stream().anyMatch(terms::contains)).toList();
+            out.append(title).append('\n');
+            for (String line : relevant.isEmpty() ? body : relevant) {
+                out.append(line).append('\n');
+            }
+            if (out.length() >= maxChars) {
+                break;
+            }
+        }
+        return out.length() > maxChars ? out.substring(0, maxChars) + "…\n" : out.toString();
+    }
+
+    private static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        Matcher matcher = WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String word = matcher.group();
+            if (word.length() >= TERM_LENGTH && !STOP_WORDS.contains(word)) {
+                terms.add(word.substring(0, Math.min(STEM_LENGTH, word.length())));
+            }
+        }
+        return terms;
+    }
+
+    String render(Map<String, Object> toolResult) {
+        Matcher matcher = PLACEHOLDER.matcher(systemTemplate);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            Object value = toolResult.get(matcher.group(1));
+            matcher.appendReplacement(out, Matcher.quoteReplacement(value == null ? "unknown" : value.toString()));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private void count(String stage, String plan, String reason) {
+        counters.computeIfAbsent(stage + "/" + plan + "/" + reason, key -> Counter.builder("agent.fallback")
+                        .description("Plans and answers served without the model")
+                        .tag("stage", stage)
+                        .tag("plan", plan)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
@@ -1,16 +1,129 @@
 package com.yourapp.ai.agent;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Parses the planner's JSON plan. The plan is the first JSON object in the output that validates;
+ * prose, code fences or a second object around it are ignored.
+ */
 public class PlannerOutputParser {
 
     private static final ObjectMapper mapper = new ObjectMapper();
     private static final Set<String> ALLOWED_FIELDS =
             Set.of("needsRetrieval", "needsTool", "toolName", "toolArgument");
 
-    public static AgentPlan parse(String json) {
+    /** JSON schema of the plan, passed to Ollama as the structured output {@code format}. */
+    public static final Map<String, Object> SCHEMA = schema("""
+            {
+              "type": "object",
+              "properties": {
+                "needsRetrieval": {"type": "boolean"},
+                "needsTool": {"type": "boolean"},
+                "toolName": {"enum": ["getOrderStatus", null]},
+                "toolArgument": {"type": ["string", "null"]}
+              },
+              "required": ["needsRetrieval", "needsTool", "toolName", "toolArgument"],
+              "additionalProperties": false
+            }
+            """);
+
+    public static AgentPlan parse(String output) {
+        Incremental parser = new Incremental();
+        parser.accept(output);
+        if (parser.plan() == null) {
+            throw new IllegalArgumentException("Invalid planner JSON", parser.error());
+        }
+        return parser.plan();
+    }
+
+    /**
+     * Parses output as it streams in. {@link #accept} returns {@code true} as soon as a plan
+     * object has closed, so the caller can stop the generation there.
+     */
+    public static final class Incremental {
+
+        private final StringBuilder text = new StringBuilder();
+        private int position;
+        private int start = -1;
+        private int end = -1;
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+        private AgentPlan plan;
+        private IllegalArgumentException error;
+
+        /** Appends a chunk of output; {@code true} once the plan is complete. */
+        public boolean accept(String chunk) {
+            if (plan != null) {
+                return true;
+            }
+            text.append(chunk);
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (start < 0) {
+                    if (c == '{') {
+                        start = position - 1;
+                        depth = 1;
+                    }
+                } else if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    try {
+                        plan = parseObject(text.substring(start, position));
+                        end = position;
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        // Not the plan, e.g. braces in prose: look for the next object inside it.
+                        error = e;
+                        position = start + 1;
+                        start = -1;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** The plan, or {@code null} while no valid plan object has closed. */
+        public AgentPlan plan() {
+            return plan;
+        }
+
+        /** Why the last closed object was rejected, if one was. */
+        public IllegalArgumentException error() {
+            return error != null ? error : new IllegalArgumentException("No complete JSON object in planner output");
+        }
+
+        /** Whether the output received so far has anything but whitespace around the plan. */
+        public boolean wrapped() {
+            return plan != null
+                    && (!text.substring(0, start).isBlank() || !text.substring(end).isBlank());
+        }
+    }
+
+    private static Map<String, Object> schema(String json) {
+        try {
+            return mapper.readValue(json, new TypeReference<Map<String, Object>>() { });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid planner schema", e);
+        }
+    }
+
+    private static AgentPlan parseObject(String json) {
         try {
             JsonNode node = mapper.readTree(json);
             if (!node.isObject()) {
@@ -0,0 +1,29 @@
+package com.yourapp.ai.agent;
+
+public class TokenBudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String conversationId;
+    private final long usedTokens;
+    private final long budgetTokens;
+
+    public TokenBudgetExceededException(String conversationId, long usedTokens, long budgetTokens) {
+        super("Token budget exhausted for conversation " + conversationId);
+        this.conversationId = conversationId;
+        this.usedTokens = usedTokens;
+        this.budgetTokens = budgetTokens;
+    }
+
+    public String conversationId() {
+        return conversationId;
+    }
+
+    public long usedTokens() {
+        return usedTokens;
+    }
+
+    public long budgetTokens() {
+        return budgetTokens;
+    }
+}
@@ -2,62 +2,243 @@ package com.yourapp.ai.api;
 
 import com.yourapp.ai.agent.AgentAnswer;
 import com.yourapp.ai.agent.AgentOrchestrator;
+import com.yourapp.ai.agent.BatchOrchestrator;
+import com.yourapp.ai.agent.TokenBudgetExceededException;
+import com.yourapp.ai.concurrency.Deadline;
+import com.yourapp.ai.concurrency.DeadlineExceededException;
+import com.yourapp.ai.concurrency.LimiterRejectedException;
+import com.yourapp.ai.concurrency.TenantFlow;
 import com.yourapp.ai.memory.ConversationMemory;
 import com.yourapp.ai.memory.MemoryStore;
+import com.yourapp.ai.memory.ReactiveMemoryStore;
+import com.yourapp.ai.model.BatchChatResult;
 import com.yourapp.ai.model.ChatRequest;
+import com.yourapp.ai.observability.PipelineContext;
+import com.yourapp.ai.observability.StageObserver;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/chat")
 public class ChatController {
 
+  /** Client-requested time budget: milliseconds or an ISO-8601 duration such as {@code PT5S}. */
+  static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+  private static final ServerSentEvent<String> HEARTBEAT =
+      ServerSentEvent.<String>builder().comment("heartbeat").build();
+
   private final AgentOrchestrator agent;
   private final MemoryStore memoryStore;
+  private final ReactiveMemoryStore reactiveMemoryStore;
+  private final BatchOrchestrator batchAgent;
+  private final StageObserver stages;
+  private final int maxBatchItems;
+  private final String tenantClaim;
+  private final Duration defaultDeadline;
+  private final Duration batchDeadline;
+  private final Duration maxDeadline;
+  private final Duration streamHeartbeat;
 
-  public ChatController(AgentOrchestrator agent, MemoryStore memoryStore) {
+  public ChatController(
+      AgentOrchestrator agent,
+      MemoryStore memoryStore,
+      ReactiveMemoryStore reactiveMemoryStore,
+      BatchOrchestrator batchAgent,
+      StageObserver stages,
+      @Value("${app.batch.max-items:1000}") int maxBatchItems,
+      @Value("${app.scheduling.tenant-claim:azp}") String tenantClaim,
+      @Value("${app.deadline.default:PT30S}") Duration defaultDeadline,
+      @Value("${app.deadline.batch:PT5M}") Duration batchDeadline,
+      @Value("${app.deadline.max:PT5M}") Duration maxDeadline,
+      @Value("${app.stream.heartbeat:PT5S}") Duration streamHeartbeat) {
     this.agent = agent;
     this.memoryStore = memoryStore;
+    this.reactiveMemoryStore = reactiveMemoryStore;
+    this.batchAgent = batchAgent;
+    this.stages = stages;
+    this.maxBatchItems = maxBatchItems;
+    this.tenantClaim = tenantClaim;
+    this.defaultDeadline = defaultDeadline;
+    this.batchDeadline = batchDeadline;
+    this.maxDeadline = maxDeadline;
+    this.streamHeartbeat = streamHeartbeat;
   }
 
   @PostMapping
-  public AgentAnswer chat(@RequestBody ChatRequest req) {
+  public AgentAnswer chat(
+      @RequestBody ChatRequest req,
+      @AuthenticationPrincipal Jwt jwt,
+      @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) String timeout) {
     String conversationId = req.conversationId();
     if (conversationId == null || conversationId.isBlank()) {
       conversationId = "default";
     }
 
     String key = conversationId;
+    bindConversation(key);
+    bindCaller(jwt, TenantFlow.STANDARD);
+    bindDeadline(timeout, defaultDeadline);
     ConversationMemory memory =
-        memoryStore.get(key).orElseGet(() -> {
-          ConversationMemory created = new ConversationMemory();
-          memoryStore.put(key, created);
-          return created;
-        });
+        stages.observe("memory.get", () -> memoryStore.get(key)).orElseGet(ConversationMemory::new);
 
     AgentAnswer answer = agent.run(req.question(), memory);
-    memoryStore.put(key, memory);
+    stages.run("memory.put", () -> memoryStore.put(key, memory));
     return answer;
   }
 
+  /**
+   * SSE answer. The answer is sent once sanitized, so until then a comment line goes out every
+   * {@code app.stream.heartbeat}: the servlet container only notices a disconnected client when
+   * a write fails, and that failure is what cancels the pipeline and the Ollama request.
+   */
   @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-  public Flux<String> chatStream(@RequestBody ChatRequest req) {
+  public Flux<ServerSentEvent<String>> chatStream(
+      @RequestBody ChatRequest req,
+      @AuthenticationPrincipal Jwt jwt,
+      @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) String timeout) {
     String conversationId = req.conversationId();
     if (conversationId == null || conversationId.isBlank()) {
       conversationId = "default";
     }
 
     String key = conversationId;
-    ConversationMemory memory =
-        memoryStore.get(key).orElseGet(() -> {
-          ConversationMemory created = new ConversationMemory();
-          memoryStore.put(key, created);
-          return created;
-        });
-
-    Flux<String> stream = agent.runStream(req.question(), memory);
-    memoryStore.put(key, memory);
-    return stream;
+    bindConversation(key);
+    bindCaller(jwt, TenantFlow.INTERACTIVE);
+    bindDeadline(timeout, defaultDeadline);
+    return stages.observe("memory.get", reactiveMemoryStore.get(key))
+        .switchIfEmpty(Mono.fromSupplier(ConversationMemory::new))
+        .flatMapMany(memory -> agent.runStream(req.question(), memory)
+            .concatWith(stages.observe("memory.put", reactiveMemoryStore.put(key, memory))
+                .then(Mono.empty())))
+        .map(text -> ServerSentEvent.builder(text).build())
+        .publish(events -> Flux.merge(events, heartbeats(events)));
+  }
+
+  private Flux<ServerSentEvent<String>> heartbeats(Flux<ServerSentEvent<String>> events) {
+    if (streamHeartbeat.isZero() || streamHeartbeat.isNegative()) {
+      return Flux.empty();
+    }
+    return Flux.interval(streamHeartbeat)
+        .map(tick -> HEARTBEAT)
+        .takeUntilOther(events.then(Mono.just(true)));
+  }
+
+  @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<BatchChatResult> chatBatch(
+      @RequestBody List<ChatRequest> requests,
+      @AuthenticationPrincipal Jwt jwt,
+      @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) String timeout) {
+    if (requests.size() > maxBatchItems) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Batch exceeds " + maxBatchItems + " items");
+    }
+    bindCaller(jwt, TenantFlow.BULK);
+    bindDeadline(timeout, batchDeadline);
+    return batchAgent.runBatch(requests);
+  }
+
+  private static void bindConversation(String conversationId) {
+    PipelineContext context = PipelineContext.current();
+    if (context != null) {
+      context.conversationId(conversationId);
+    }
+  }
+
+  /**
+   * Tags the request with the tenant and work class the model limiters schedule it under. The
+   * tenant is the {@code app.scheduling.tenant-claim} claim (the OAuth client id by default),
+   * falling back to the subject.
+   */
+  private void bindCaller(Jwt jwt, String workClass) {
+    PipelineContext context = PipelineContext.current();
+    if (context == null) {
+      return;
+    }
+    String tenant = null;
+    if (jwt != null) {
+      tenant = jwt.getClaimAsString(tenantClaim);
+      if (tenant == null || tenant.isBlank()) {
+        tenant = jwt.getSubject();
+      }
+    }
+    context.caller(tenant, workClass);
+  }
+
+  /**
+   * Starts the request's deadline: the {@value #REQUEST_TIMEOUT_HEADER} header if present, else
+   * the endpoint default, never more than {@code app.deadline.max}.
+   */
+  private void bindDeadline(String timeout, Duration defaultBudget) {
+    PipelineContext context = PipelineContext.current();
+    if (context == null) {
+      return;
+    }
+    Duration budget = timeout == null || timeout.isBlank() ? defaultBudget : parseTimeout(timeout.trim());
+    if (budget.compareTo(maxDeadline) > 0) {
+      budget = maxDeadline;
+    }
+    context.deadline(Deadline.after(budget));
+  }
+
+  private static Duration parseTimeout(String timeout) {
+    Duration budget;
+    try {
+      budget = timeout.chars().allMatch(Character::isDigit)
+          ? Duration.ofMillis(Long.parseLong(timeout))
+          : Duration.parse(timeout);
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Invalid " + REQUEST_TIMEOUT_HEADER + ": " + timeout);
+    }
+    if (budget.isNegative() || budget.isZero()) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, REQUEST_TIMEOUT_HEADER + " must be positive");
+    }
+    return budget;
+  }
+
+  @ExceptionHandler(DeadlineExceededException.class)
+  public ResponseEntity<Map<String, Object>> onDeadlineExceeded(DeadlineExceededException e) {
+    return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+        .body(Map.of(
+            "error", "deadline_exceeded",
+            "stage", e.stage(),
+            "budgetMillis", e.budget() == null ? 0 : e.budget().toMillis()));
+  }
+
+  @ExceptionHandler(LimiterRejectedException.class)
+  public ResponseEntity<Map<String, Object>> onSaturated(LimiterRejectedException e) {
+    long retryAfterSeconds = Math.max(1, (e.retryAfter().toMillis() + 999) / 1000);
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+        .body(Map.of(
+            "error", "overloaded",
+            "limiter", e.limiter(),
+            "retryAfterSeconds", retryAfterSeconds));
+  }
+
+  @ExceptionHandler(TokenBudgetExceededException.class)
+  public ResponseEntity<Map<String, Object>> onBudgetExceeded(TokenBudgetExceededException e) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .body(Map.of(
+            "error", "token_budget_exceeded",
+            "conversationId", String.valueOf(e.conversationId()),
+            "usedTokens", e.usedTokens(),
+            "budgetTokens", e.budgetTokens()));
   }
 }
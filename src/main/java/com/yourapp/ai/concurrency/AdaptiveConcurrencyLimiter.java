@@ -0,0 +1,339 @@
+package com.yourapp.ai.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * AIMD concurrency limiter for blocking model calls.
+ *
+ * <p>The limit grows by one while observed latency stays within {@code tolerance} times the
+ * baseline (the lowest recent latency) and shrinks multiplicatively when latency rises above it
+ * or a call fails. Callers above the limit wait in a bounded queue; when the queue is full, or a
+ * caller waits longer than {@code maxQueueWait}, the call is rejected with
+ * {@link LimiterRejectedException}.
+ *
+ * <p>Waiting callers are dispatched by a {@link FairQueue} rather than in arrival order: each
+ * call belongs to a {@link TenantFlow}, and backlogged flows share the permits in proportion to
+ * the weights of the {@link FairSharePolicy}. A new call only bypasses the queue when nobody is
+ * waiting. Per-tenant wait times are recorded as {@code agent.scheduler.queue.wait}.
+ *
+ * <p>Callers with a request deadline pass the time they have left as a shorter queue wait, so a
+ * request that can no longer use its result does not hold a queue slot until {@code maxQueueWait}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private final String name;
+  private final int minLimit;
+  private final int maxLimit;
+  private final int maxQueueDepth;
+  private final Duration maxQueueWait;
+  private final double tolerance;
+  private final double backoffRatio;
+  private final FairSharePolicy policy;
+  private final Supplier<TenantFlow> currentFlow;
+  private final MeterRegistry meterRegistry;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final FairQueue queue;
+
+  private int limit;
+  private int inFlight;
+  private long baselineRttNanos;
+
+  private final Counter rejectedCounter;
+  private final Timer queueWaitTimer;
+  private final Map<TenantFlow, Timer> flowWaitTimers = new ConcurrentHashMap<>();
+  private final Map<TenantFlow, Counter> flowRejectedCounters = new ConcurrentHashMap<>();
+
+  public AdaptiveConcurrencyLimiter(
+      String name,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      int maxQueueDepth,
+      Duration maxQueueWait,
+      double tolerance,
+      double backoffRatio,
+      MeterRegistry meterRegistry) {
+    this(name, initialLimit, minLimit, maxLimit, maxQueueDepth, maxQueueWait, tolerance, backoffRatio,
+        FairSharePolicy.EQUAL, () -> TenantFlow.DEFAULT, meterRegistry);
+  }
+
+  /**
+   * @param currentFlow resolves the flow of calls made through {@link #execute(Supplier)} and
+   *     {@link #acquire()}, typically from the request context
+   */
+  public AdaptiveConcurrencyLimiter(
+      String name,
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      int maxQueueDepth,
+      Duration maxQueueWait,
+      double tolerance,
+      double backoffRatio,
+      FairSharePolicy policy,
+      Supplier<TenantFlow> currentFlow,
+      MeterRegistry meterRegistry) {
+    this.name = name;
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    this.maxQueueDepth = Math.max(0, maxQueueDepth);
+    this.maxQueueWait = maxQueueWait;
+    this.tolerance = tolerance;
+    this.backoffRatio = backoffRatio;
+    this.policy = policy;
+    this.currentFlow = currentFlow;
+    this.meterRegistry = meterRegistry;
+    this.queue = new FairQueue(policy);
+
+    Gauge.builder("agent.limiter.limit", this, AdaptiveConcurrencyLimiter::limit)
+        .description("Current adaptive concurrency limit")
+        .tag("limiter", name)
+        .register(meterRegistry);
+    Gauge.builder("agent.limiter.inflight", this, AdaptiveConcurrencyLimiter::inFlight)
+        .description("Calls currently holding a permit")
+        .tag("limiter", name)
+        .register(meterRegistry);
+    Gauge.builder("agent.limiter.queued", this, AdaptiveConcurrencyLimiter::queued)
+        .description("Calls waiting for a permit")
+        .tag("limiter", name)
+        .register(meterRegistry);
+    this.rejectedCounter = Counter.builder("agent.limiter.rejected")
+        .description("Calls rejected because the limiter was saturated")
+        .tag("limiter", name)
+        .register(meterRegistry);
+    this.queueWaitTimer = Timer.builder("agent.limiter.queue.wait")
+        .description("Time spent waiting for a permit")
+        .tag("limiter", name)
+        .register(meterRegistry);
+  }
+
+  public <T> T execute(Supplier<T> call) {
+    return execute(currentFlow(), call);
+  }
+
+  public <T> T execute(TenantFlow flow, Supplier<T> call) {
+    return execute(flow, maxQueueWait, call);
+  }
+
+  /** Like {@link #execute(TenantFlow, Supplier)}, waiting at most {@code maxWait} for a permit. */
+  public <T> T execute(TenantFlow flow, Duration maxWait, Supplier<T> call) {
+    Permit permit = acquire(flow, maxWait);
+    boolean success = false;
+    try {
+      T result = call.get();
+      success = true;
+      return result;
+    } finally {
+      permit.release(success);
+    }
+  }
+
+  /**
+   * Blocks until a permit is available. Used by callers that cannot wrap the call in
+   * {@link #execute(Supplier)}, such as reactive pipelines that release on completion.
+   */
+  public Permit acquire() {
+    return acquire(currentFlow());
+  }
+
+  /** Blocks until {@code flow} is dispatched a permit. */
+  public Permit acquire(TenantFlow flow) {
+    return acquire(flow, maxQueueWait);
+  }
+
+  /** Blocks until {@code flow} is dispatched a permit, or rejects after {@code maxWait}. */
+  public Permit acquire(TenantFlow flow, Duration maxWait) {
+    awaitPermit(flow, Math.min(maxQueueWait.toNanos(), maxWait.toNanos()));
+    return new Permit(System.nanoTime());
+  }
+
+  public Duration maxQueueWait() {
+    return maxQueueWait;
+  }
+
+  /** The flow of the calling request, as resolved by the configured supplier. */
+  public TenantFlow currentFlow() {
+    TenantFlow flow = currentFlow.get();
+    return flow == null ? TenantFlow.DEFAULT : flow;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public int limit() {
+    lock.lock();
+    try {
+      return limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int inFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int queued() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void awaitPermit(TenantFlow flow, long maxWaitNanos) {
+    lock.lock();
+    try {
+      if (inFlight < limit && queue.isEmpty()) {
+        inFlight++;
+        flowWaitTimer(flow).record(0, TimeUnit.NANOSECONDS);
+        return;
+      }
+      if (queue.size() >= maxQueueDepth || !queue.admits(flow)) {
+        throw reject(flow);
+      }
+
+      FairQueue.Waiter waiter = queue.enqueue(flow, lock.newCondition());
+      long waitStart = System.nanoTime();
+      long remainingNanos = maxWaitNanos;
+      try {
+        dispatch();
+        while (!waiter.granted) {
+          if (remainingNanos <= 0) {
+            queue.remove(waiter);
+            throw reject(flow);
+          }
+          remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (waiter.granted) {
+          inFlight--;
+          dispatch();
+        } else {
+          queue.remove(waiter);
+        }
+        throw reject(flow);
+      } finally {
+        long waited = System.nanoTime() - waitStart;
+        queueWaitTimer.record(waited, TimeUnit.NANOSECONDS);
+        flowWaitTimer(flow).record(waited, TimeUnit.NANOSECONDS);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Hands free permits to waiters in fair-queue order. Called with the lock held. */
+  private void dispatch() {
+    while (inFlight < limit && !queue.isEmpty()) {
+      FairQueue.Waiter next = queue.poll();
+      next.granted = true;
+      inFlight++;
+      next.condition.signal();
+    }
+  }
+
+  private void release(long rttNanos, boolean success) {
+    lock.lock();
+    try {
+      inFlight--;
+      adjust(rttNanos, success);
+      dispatch();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void adjust(long rttNanos, boolean success) {
+    if (!success) {
+      limit = Math.max(minLimit, (int) Math.floor(limit * backoffRatio));
+      return;
+    }
+
+    if (baselineRttNanos == 0 || rttNanos < baselineRttNanos) {
+      baselineRttNanos = rttNanos;
+    } else {
+      // Drift the baseline slowly upward so a permanently slower model is not treated as overload.
+      baselineRttNanos += (rttNanos - baselineRttNanos) / 100;
+    }
+
+    if (rttNanos > baselineRttNanos * tolerance) {
+      limit = Math.max(minLimit, (int) Math.floor(limit * backoffRatio));
+    } else if (inFlight + 1 >= limit / 2) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+
+  private LimiterRejectedException reject(TenantFlow flow) {
+    rejectedCounter.increment();
+    flowRejectedCounters.computeIfAbsent(tagged(flow), key -> Counter.builder("agent.scheduler.rejected")
+            .description("Calls rejected by the limiter, per tenant and work class")
+            .tag("limiter", name)
+            .tag("tenant", key.tenant())
+            .tag("class", key.workClass())
+            .register(meterRegistry))
+        .increment();
+    long baselineMs = Math.max(1, baselineRttNanos / 1_000_000);
+    long backlog = (long) queue.size() / Math.max(1, limit) + 1;
+    Duration retryAfter = Duration.ofMillis(baselineMs * backlog);
+    if (retryAfter.compareTo(Duration.ofSeconds(1)) < 0) {
+      retryAfter = Duration.ofSeconds(1);
+    }
+    return new LimiterRejectedException(name, retryAfter);
+  }
+
+  private Timer flowWaitTimer(TenantFlow flow) {
+    return flowWaitTimers.computeIfAbsent(tagged(flow), key -> Timer.builder("agent.scheduler.queue.wait")
+        .description("Time a call waited for its fair-share turn, per tenant and work class")
+        .tag("limiter", name)
+        .tag("tenant", key.tenant())
+        .tag("class", key.workClass())
+        .register(meterRegistry));
+  }
+
+  /** Meters are keyed by the tenant tag, so tenants beyond the tag limit share one entry. */
+  private TenantFlow tagged(TenantFlow flow) {
+    return new TenantFlow(policy.tenantTag(flow.tenant()), flow.workClass());
+  }
+
+  /**
+   * A held permit. Releasing it feeds the observed latency back into the limit; only the first
+   * release has any effect.
+   */
+  public final class Permit {
+
+    private final long startNanos;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(long startNanos) {
+      this.startNanos = startNanos;
+    }
+
+    public void release(boolean success) {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      AdaptiveConcurrencyLimiter.this.release(System.nanoTime() - startNanos, success);
+    }
+  }
+}
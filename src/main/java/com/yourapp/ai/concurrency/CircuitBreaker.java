@@ -0,0 +1,296 @@
+package com.yourapp.ai.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker for model calls.
+ *
+ * <p>The outcomes of the last {@code windowSize} calls are kept; once at least
+ * {@code minimumCalls} are recorded and the share of failed or slow ones (slower than
+ * {@code slowCallThreshold}) reaches {@code failureRateThreshold}, the breaker opens and
+ * {@link #acquire()} fails fast with {@link CircuitOpenException} instead of letting requests
+ * queue behind a model that is down. After {@code openDuration} up to {@code halfOpenCalls} trial
+ * calls are let through; if all of them succeed the breaker closes with an empty window, any
+ * failure opens it again.
+ *
+ * <p>Outcomes that say nothing about the model, such as a limiter rejection or a cancelled call,
+ * are released with {@link Call#ignore()}. A call that runs out of request deadline counts as slow
+ * only once it has taken longer than {@code slowCallThreshold} itself.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, HALF_OPEN, OPEN
+  }
+
+  private enum Outcome {
+    SUCCESS, FAILURE, SLOW, IGNORED
+  }
+
+  private final String name;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final long slowCallNanos;
+  private final Duration openDuration;
+  private final int halfOpenCalls;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final boolean[] window;
+  private int windowIndex;
+  private int recorded;
+  private int failures;
+
+  private State state = State.CLOSED;
+  private long openedAtNanos;
+  private int trialsStarted;
+  private int trialsSucceeded;
+
+  private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+  private final Map<State, Counter> transitionCounters = new EnumMap<>(State.class);
+  private final Counter rejectedCounter;
+
+  public CircuitBreaker(
+      String name,
+      int windowSize,
+      int minimumCalls,
+      double failureRateThreshold,
+      Duration slowCallThreshold,
+      Duration openDuration,
+      int halfOpenCalls,
+      MeterRegistry meterRegistry) {
+    this.name = name;
+    this.window = new boolean[Math.max(1, windowSize)];
+    this.minimumCalls = Math.min(window.length, Math.max(1, minimumCalls));
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallNanos = slowCallThreshold.toNanos();
+    this.openDuration = openDuration;
+    this.halfOpenCalls = Math.max(1, halfOpenCalls);
+
+    Gauge.builder("agent.breaker.state", this, breaker -> breaker.state().ordinal())
+        .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+        .tag("breaker", name)
+        .register(meterRegistry);
+    Gauge.builder("agent.breaker.failure.rate", this, CircuitBreaker::failureRate)
+        .description("Share of failed or slow calls in the breaker's window")
+        .tag("breaker", name)
+        .register(meterRegistry);
+    for (Outcome outcome : Outcome.values()) {
+      outcomeCounters.put(outcome, Counter.builder("agent.breaker.calls")
+          .description("Calls through a circuit breaker, by outcome")
+          .tag("breaker", name)
+          .tag("result", outcome.name().toLowerCase())
+          .register(meterRegistry));
+    }
+    for (State target : State.values()) {
+      transitionCounters.put(target, Counter.builder("agent.breaker.transitions")
+          .description("Circuit breaker state changes, by the state entered")
+          .tag("breaker", name)
+          .tag("state", target.name().toLowerCase())
+          .register(meterRegistry));
+    }
+    this.rejectedCounter = Counter.builder("agent.breaker.calls")
+        .description("Calls through a circuit breaker, by outcome")
+        .tag("breaker", name)
+        .tag("result", "rejected")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Admits a call, or throws {@link CircuitOpenException} while the breaker is open or its
+   * half-open trial calls are all taken. The returned call must be released exactly once.
+   */
+  public Call acquire() {
+    lock.lock();
+    try {
+      long now = System.nanoTime();
+      if (state == State.OPEN && now - openedAtNanos >= openDuration.toNanos()) {
+        transition(State.HALF_OPEN, now);
+      }
+      if (state == State.OPEN || (state == State.HALF_OPEN && trialsStarted >= halfOpenCalls)) {
+        rejectedCounter.increment();
+        throw new CircuitOpenException(name, retryAfter(now));
+      }
+      if (state == State.HALF_OPEN) {
+        trialsStarted++;
+      }
+      return new Call(now, state == State.HALF_OPEN);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Whether calls are currently refused; an expired open period counts as not open. */
+  public boolean isOpen() {
+    lock.lock();
+    try {
+      return state == State.OPEN && System.nanoTime() - openedAtNanos < openDuration.toNanos();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public State state() {
+    lock.lock();
+    try {
+      return state;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public double failureRate() {
+    lock.lock();
+    try {
+      return recorded == 0 ? 0 : (double) failures / recorded;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void complete(Call call, Outcome outcome) {
+    outcomeCounters.get(outcome).increment();
+    lock.lock();
+    try {
+      long now = System.nanoTime();
+      if (call.trial) {
+        releaseTrial(outcome, now);
+      } else if (state == State.CLOSED && outcome != Outcome.IGNORED) {
+        record(outcome != Outcome.SUCCESS);
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+          transition(State.OPEN, now);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Called with the lock held. Trial outcomes from an earlier half-open period are stale. */
+  private void releaseTrial(Outcome outcome, long now) {
+    if (state != State.HALF_OPEN) {
+      return;
+    }
+    switch (outcome) {
+      case SUCCESS -> {
+        if (++trialsSucceeded >= halfOpenCalls) {
+          transition(State.CLOSED, now);
+        }
+      }
+      case FAILURE, SLOW -> transition(State.OPEN, now);
+      // Hand the slot to another caller.
+      case IGNORED -> trialsStarted--;
+    }
+  }
+
+  /** Called with the lock held. */
+  private void record(boolean failed) {
+    if (recorded == window.length) {
+      if (window[windowIndex]) {
+        failures--;
+      }
+    } else {
+      recorded++;
+    }
+    window[windowIndex] = failed;
+    if (failed) {
+      failures++;
+    }
+    windowIndex = (windowIndex + 1) % window.length;
+  }
+
+  /** Called with the lock held. */
+  private void transition(State target, long now) {
+    state = target;
+    trialsStarted = 0;
+    trialsSucceeded = 0;
+    if (target == State.OPEN) {
+      openedAtNanos = now;
+    }
+    if (target == State.CLOSED) {
+      recorded = 0;
+      failures = 0;
+      windowIndex = 0;
+    }
+    transitionCounters.get(target).increment();
+  }
+
+  private Duration retryAfter(long now) {
+    Duration remaining = openDuration.minusNanos(now - openedAtNanos);
+    return remaining.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : remaining;
+  }
+
+  /** An admitted call. Only the first release has any effect. */
+  public final class Call {
+
+    private final long startNanos;
+    private final boolean trial;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Call(long startNanos, boolean trial) {
+      this.startNanos = startNanos;
+      this.trial = trial;
+    }
+
+    /** Runs {@code work} as this call and releases it with the outcome. */
+    public <T> T execute(Supplier<T> work) {
+      try {
+        T result = work.get();
+        success();
+        return result;
+      } catch (RuntimeException e) {
+        release(e);
+        throw e;
+      }
+    }
+
+    /** The call returned; it still counts against the model when it took too long. */
+    public void success() {
+      complete(System.nanoTime() - startNanos > slowCallNanos ? Outcome.SLOW : Outcome.SUCCESS);
+    }
+
+    public void failure() {
+      complete(Outcome.FAILURE);
+    }
+
+    /** The call ran out of request deadline: slow if it ran past the threshold, else ignored. */
+    public void timeout() {
+      complete(System.nanoTime() - startNanos > slowCallNanos ? Outcome.SLOW : Outcome.IGNORED);
+    }
+
+    public void ignore() {
+      complete(Outcome.IGNORED);
+    }
+
+    /** Releases with the outcome {@code error} stands for; {@code null} is a success. */
+    public void release(Throwable error) {
+      if (error == null) {
+        success();
+      } else if (error instanceof DeadlineExceededException) {
+        timeout();
+      } else if (error instanceof LimiterRejectedException || error instanceof CancellationException) {
+        ignore();
+      } else {
+        failure();
+      }
+    }
+
+    private void complete(Outcome outcome) {
+      if (released.compareAndSet(false, true)) {
+        CircuitBreaker.this.complete(this, outcome);
+      }
+    }
+  }
+}
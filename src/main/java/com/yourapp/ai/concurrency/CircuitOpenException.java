@@ -0,0 +1,25 @@
+package com.yourapp.ai.concurrency;
+
+import java.time.Duration;
+
+public class CircuitOpenException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String breaker;
+  private final Duration retryAfter;
+
+  public CircuitOpenException(String breaker, Duration retryAfter) {
+    super("Circuit breaker " + breaker + " is open");
+    this.breaker = breaker;
+    this.retryAfter = retryAfter;
+  }
+
+  public String breaker() {
+    return breaker;
+  }
+
+  public Duration retryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,66 @@
+package com.yourapp.ai.concurrency;
+
+import java.time.Duration;
+
+/**
+ * Point in time after which a request's result can no longer be used. Stages check it before
+ * they start and bound their own waits by {@link #remainingOr(Duration)}, so work is skipped or
+ * cancelled once the caller has given up.
+ */
+public final class Deadline {
+
+  /** No deadline: never expires and does not shorten any wait. */
+  public static final Deadline NONE = new Deadline(0, null);
+
+  private final long expiresAtNanos;
+  private final Duration budget;
+
+  private Deadline(long expiresAtNanos, Duration budget) {
+    this.expiresAtNanos = expiresAtNanos;
+    this.budget = budget;
+  }
+
+  public static Deadline after(Duration budget) {
+    return new Deadline(System.nanoTime() + budget.toNanos(), budget);
+  }
+
+  public boolean isNone() {
+    return budget == null;
+  }
+
+  public boolean expired() {
+    return !isNone() && System.nanoTime() - expiresAtNanos >= 0;
+  }
+
+  /** Time left, never negative. Callers check {@link #isNone()} first. */
+  public Duration remaining() {
+    if (isNone()) {
+      throw new IllegalStateException("No deadline set");
+    }
+    return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+  }
+
+  /** Time left, or {@code cap} when that is sooner or there is no deadline. */
+  public Duration remainingOr(Duration cap) {
+    if (isNone()) {
+      return cap;
+    }
+    Duration remaining = remaining();
+    return remaining.compareTo(cap) < 0 ? remaining : cap;
+  }
+
+  public Duration budget() {
+    return budget;
+  }
+
+  /** Throws when the deadline has passed, so {@code stage} never starts. */
+  public void check(String stage) {
+    if (expired()) {
+      throw exceeded(stage);
+    }
+  }
+
+  public DeadlineExceededException exceeded(String stage) {
+    return new DeadlineExceededException(stage, budget);
+  }
+}
@@ -0,0 +1,25 @@
+package com.yourapp.ai.concurrency;
+
+import java.time.Duration;
+
+public class DeadlineExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String stage;
+  private final Duration budget;
+
+  public DeadlineExceededException(String stage, Duration budget) {
+    super("Request deadline of " + budget + " exceeded at " + stage);
+    this.stage = stage;
+    this.budget = budget;
+  }
+
+  public String stage() {
+    return stage;
+  }
+
+  public Duration budget() {
+    return budget;
+  }
+}
@@ -0,0 +1,110 @@
+package com.yourapp.ai.concurrency;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Weighted fair queue of callers waiting for a limiter permit (start-time fair queuing). Every
+ * waiter gets a virtual start tag, the later of the queue's virtual time and its flow's previous
+ * finish tag, and a finish tag {@code start + 1 / weight}. Waiters are dispatched in finish tag
+ * order and the virtual time advances to the start tag of each dispatched waiter, so a flow that
+ * was idle does not bank credit and a backlogged flow gets dispatches in proportion to its
+ * weight.
+ *
+ * <p>Not thread-safe: guarded by the owning limiter's lock.
+ */
+final class FairQueue {
+
+  /** Flows without waiters are forgotten once the queue tracks more than this many. */
+  private static final int MAX_IDLE_FLOWS = 1024;
+
+  static final class Waiter {
+    final TenantFlow flow;
+    final Condition condition;
+    final double start;
+    final double finish;
+    final long sequence;
+    boolean granted;
+
+    private Waiter(TenantFlow flow, Condition condition, double start, double finish, long sequence) {
+      this.flow = flow;
+      this.condition = condition;
+      this.start = start;
+      this.finish = finish;
+      this.sequence = sequence;
+    }
+  }
+
+  private static final class FlowState {
+    double lastFinish;
+    int queued;
+  }
+
+  private final FairSharePolicy policy;
+  private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+      Comparator.comparingDouble((Waiter waiter) -> waiter.finish).thenComparingLong(waiter -> waiter.sequence));
+  private final Map<TenantFlow, FlowState> flows = new HashMap<>();
+  private final Map<String, Integer> queuedByTenant = new HashMap<>();
+  private double virtualTime;
+  private long sequence;
+
+  FairQueue(FairSharePolicy policy) {
+    this.policy = policy;
+  }
+
+  boolean admits(TenantFlow flow) {
+    return queuedByTenant.getOrDefault(flow.tenant(), 0) < policy.maxQueuedPerTenant();
+  }
+
+  Waiter enqueue(TenantFlow flow, Condition condition) {
+    if (flows.size() > MAX_IDLE_FLOWS) {
+      flows.values().removeIf(state -> state.queued == 0 && state.lastFinish <= virtualTime);
+    }
+    FlowState state = flows.computeIfAbsent(flow, key -> new FlowState());
+    double start = Math.max(virtualTime, state.lastFinish);
+    double finish = start + 1.0 / policy.weight(flow);
+    state.lastFinish = finish;
+    state.queued++;
+    queuedByTenant.merge(flow.tenant(), 1, Integer::sum);
+
+    Waiter waiter = new Waiter(flow, condition, start, finish, sequence++);
+    waiters.add(waiter);
+    return waiter;
+  }
+
+  /** Removes and returns the next waiter to dispatch, or {@code null} when none is waiting. */
+  Waiter poll() {
+    Waiter waiter = waiters.poll();
+    if (waiter != null) {
+      virtualTime = Math.max(virtualTime, waiter.start);
+      dequeued(waiter);
+    }
+    return waiter;
+  }
+
+  /** Withdraws a waiter that timed out or was interrupted. */
+  void remove(Waiter waiter) {
+    if (waiters.remove(waiter)) {
+      dequeued(waiter);
+    }
+  }
+
+  boolean isEmpty() {
+    return waiters.isEmpty();
+  }
+
+  int size() {
+    return waiters.size();
+  }
+
+  private void dequeued(Waiter waiter) {
+    FlowState state = flows.get(waiter.flow);
+    if (state != null) {
+      state.queued--;
+    }
+    queuedByTenant.computeIfPresent(waiter.flow.tenant(), (tenant, queued) -> queued > 1 ? queued - 1 : null);
+  }
+}
@@ -0,0 +1,59 @@
+package com.yourapp.ai.concurrency;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weights for fair queuing in front of the model limiters. A flow's weight is its work class
+ * weight times its tenant weight (1 unless configured), so a bulk flow with weight 1 gets one
+ * dispatch for every eight of an interactive flow with weight 8 while both are backlogged.
+ *
+ * <p>{@code maxQueuedPerTenant} keeps one tenant from filling a limiter's whole queue, and only
+ * the first {@code maxTenantTags} tenants get their own metric tag; later ones report as
+ * {@code other}.
+ */
+public final class FairSharePolicy {
+
+  public static final FairSharePolicy EQUAL = new FairSharePolicy(Map.of(), Map.of(), Integer.MAX_VALUE, 0);
+
+  private static final String OTHER = "other";
+
+  private final Map<String, Double> classWeights;
+  private final Map<String, Double> tenantWeights;
+  private final int maxQueuedPerTenant;
+  private final int maxTenantTags;
+  private final Set<String> taggedTenants = ConcurrentHashMap.newKeySet();
+
+  public FairSharePolicy(
+      Map<String, Double> classWeights,
+      Map<String, Double> tenantWeights,
+      int maxQueuedPerTenant,
+      int maxTenantTags) {
+    this.classWeights = Map.copyOf(classWeights);
+    this.tenantWeights = Map.copyOf(tenantWeights);
+    this.maxQueuedPerTenant = Math.max(1, maxQueuedPerTenant);
+    this.maxTenantTags = Math.max(0, maxTenantTags);
+  }
+
+  public double weight(TenantFlow flow) {
+    double weight = classWeights.getOrDefault(flow.workClass(), 1.0)
+        * tenantWeights.getOrDefault(flow.tenant(), 1.0);
+    return weight > 0 ? weight : 1.0;
+  }
+
+  public int maxQueuedPerTenant() {
+    return maxQueuedPerTenant;
+  }
+
+  /** Bounds the tenant tag cardinality of the scheduler metrics. */
+  public String tenantTag(String tenant) {
+    if (taggedTenants.contains(tenant)) {
+      return tenant;
+    }
+    if (taggedTenants.size() < maxTenantTags && taggedTenants.add(tenant)) {
+      return tenant;
+    }
+    return taggedTenants.contains(tenant) ? tenant : OTHER;
+  }
+}
@@ -0,0 +1,25 @@
+package com.yourapp.ai.concurrency;
+
+import java.time.Duration;
+
+public class LimiterRejectedException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String limiter;
+  private final Duration retryAfter;
+
+  public LimiterRejectedException(String limiter, Duration retryAfter) {
+    super("Concurrency limit reached for " + limiter);
+    this.limiter = limiter;
+    this.retryAfter = retryAfter;
+  }
+
+  public String limiter() {
+    return limiter;
+  }
+
+  public Duration retryAfter() {
+    return retryAfter;
+  }
+}
@@ -0,0 +1,20 @@
+package com.yourapp.ai.concurrency;
+
+/**
+ * The caller a model call is scheduled for: the tenant whose share it consumes (JWT subject or
+ * client id) and its work class, which sets its priority.
+ */
+public record TenantFlow(String tenant, String workClass) {
+
+  public static final String ANONYMOUS = "anonymous";
+  public static final String INTERACTIVE = "interactive";
+  public static final String STANDARD = "standard";
+  public static final String BULK = "bulk";
+
+  public static final TenantFlow DEFAULT = new TenantFlow(ANONYMOUS, STANDARD);
+
+  public TenantFlow {
+    tenant = tenant == null || tenant.isBlank() ? ANONYMOUS : tenant;
+    workClass = workClass == null || workClass.isBlank() ? STANDARD : workClass;
+  }
+}
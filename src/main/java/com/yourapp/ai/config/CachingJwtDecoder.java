@@ -0,0 +1,105 @@
+package com.yourapp.ai.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Remembers tokens the delegate has already validated, so a client that sends the same bearer
+ * token on many calls pays for signature verification and claim validation once.
+ *
+ * <p>Entries are keyed by the SHA-256 of the raw token (the token itself is never held as a key)
+ * and expire at the token's {@code exp}, or after {@code maxTtl} if that is sooner. Rejected
+ * tokens are not cached. At most {@code maxEntries} tokens are held; when full, expired entries
+ * are purged first and then arbitrary ones.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+  private record Entry(Jwt jwt, Instant expiresAt) {}
+
+  private final JwtDecoder delegate;
+  private final int maxEntries;
+  private final Duration maxTtl;
+  private final Map<String, Entry> validated = new ConcurrentHashMap<>();
+  private final Counter hits;
+  private final Counter misses;
+
+  public CachingJwtDecoder(JwtDecoder delegate, int maxEntries, Duration maxTtl, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.maxEntries = maxEntries;
+    this.maxTtl = maxTtl;
+    this.hits = Counter.builder("agent.jwt.cache")
+        .description("Bearer tokens served from the validated-token cache")
+        .tag("result", "hit")
+        .register(meterRegistry);
+    this.misses = Counter.builder("agent.jwt.cache")
+        .description("Bearer tokens served from the validated-token cache")
+        .tag("result", "miss")
+        .register(meterRegistry);
+    Gauge.builder("agent.jwt.cache.size", validated, Map::size)
+        .description("Validated tokens currently cached")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Jwt decode(String token) throws JwtException {
+    if (maxEntries <= 0) {
+      return delegate.decode(token);
+    }
+    String key = hash(token);
+    Instant now = Instant.now();
+    Entry entry = validated.get(key);
+    if (entry != null) {
+      if (entry.expiresAt().isAfter(now)) {
+        hits.increment();
+        return entry.jwt();
+      }
+      validated.remove(key, entry);
+    }
+
+    misses.increment();
+    Jwt jwt = delegate.decode(token);
+    Instant expiresAt = now.plus(maxTtl);
+    if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+      expiresAt = jwt.getExpiresAt();
+    }
+    if (expiresAt.isAfter(now)) {
+      makeRoom(now);
+      validated.put(key, new Entry(jwt, expiresAt));
+    }
+    return jwt;
+  }
+
+  private void makeRoom(Instant now) {
+    if (validated.size() < maxEntries) {
+      return;
+    }
+    validated.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+    Iterator<String> keys = validated.keySet().iterator();
+    while (validated.size() >= maxEntries && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
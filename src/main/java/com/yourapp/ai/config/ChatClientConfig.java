@@ -1,8 +1,14 @@
 package com.yourapp.ai.config;
 
+import com.yourapp.ai.agent.AgentOrchestrator;
+import com.yourapp.ai.memory.MemoryStore;
+import com.yourapp.ai.ollama.OllamaPools;
+import java.time.Duration;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.ollama.OllamaChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.ollama.api.OllamaChatOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,19 +18,60 @@ public class ChatClientConfig {
 
     @Bean(name = "plannerChatClient")
     public ChatClient plannerChatClient(
-            OllamaChatModel chatModel,
-            @Value("${app.models.planner:llama3.2:3b}") String plannerModel) {
-        return ChatClient.builder(chatModel)
-                .defaultOptions(OllamaChatOptions.builder().model(plannerModel).build())
+            ChatModel chatModel,
+            OllamaPools pools,
+            @Value("${app.models.planner:llama3.2:3b}") String plannerModel,
+            @Value("${app.models.keep-alive:30m}") String keepAlive) {
+        return ChatClient.builder(pools.chatModel(OllamaPools.PLANNER, chatModel))
+                .defaultOptions(OllamaChatOptions.builder()
+                        .model(plannerModel)
+                        .keepAlive(keepAlive)
+                        .build())
                 .build();
     }
 
     @Bean(name = "answerChatClient")
     public ChatClient answerChatClient(
-            OllamaChatModel chatModel,
-            @Value("${app.models.answer:mistral:7b-instruct}") String answerModel) {
-        return ChatClient.builder(chatModel)
-                .defaultOptions(OllamaChatOptions.builder().model(answerModel).build())
+            ChatModel chatModel,
+            OllamaPools pools,
+            @Value("${app.models.answer:mistral:7b-instruct}") String answerModel,
+            @Value("${app.models.keep-alive:30m}") String keepAlive) {
+        return ChatClient.builder(pools.chatModel(OllamaPools.ANSWER, chatModel))
+                .defaultOptions(OllamaChatOptions.builder()
+                        .model(answerModel)
+                        .keepAlive(keepAlive)
+                        .build())
                 .build();
     }
+
+    @Bean
+    public ModelWarmup modelWarmup(
+            @Qualifier("plannerChatClient") ChatClient plannerChatClient,
+            @Qualifier("answerChatClient") ChatClient answerChatClient,
+            EmbeddingModel embeddingModel,
+            AgentOrchestrator agent,
+            MemoryStore memoryStore,
+            OllamaPools pools,
+            @Value("${app.models.planner:llama3.2:3b}") String plannerModel,
+            @Value("${app.models.answer:mistral:7b-instruct}") String answerModel,
+            @Value("${app.models.keep-alive:30m}") String keepAlive,
+            @Value("${app.warmup.iterations:2}") int iterations,
+            @Value("${app.warmup.max-attempts:0}") int maxAttempts,
+            @Value("${app.warmup.max-backoff:60s}") Duration maxBackoff,
+            @Value("${app.warmup.enabled:true}") boolean enabled) {
+        return new ModelWarmup(
+                plannerChatClient,
+                answerChatClient,
+                embeddingModel,
+                agent,
+                memoryStore,
+                pools,
+                plannerModel,
+                answerModel,
+                keepAlive,
+                iterations,
+                maxAttempts,
+                maxBackoff,
+                enabled);
+    }
 }
@@ -0,0 +1,56 @@
+package com.yourapp.ai.config;
+
+import com.yourapp.ai.concurrency.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Circuit breakers in front of the planner and answer models ({@code app.breakers.<name>.*}).
+ * They sit outside the limiters, so an open breaker fails a request before it queues for a permit.
+ *
+ * <p>A call cut off by the request deadline only counts as slow once it ran past
+ * {@code slow-call-threshold}. A model call starts after the stages before it have used part of
+ * {@code app.deadline.default}, so the threshold has to stay well below that deadline, or a hung
+ * model would never be recorded as slow.
+ */
+@Configuration
+public class CircuitBreakerConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(CircuitBreakerConfig.class);
+
+  @Bean(name = "plannerBreaker")
+  public CircuitBreaker plannerBreaker(Environment env, MeterRegistry meterRegistry) {
+    return breaker("planner", env, meterRegistry, Duration.ofSeconds(10));
+  }
+
+  @Bean(name = "answerBreaker")
+  public CircuitBreaker answerBreaker(Environment env, MeterRegistry meterRegistry) {
+    return breaker("answer", env, meterRegistry, Duration.ofSeconds(10));
+  }
+
+  private static CircuitBreaker breaker(
+      String name, Environment env, MeterRegistry meterRegistry, Duration slowCallThreshold) {
+    String prefix = "app.breakers." + name + ".";
+    Duration slow = env.getProperty(prefix + "slow-call-threshold", Duration.class, slowCallThreshold);
+    Duration deadline = env.getProperty("app.deadline.default", Duration.class, Duration.ofSeconds(30));
+    if (slow.compareTo(deadline.dividedBy(2)) > 0) {
+      log.warn("{}slow-call-threshold {} is more than half of app.deadline.default {}; calls cut off by"
+          + " the deadline will rarely count as slow, so a hung model may never open the breaker",
+          prefix, slow, deadline);
+    }
+    return new CircuitBreaker(
+        name,
+        env.getProperty(prefix + "window-size", Integer.class, 20),
+        env.getProperty(prefix + "minimum-calls", Integer.class, 10),
+        env.getProperty(prefix + "failure-rate-threshold", Double.class, 0.5),
+        slow,
+        env.getProperty(prefix + "open-duration", Duration.class, Duration.ofSeconds(30)),
+        env.getProperty(prefix + "half-open-calls", Integer.class, 2),
+        meterRegistry);
+  }
+}
@@ -0,0 +1,78 @@
+package com.yourapp.ai.config;
+
+import com.yourapp.ai.concurrency.AdaptiveConcurrencyLimiter;
+import com.yourapp.ai.concurrency.FairSharePolicy;
+import com.yourapp.ai.concurrency.TenantFlow;
+import com.yourapp.ai.observability.PipelineContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Model limiters. All three share one {@link FairSharePolicy} ({@code app.scheduling.*}) and take
+ * the tenant and work class of each call from the request's {@link PipelineContext}.
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+  @Bean
+  public FairSharePolicy fairSharePolicy(Environment env) {
+    Binder binder = Binder.get(env);
+    Map<String, Double> classWeights = binder
+        .bind("app.scheduling.class-weights", Bindable.mapOf(String.class, Double.class))
+        .orElse(Map.of(TenantFlow.INTERACTIVE, 8.0, TenantFlow.STANDARD, 4.0, TenantFlow.BULK, 1.0));
+    Map<String, Double> tenantWeights = binder
+        .bind("app.scheduling.tenant-weights", Bindable.mapOf(String.class, Double.class))
+        .orElse(Map.of());
+    return new FairSharePolicy(
+        classWeights,
+        tenantWeights,
+        env.getProperty("app.scheduling.max-queued-per-tenant", Integer.class, 8),
+        env.getProperty("app.scheduling.max-tenant-tags", Integer.class, 100));
+  }
+
+  @Bean(name = "plannerLimiter")
+  public AdaptiveConcurrencyLimiter plannerLimiter(
+      Environment env, FairSharePolicy policy, MeterRegistry meterRegistry) {
+    return limiter("planner", env, policy, meterRegistry);
+  }
+
+  @Bean(name = "answerLimiter")
+  public AdaptiveConcurrencyLimiter answerLimiter(
+      Environment env, FairSharePolicy policy, MeterRegistry meterRegistry) {
+    return limiter("answer", env, policy, meterRegistry);
+  }
+
+  @Bean(name = "embeddingLimiter")
+  public AdaptiveConcurrencyLimiter embeddingLimiter(
+      Environment env, FairSharePolicy policy, MeterRegistry meterRegistry) {
+    return limiter("embedding", env, policy, meterRegistry);
+  }
+
+  private static TenantFlow currentFlow() {
+    PipelineContext context = PipelineContext.current();
+    return context == null ? TenantFlow.DEFAULT : new TenantFlow(context.tenant(), context.workClass());
+  }
+
+  private static AdaptiveConcurrencyLimiter limiter(
+      String name, Environment env, FairSharePolicy policy, MeterRegistry meterRegistry) {
+    String prefix = "app.limits." + name + ".";
+    return new AdaptiveConcurrencyLimiter(
+        name,
+        env.getProperty(prefix + "initial-limit", Integer.class, 4),
+        env.getProperty(prefix + "min-limit", Integer.class, 1),
+        env.getProperty(prefix + "max-limit", Integer.class, 32),
+        env.getProperty(prefix + "max-queue-depth", Integer.class, 16),
+        env.getProperty(prefix + "max-queue-wait", Duration.class, Duration.ofSeconds(2)),
+        env.getProperty(prefix + "latency-tolerance", Double.class, 2.0),
+        env.getProperty(prefix + "backoff-ratio", Double.class, 0.9),
+        policy,
+        ConcurrencyLimitConfig::currentFlow,
+        meterRegistry);
+  }
+}
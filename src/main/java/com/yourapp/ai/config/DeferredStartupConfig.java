@@ -0,0 +1,62 @@
+package com.yourapp.ai.config;
+
+import com.yourapp.ai.observability.DeferredSpanExporter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporterBuilder;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * {@code app.startup.defer-otlp}: the OTLP span exporter is created once the node accepts
+ * traffic rather than during context startup. Set {@code management.otlp.tracing.export.enabled}
+ * to {@code false} alongside it, so Spring Boot does not create its own exporter; the deferred
+ * one reads the same {@code management.otlp.tracing.endpoint}, {@code timeout} and
+ * {@code headers}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.startup.defer-otlp", havingValue = "true")
+public class DeferredStartupConfig {
+
+  @Bean
+  DeferredSpanExporter deferredOtlpSpanExporter(Environment environment, MeterRegistry meterRegistry) {
+    String endpoint = environment.getProperty(
+        "management.otlp.tracing.endpoint", "http://localhost:4318/v1/traces");
+    Duration timeout = environment.getProperty(
+        "management.otlp.tracing.timeout", Duration.class, Duration.ofSeconds(10));
+    Map<String, String> headers = Binder.get(environment)
+        .bind("management.otlp.tracing.headers", Bindable.mapOf(String.class, String.class))
+        .orElse(Map.of());
+    DeferredSpanExporter exporter = new DeferredSpanExporter(() -> {
+      OtlpHttpSpanExporterBuilder builder = OtlpHttpSpanExporter.builder()
+          .setEndpoint(endpoint)
+          .setTimeout(timeout);
+      headers.forEach(builder::addHeader);
+      return builder.build();
+    });
+    FunctionCounter.builder("agent.startup.spans.dropped", exporter, DeferredSpanExporter::dropped)
+        .description("Spans ended before the OTLP exporter was started")
+        .register(meterRegistry);
+    return exporter;
+  }
+
+  @Bean
+  ApplicationListener<AvailabilityChangeEvent<?>> startDeferredOtlpExporter(DeferredSpanExporter exporter) {
+    // Wildcard, not ReadinessState: a lambda listener also receives liveness changes.
+    return event -> {
+      if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+        exporter.start();
+      }
+    };
+  }
+}
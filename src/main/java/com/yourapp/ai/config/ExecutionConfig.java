@@ -0,0 +1,106 @@
+package com.yourapp.ai.config;
+
+import com.yourapp.ai.observability.PipelineContextAccessor;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.context.integration.Slf4jThreadLocalAccessor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Executor for orchestrator stages that can run concurrently (retrieval and tool calls).
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true} Tomcat request handling and these stages
+ * run on virtual threads; otherwise stages use a bounded platform pool that falls back to the
+ * calling thread when saturated. The executor propagates tracing context, the request id MDC and
+ * the {@code PipelineContext}.
+ * The reactive pipeline schedules its blocking stages (JDBC retrieval, tools) on the same
+ * executor through {@code stageScheduler}.
+ *
+ * <p>{@code summaryExecutor} runs background conversation summarization. It is small and rejects
+ * work when its queue is full: a skipped compaction is retried on the conversation's next turn.
+ *
+ * <p>{@code hedgeExecutor} runs the attempts of hedged Ollama calls. Attempts block on HTTP for
+ * their whole duration and are cancelled by interrupt, so each gets its own virtual thread.
+ *
+ * <p>{@code modelCallExecutor} runs deadline-bound planner and answer calls for the same reason.
+ * Their callers often run on {@code stageExecutor} themselves (the batch path plans there), so
+ * submitting the call back to that bounded pool could leave every stage thread waiting on work
+ * queued behind it.
+ */
+@Configuration
+public class ExecutionConfig {
+
+  @Bean(name = "stageExecutor", destroyMethod = "shutdown")
+  public ExecutorService stageExecutor(
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+      @Value("${app.execution.stage-pool-size:32}") int poolSize) {
+    ContextRegistry.getInstance()
+        .registerThreadLocalAccessor(new Slf4jThreadLocalAccessor("requestId"))
+        .registerThreadLocalAccessor(new PipelineContextAccessor());
+
+    ExecutorService delegate;
+    if (virtualThreads) {
+      delegate = Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("agent-stage-", 0).factory());
+    } else {
+      delegate = new ThreadPoolExecutor(
+          poolSize,
+          poolSize,
+          60,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(poolSize * 4),
+          Thread.ofPlatform().name("agent-stage-", 0).daemon(true).factory(),
+          new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    return ContextExecutorService.wrap(
+        delegate, () -> ContextSnapshotFactory.builder().build().captureAll());
+  }
+
+  @Bean(name = "stageScheduler")
+  public Scheduler stageScheduler(@Qualifier("stageExecutor") ExecutorService stageExecutor) {
+    return Schedulers.fromExecutorService(stageExecutor, "agent-stage");
+  }
+
+  @Bean(name = "summaryExecutor", destroyMethod = "shutdown")
+  public ExecutorService summaryExecutor(
+      @Value("${app.memory.history.summary-threads:1}") int threads,
+      @Value("${app.memory.history.summary-queue:64}") int queue) {
+    ExecutorService delegate = new ThreadPoolExecutor(
+        threads,
+        threads,
+        60,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(queue),
+        Thread.ofPlatform().name("agent-summary-", 0).daemon(true).factory(),
+        new ThreadPoolExecutor.AbortPolicy());
+    return ContextExecutorService.wrap(
+        delegate, () -> ContextSnapshotFactory.builder().build().captureAll());
+  }
+
+  @Bean(name = "hedgeExecutor", destroyMethod = "shutdown")
+  public ExecutorService hedgeExecutor() {
+    ExecutorService delegate = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("ollama-hedge-", 0).factory());
+    return ContextExecutorService.wrap(
+        delegate, () -> ContextSnapshotFactory.builder().build().captureAll());
+  }
+
+  @Bean(name = "modelCallExecutor", destroyMethod = "shutdown")
+  public ExecutorService modelCallExecutor() {
+    ExecutorService delegate = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("model-call-", 0).factory());
+    return ContextExecutorService.wrap(
+        delegate, () -> ContextSnapshotFactory.builder().build().captureAll());
+  }
+}
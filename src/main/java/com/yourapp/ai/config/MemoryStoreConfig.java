@@ -1,28 +1,71 @@
 package com.yourapp.ai.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourapp.ai.memory.BinaryMemoryCodec;
+import com.yourapp.ai.memory.BlockingReactiveMemoryStore;
 import com.yourapp.ai.memory.InMemoryMemoryStore;
+import com.yourapp.ai.memory.JsonMemoryCodec;
+import com.yourapp.ai.memory.MemoryCodec;
+import com.yourapp.ai.memory.MemoryCodecs;
 import com.yourapp.ai.memory.MemoryStore;
+import com.yourapp.ai.memory.ReactiveMemoryStore;
+import com.yourapp.ai.memory.ReactiveRedisMemoryStore;
 import com.yourapp.ai.memory.RedisMemoryStore;
+import com.yourapp.ai.memory.WriteBehindMemoryStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import reactor.core.scheduler.Scheduler;
 
 @Configuration
 public class MemoryStoreConfig {
 
+  @Bean
+  public JsonMemoryCodec jsonMemoryCodec(ObjectMapper mapper) {
+    return new JsonMemoryCodec(mapper);
+  }
+
+  @Bean
+  public BinaryMemoryCodec binaryMemoryCodec(
+      ObjectMapper mapper,
+      @Value("${app.memory.codec.compression-threshold:1024}") int compressionThreshold) {
+    return new BinaryMemoryCodec(mapper, compressionThreshold);
+  }
+
+  /** Every {@link MemoryCodec} bean can be read; {@code app.memory.codec.format} is written. */
+  @Bean
+  public MemoryCodecs memoryCodecs(
+      List<MemoryCodec> codecs,
+      @Value("${app.memory.codec.format:json}") String format) {
+    return new MemoryCodecs(format, codecs);
+  }
+
   @Bean
   @ConditionalOnProperty(name = "app.memory.store", havingValue = "redis")
   public MemoryStore redisMemoryStore(
       StringRedisTemplate redisTemplate,
-      ObjectMapper mapper,
+      MemoryCodecs codecs,
+      MeterRegistry meterRegistry,
       @Value("${app.memory.redis-ttl:PT30M}") Duration ttl,
-      @Value("${app.memory.redis-key-prefix:memory:}") String keyPrefix) {
-    return new RedisMemoryStore(redisTemplate, mapper, ttl, keyPrefix);
+      @Value("${app.memory.redis-key-prefix:memory:}") String keyPrefix,
+      @Value("${app.memory.write-behind.enabled:false}") boolean writeBehind,
+      @Value("${app.memory.write-behind.max-pending:10000}") int maxPending,
+      @Value("${app.memory.write-behind.batch-size:100}") int batchSize,
+      @Value("${app.memory.write-behind.flush-interval:PT0.05S}") Duration flushInterval) {
+    MemoryStore redis = new RedisMemoryStore(redisTemplate, codecs, ttl, keyPrefix);
+    if (!writeBehind) {
+      return redis;
+    }
+    return new WriteBehindMemoryStore(redis, maxPending, batchSize, flushInterval, meterRegistry);
   }
 
   @Bean
@@ -30,4 +73,26 @@ public class MemoryStoreConfig {
   public MemoryStore inMemoryMemoryStore() {
     return new InMemoryMemoryStore();
   }
+
+  /**
+   * With write-behind on, {@code /chat/stream} goes through the blocking store as well, so both
+   * endpoints see the queued writes.
+   */
+  @Bean
+  @ConditionalOnExpression("'${app.memory.store:}' == 'redis' && !${app.memory.write-behind.enabled:false}")
+  public ReactiveMemoryStore reactiveRedisMemoryStore(
+      ReactiveStringRedisTemplate redisTemplate,
+      MemoryCodecs codecs,
+      @Value("${app.memory.redis-ttl:PT30M}") Duration ttl,
+      @Value("${app.memory.redis-key-prefix:memory:}") String keyPrefix) {
+    return new ReactiveRedisMemoryStore(redisTemplate, codecs, ttl, keyPrefix);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(ReactiveMemoryStore.class)
+  public ReactiveMemoryStore blockingReactiveMemoryStore(
+      MemoryStore memoryStore,
+      @Qualifier("stageScheduler") Scheduler stageScheduler) {
+    return new BlockingReactiveMemoryStore(memoryStore, stageScheduler);
+  }
 }
@@ -0,0 +1,211 @@
+package com.yourapp.ai.config;
+
+import com.yourapp.ai.agent.AgentOrchestrator;
+import com.yourapp.ai.memory.ConversationMemory;
+import com.yourapp.ai.memory.MemoryStore;
+import com.yourapp.ai.ollama.OllamaPools;
+import com.yourapp.ai.ollama.PooledChatModel;
+import java.time.Duration;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.ollama.api.OllamaChatOptions;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Preloads the Ollama models and exercises the agent pipeline once the application is up.
+ *
+ * <p>Roles served by an Ollama pool are preloaded on every host of the pool, not just the one
+ * the router picks.
+ *
+ * <p>Registered as a health indicator that is part of the readiness group, so the node reports
+ * OUT_OF_SERVICE until every model is resident and the hot paths have been run a few times.
+ * A failed warm-up is retried with exponential backoff capped at {@code app.warmup.max-backoff},
+ * so a node that started before Ollama was reachable becomes ready once it is. With a positive
+ * {@code app.warmup.max-attempts} it gives up after that many attempts and reports DOWN.
+ */
+public class ModelWarmup implements HealthIndicator, ApplicationListener<ApplicationReadyEvent> {
+
+  private static final Logger log = LoggerFactory.getLogger(ModelWarmup.class);
+  private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(2);
+
+  private static final List<String> SYNTHETIC_QUESTIONS = List.of(
+      "Can I return a damaged item?",
+      "What is the status of order 12345?",
+      "What is the refund timing for damaged items and what is the status of order 67890?");
+
+  enum State { PENDING, RUNNING, READY, FAILED }
+
+  private final ChatClient plannerChatClient;
+  private final ChatClient answerChatClient;
+  private final EmbeddingModel embeddingModel;
+  private final AgentOrchestrator agent;
+  private final MemoryStore memoryStore;
+  private final OllamaPools pools;
+  private final String plannerModel;
+  private final String answerModel;
+  private final String keepAlive;
+  private final int iterations;
+  private final int maxAttempts;
+  private final Duration maxBackoff;
+  private final boolean enabled;
+
+  private volatile State state;
+  private volatile String lastError;
+  private volatile long durationMs;
+  private volatile int attempts;
+
+  public ModelWarmup(
+      ChatClient plannerChatClient,
+      ChatClient answerChatClient,
+      EmbeddingModel embeddingModel,
+      AgentOrchestrator agent,
+      MemoryStore memoryStore,
+      OllamaPools pools,
+      String plannerModel,
+      String answerModel,
+      String keepAlive,
+      int iterations,
+      int maxAttempts,
+      Duration maxBackoff,
+      boolean enabled) {
+    this.plannerChatClient = plannerChatClient;
+    this.answerChatClient = answerChatClient;
+    this.embeddingModel = embeddingModel;
+    this.agent = agent;
+    this.memoryStore = memoryStore;
+    this.pools = pools;
+    this.plannerModel = plannerModel;
+    this.answerModel = answerModel;
+    this.keepAlive = keepAlive;
+    this.iterations = iterations;
+    this.maxAttempts = Math.max(0, maxAttempts);
+    this.maxBackoff = maxBackoff.compareTo(INITIAL_BACKOFF) < 0 ? INITIAL_BACKOFF : maxBackoff;
+    this.enabled = enabled;
+    this.state = enabled ? State.PENDING : State.READY;
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    if (!enabled || state != State.PENDING) {
+      return;
+    }
+    state = State.RUNNING;
+    Thread worker = new Thread(this::warmUpWithRetries, "model-warmup");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @Override
+  public Health health() {
+    Health.Builder builder = switch (state) {
+      case READY -> Health.up();
+      case FAILED -> Health.down();
+      default -> Health.outOfService();
+    };
+    builder.withDetail("state", state.name());
+    if (durationMs > 0) {
+      builder.withDetail("durationMs", durationMs);
+    }
+    if (attempts > 0) {
+      builder.withDetail("attempts", attempts);
+    }
+    if (lastError != null) {
+      builder.withDetail("error", lastError);
+    }
+    return builder.build();
+  }
+
+  /** Retries until warm-up succeeds or {@code maxAttempts} (0 = unlimited) is reached. */
+  private void warmUpWithRetries() {
+    long startNanos = System.nanoTime();
+    Duration backoff = INITIAL_BACKOFF;
+    for (int attempt = 1; maxAttempts == 0 || attempt <= maxAttempts; attempt++) {
+      attempts = attempt;
+      try {
+        warmUp();
+        durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        lastError = null;
+        state = State.READY;
+        log.info("Model warm-up completed durationMs={} attempts={}", durationMs, attempt);
+        return;
+      } catch (Exception e) {
+        lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (attempt == maxAttempts) {
+          log.error("Model warm-up attempt {}/{} failed; giving up", attempt, maxAttempts, e);
+          break;
+        }
+        log.warn("Model warm-up attempt {} failed; retrying in {}", attempt, backoff, e);
+        if (!sleep(backoff)) {
+          return;
+        }
+        Duration next = backoff.multipliedBy(2);
+        backoff = next.compareTo(maxBackoff) > 0 ? maxBackoff : next;
+      }
+    }
+    state = State.FAILED;
+  }
+
+  private void warmUp() {
+    /* -------------------------------------------------
+     * 1. Load models into Ollama with keep-alive
+     * ------------------------------------------------- */
+    preload(plannerChatClient, OllamaPools.PLANNER, plannerModel);
+    preload(answerChatClient, OllamaPools.ANSWER, answerModel);
+    pools.embedding().ifPresentOrElse(
+        pooled -> pooled.pool().forEach(model -> model.embed("warm-up")),
+        () -> embeddingModel.embed("warm-up"));
+    log.info("Models preloaded planner={} answer={} keepAlive={}", plannerModel, answerModel, keepAlive);
+
+    /* -------------------------------------------------
+     * 2. Touch the memory store connection pool
+     * ------------------------------------------------- */
+    memoryStore.get("warmup");
+
+    /* -------------------------------------------------
+     * 3. Run synthetic requests through the full pipeline
+     * ------------------------------------------------- */
+    for (int i = 0; i < iterations; i++) {
+      for (String question : SYNTHETIC_QUESTIONS) {
+        agent.run(question, new ConversationMemory());
+      }
+    }
+  }
+
+  private void preload(ChatClient chatClient, String role, String model) {
+    PooledChatModel pooled = pools.chatModels().get(role);
+    if (pooled == null) {
+      preload(chatClient, model);
+    } else {
+      pooled.pool().forEach(host -> preload(ChatClient.create(host), model));
+    }
+  }
+
+  private void preload(ChatClient chatClient, String model) {
+    chatClient.prompt()
+        .user("ping")
+        .options(OllamaChatOptions.builder()
+            .model(model)
+            .keepAlive(keepAlive)
+            .numPredict(1)
+            .build())
+        .call()
+        .content();
+  }
+
+  /** Returns {@code false} when interrupted, i.e. the application is shutting down. */
+  private static boolean sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.yourapp.ai.config;
+
+import com.yourapp.ai.observability.LegacyStageTimers;
+import com.yourapp.ai.observability.StageObserver;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Histogram and SLO buckets for the pipeline timers. {@code app.observability.slo.<stage>} sets
+ * the buckets for one stage (planner, answer, search, ..., or {@code pipeline} for whole
+ * requests); stages without an entry use {@code app.observability.slo.default}.
+ *
+ * <p>The pre-{@code agent.stage} timers ({@code agent.planner|answer|tool|retrieval.duration})
+ * are still recorded by {@link LegacyStageTimers} for one release.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+  @Bean
+  LegacyStageTimers legacyStageTimers(MeterRegistry meterRegistry) {
+    return new LegacyStageTimers(meterRegistry);
+  }
+
+  @Bean
+  MeterFilter pipelineHistogramFilter(Environment environment) {
+    Map<String, String> slo = Binder.get(environment)
+        .bind("app.observability.slo", Bindable.mapOf(String.class, String.class))
+        .orElse(Map.of());
+    boolean histogram = environment.getProperty(
+        "app.observability.percentiles-histogram", Boolean.class, true);
+
+    return new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (id.getType() != Meter.Type.TIMER) {
+          return config;
+        }
+        String stage;
+        if (StageObserver.STAGE_METRIC.equals(id.getName())) {
+          stage = id.getTag("stage");
+        } else if (StageObserver.PIPELINE_METRIC.equals(id.getName())) {
+          stage = "pipeline";
+        } else {
+          return config;
+        }
+        String buckets = slo.getOrDefault(stage, slo.get("default"));
+        return DistributionStatisticConfig.builder()
+            .percentilesHistogram(histogram)
+            .serviceLevelObjectives(parseBuckets(buckets))
+            .build()
+            .merge(config);
+      }
+    };
+  }
+
+  static double[] parseBuckets(String buckets) {
+    if (buckets == null || buckets.isBlank()) {
+      return null;
+    }
+    return Arrays.stream(buckets.split(","))
+        .map(String::trim)
+        .filter(value -> !value.isEmpty())
+        .map(DurationStyle::detectAndParse)
+        .mapToDouble(Duration::toNanos)
+        .sorted()
+        .toArray();
+  }
+}
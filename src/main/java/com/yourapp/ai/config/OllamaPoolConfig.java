@@ -0,0 +1,155 @@
+package com.yourapp.ai.config;
+
+import com.yourapp.ai.ollama.EndpointPool;
+import com.yourapp.ai.ollama.HedgePolicy;
+import com.yourapp.ai.ollama.OllamaPools;
+import com.yourapp.ai.ollama.PooledChatModel;
+import com.yourapp.ai.ollama.PooledEmbeddingModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.ollama.OllamaChatModel;
+import org.springframework.ai.ollama.OllamaEmbeddingModel;
+import org.springframework.ai.ollama.api.OllamaApi;
+import org.springframework.ai.ollama.api.OllamaChatOptions;
+import org.springframework.ai.ollama.api.OllamaEmbeddingOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Pools of Ollama hosts per model role, configured under {@code app.ollama.pools.<role>}
+ * ({@code planner}, {@code answer}, {@code embedding}).
+ *
+ * <p>A role with endpoints gets an {@link EndpointPool} of per-host models; a role without them
+ * keeps the single {@code spring.ai.ollama.base-url} model. Per-host models do not retry: the
+ * pool fails over to another host instead. Hedging is on by default for the planner and
+ * embedding roles, whose calls are short enough that a duplicate is cheap.
+ */
+@Configuration
+public class OllamaPoolConfig {
+
+  private static final String PREFIX = "app.ollama.pools.";
+
+  @Bean
+  public OllamaPools ollamaPools(
+      Environment env,
+      ObjectProvider<RestClient.Builder> restClientBuilder,
+      ObjectProvider<WebClient.Builder> webClientBuilder,
+      ObjectProvider<ObservationRegistry> observationRegistry,
+      @Qualifier("hedgeExecutor") ExecutorService hedgeExecutor,
+      MeterRegistry meterRegistry) {
+    ObservationRegistry observations = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+    Function<String, OllamaApi> api = url -> OllamaApi.builder()
+        .baseUrl(url)
+        .restClientBuilder(restClientBuilder.getIfAvailable(RestClient::builder))
+        .webClientBuilder(webClientBuilder.getIfAvailable(WebClient::builder))
+        .build();
+    RetryTemplate noRetry = RetryTemplate.builder().maxAttempts(1).build();
+
+    OllamaChatOptions chatOptions = OllamaChatOptions.builder()
+        .model(env.getProperty("spring.ai.ollama.chat.options.model", "mistral:7b-instruct"))
+        .temperature(env.getProperty("spring.ai.ollama.chat.options.temperature", Double.class, 0.2))
+        .build();
+    Map<String, PooledChatModel> chatModels = new HashMap<>();
+    for (String role : List.of(OllamaPools.PLANNER, OllamaPools.ANSWER)) {
+      EndpointPool<ChatModel> pool = pool(role, env, hedgeExecutor, meterRegistry,
+          url -> OllamaChatModel.builder()
+              .ollamaApi(api.apply(url))
+              .defaultOptions(chatOptions.copy())
+              .observationRegistry(observations)
+              .retryTemplate(noRetry)
+              .build());
+      if (pool != null) {
+        chatModels.put(role, new PooledChatModel(pool));
+      }
+    }
+
+    OllamaEmbeddingOptions embeddingOptions = OllamaEmbeddingOptions.builder()
+        .model(env.getProperty("spring.ai.ollama.embedding.options.model", "nomic-embed-text"))
+        .keepAlive(env.getProperty("spring.ai.ollama.embedding.options.keep-alive", "30m"))
+        .build();
+    EndpointPool<EmbeddingModel> embeddingPool = pool(OllamaPools.EMBEDDING, env, hedgeExecutor,
+        meterRegistry,
+        url -> OllamaEmbeddingModel.builder()
+            .ollamaApi(api.apply(url))
+            .defaultOptions(embeddingOptions)
+            .observationRegistry(observations)
+            .build());
+    return new OllamaPools(
+        chatModels, embeddingPool == null ? null : new PooledEmbeddingModel(embeddingPool));
+  }
+
+  /** Replaces the auto-configured embedding model, so the vector store is pooled as well. */
+  @Bean
+  @Primary
+  @Conditional(EmbeddingPoolConfigured.class)
+  public EmbeddingModel pooledEmbeddingModel(OllamaPools pools) {
+    return pools.embedding().orElseThrow();
+  }
+
+  private static <M> EndpointPool<M> pool(
+      String role,
+      Environment env,
+      ExecutorService hedgeExecutor,
+      MeterRegistry meterRegistry,
+      Function<String, M> model) {
+    List<String> urls = endpoints(env, role);
+    if (urls.isEmpty()) {
+      return null;
+    }
+    List<EndpointPool.Endpoint<M>> endpoints = new ArrayList<>();
+    for (String url : urls) {
+      endpoints.add(new EndpointPool.Endpoint<>(url, model.apply(url)));
+    }
+    boolean hedgeByDefault = !OllamaPools.ANSWER.equals(role);
+    HedgePolicy hedge = new HedgePolicy(
+        env.getProperty(PREFIX + role + ".hedge.enabled", Boolean.class, hedgeByDefault),
+        env.getProperty(PREFIX + role + ".hedge.percentile", Double.class, 0.95),
+        env.getProperty(PREFIX + role + ".hedge.min-delay", Duration.class, Duration.ofMillis(50)),
+        env.getProperty(PREFIX + role + ".hedge.min-samples", Integer.class, 20));
+    return new EndpointPool<>(
+        role,
+        endpoints,
+        env.getProperty("app.ollama.eject-after-failures", Integer.class, 3),
+        env.getProperty("app.ollama.ejection-time", Duration.class, Duration.ofSeconds(30)),
+        hedge,
+        hedgeExecutor,
+        meterRegistry);
+  }
+
+  /** Accepts a YAML list or a comma-separated string; blank entries are ignored. */
+  private static List<String> endpoints(Environment env, String role) {
+    return Binder.get(env)
+        .bind(PREFIX + role + ".endpoints", Bindable.listOf(String.class))
+        .map(urls -> urls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList())
+        .orElse(List.of());
+  }
+
+  static class EmbeddingPoolConfigured implements Condition {
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+      return !endpoints(context.getEnvironment(), OllamaPools.EMBEDDING).isEmpty();
+    }
+  }
+}
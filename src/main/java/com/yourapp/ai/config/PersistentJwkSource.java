@@ -0,0 +1,177 @@
+package com.yourapp.ai.config;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JWK set source backed by a file on local disk, so neither startup nor a restart during an
+ * issuer outage waits on the JWKS endpoint.
+ *
+ * <p>The first lookup reads the file; the endpoint is only fetched when there is no file yet.
+ * Once the keys are older than {@code refreshInterval} they are re-fetched on a background thread
+ * while lookups keep using the current set. A token signed with an unknown {@code kid} (key
+ * rotation) triggers a synchronous fetch, at most once per {@code minFetchInterval}. Every
+ * successful fetch replaces the file atomically; a failed fetch keeps the last good keys.
+ *
+ * <p>With a {@code null} {@code jwksUri} the file is the only source, e.g. for a local key set.
+ *
+ * <p>Loads and fetches are serialized with a {@link ReentrantLock} rather than
+ * {@code synchronized}: a fetch blocks on HTTP, and a virtual thread blocked inside a monitor
+ * would pin its carrier thread for that long.
+ */
+public class PersistentJwkSource implements JWKSource<SecurityContext> {
+
+  private static final Logger log = LoggerFactory.getLogger(PersistentJwkSource.class);
+
+  private static final int TIMEOUT_MILLIS = 2000;
+  private static final int SIZE_LIMIT_BYTES = 512 * 1024;
+
+  private final URI jwksUri;
+  private final Path file;
+  private final Duration refreshInterval;
+  private final Duration minFetchInterval;
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private volatile JWKSet keys;
+  private volatile Instant loadedAt = Instant.EPOCH;
+  private volatile Instant lastFetchAttempt = Instant.EPOCH;
+
+  public PersistentJwkSource(URI jwksUri, Path file, Duration refreshInterval, Duration minFetchInterval) {
+    if (jwksUri == null && file == null) {
+      throw new IllegalArgumentException("Either a JWKS URI or a JWKS file is required");
+    }
+    this.jwksUri = jwksUri;
+    this.file = file;
+    this.refreshInterval = refreshInterval;
+    this.minFetchInterval = minFetchInterval;
+  }
+
+  @Override
+  public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+    JWKSet current = current();
+    List<JWK> matches = selector.select(current);
+    if (matches.isEmpty() && jwksUri != null && fetchAllowed()) {
+      log.info("No JWK matches the token header; re-fetching {}", jwksUri);
+      matches = selector.select(fetch());
+    }
+    return matches;
+  }
+
+  private JWKSet current() throws KeySourceException {
+    JWKSet current = keys;
+    if (current == null) {
+      lock.lock();
+      try {
+        current = keys;
+        if (current == null) {
+          current = readFile();
+          if (current == null) {
+            if (jwksUri == null) {
+              throw new KeySourceException("No JWK set at " + file);
+            }
+            current = fetch();
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    if (jwksUri != null && loadedAt.plus(refreshInterval).isBefore(Instant.now())) {
+      refreshInBackground();
+    }
+    return current;
+  }
+
+  private void refreshInBackground() {
+    if (!fetchAllowed() || !refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    Thread.ofVirtual().name("jwks-refresh").start(() -> {
+      try {
+        fetch();
+      } catch (KeySourceException e) {
+        log.warn("JWKS refresh failed; keeping keys loaded at {}", loadedAt, e);
+      } finally {
+        refreshing.set(false);
+      }
+    });
+  }
+
+  private boolean fetchAllowed() {
+    return lastFetchAttempt.plus(minFetchInterval).isBefore(Instant.now());
+  }
+
+  private JWKSet fetch() throws KeySourceException {
+    lock.lock();
+    try {
+      lastFetchAttempt = Instant.now();
+      JWKSet fetched;
+      try {
+        fetched = JWKSet.load(jwksUri.toURL(), TIMEOUT_MILLIS, TIMEOUT_MILLIS, SIZE_LIMIT_BYTES);
+      } catch (IOException | ParseException e) {
+        if (keys != null) {
+          log.warn("Failed to fetch JWKS from {}; keeping the current keys", jwksUri, e);
+          return keys;
+        }
+        throw new KeySourceException("Failed to fetch JWKS from " + jwksUri, e);
+      }
+      keys = fetched;
+      loadedAt = Instant.now();
+      writeFile(fetched);
+      return fetched;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private JWKSet readFile() {
+    if (file == null || !Files.exists(file)) {
+      return null;
+    }
+    try {
+      JWKSet read = JWKSet.parse(Files.readString(file, StandardCharsets.UTF_8));
+      keys = read;
+      // The file's age decides when the first background refresh runs.
+      loadedAt = Files.getLastModifiedTime(file).toInstant();
+      log.info("Loaded {} JWKs from {}", read.getKeys().size(), file);
+      return read;
+    } catch (IOException | ParseException e) {
+      log.warn("Ignoring unreadable JWKS cache {}", file, e);
+      return null;
+    }
+  }
+
+  private void writeFile(JWKSet fetched) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      Files.writeString(tmp, fetched.toString(true), StandardCharsets.UTF_8);
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // The keys are in memory; a missing file only costs a fetch on the next start.
+      log.warn("Failed to write JWKS cache {}", file, e);
+    }
+  }
+}
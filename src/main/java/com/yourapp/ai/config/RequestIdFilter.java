@@ -1,5 +1,6 @@
 package com.yourapp.ai.config;
 
+import com.yourapp.ai.observability.PipelineContext;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import jakarta.servlet.FilterChain;
@@ -35,6 +36,7 @@ public class RequestIdFilter extends OncePerRequestFilter {
     }
 
     MDC.put(MDC_KEY, requestId);
+    PipelineContext.bind(new PipelineContext(requestId));
     response.setHeader(REQUEST_ID_HEADER, requestId);
 
     Span span = tracer.currentSpan();
@@ -46,6 +48,7 @@ public class RequestIdFilter extends OncePerRequestFilter {
       filterChain.doFilter(request, response);
     } finally {
       MDC.remove(MDC_KEY);
+      PipelineContext.clear();
     }
   }
 }
@@ -1,17 +1,27 @@
 package com.yourapp.ai.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtDecoders;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.util.StringUtils;
 
@@ -19,9 +29,13 @@ import org.springframework.util.StringUtils;
 public class SecurityConfig {
 
   @Bean
-  SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+  SecurityFilterChain securityFilterChain(
+      HttpSecurity http,
+      @Value("${app.security.admin-scope:admin}") String adminScope) throws Exception {
     http.csrf(csrf -> csrf.disable())
         .authorizeHttpRequests(auth -> auth
+            .requestMatchers("/actuator/jfr", "/actuator/jfr/**", "/actuator/reindex")
+                .hasAuthority("SCOPE_" + adminScope)
             .requestMatchers("/actuator/**").permitAll()
             .requestMatchers("/chat/**").hasAuthority("SCOPE_chat:access")
             .anyRequest().authenticated()
@@ -30,12 +44,42 @@ public class SecurityConfig {
     return http.build();
   }
 
+  /**
+   * Verifies tokens against the issuer's keys from a {@link PersistentJwkSource} (no issuer
+   * metadata lookup; the JWKS URI is configured) and caches validated tokens until they expire.
+   * A blank {@code app.security.jwks.uri} makes the cache file the only key source.
+   */
   @Bean
   JwtDecoder jwtDecoder(
       @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuer,
-      @Value("${app.security.auth0.audience}") String audience) {
-    NimbusJwtDecoder decoder = JwtDecoders.fromIssuerLocation(issuer);
-    decoder.setJwtValidator(new AudienceValidator(audience));
+      @Value("${app.security.auth0.audience}") String audience,
+      @Value("${app.security.jwks.uri}") String jwksUri,
+      @Value("${app.security.jwks.cache-file:}") String cacheFile,
+      @Value("${app.security.jwks.refresh-interval:PT1H}") Duration refreshInterval,
+      @Value("${app.security.jwks.min-fetch-interval:PT30S}") Duration minFetchInterval,
+      @Value("${app.security.token-cache.max-entries:10000}") int maxEntries,
+      @Value("${app.security.token-cache.max-ttl:PT10M}") Duration maxTtl,
+      MeterRegistry meterRegistry) {
+    JWKSource<SecurityContext> keys = new PersistentJwkSource(
+        jwksUri.isBlank() ? null : URI.create(jwksUri),
+        cacheFile.isBlank() ? null : Path.of(cacheFile),
+        refreshInterval,
+        minFetchInterval);
+    return new CachingJwtDecoder(verifyingDecoder(keys, issuer, audience), maxEntries, maxTtl, meterRegistry);
+  }
+
+  /** RS256 signature check plus expiry, issuer and audience validation. */
+  public static NimbusJwtDecoder verifyingDecoder(
+      JWKSource<SecurityContext> keys, String issuer, String audience) {
+    DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+    processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keys));
+    // Claims are checked by the Spring validators below, as NimbusJwtDecoder's builders do.
+    processor.setJWTClaimsSetVerifier((claims, context) -> {
+    });
+    NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+    decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+        JwtValidators.createDefaultWithIssuer(issuer),
+        new AudienceValidator(audience)));
     return decoder;
   }
 
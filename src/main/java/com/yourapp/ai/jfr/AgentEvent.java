@@ -0,0 +1,37 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base for the pipeline's Flight Recorder events. One event is emitted per pipeline stage by
+ * {@code Stage}, spanning the same interval as the stage's span and timer. Stack traces are off
+ * to keep the per-event cost to a timestamp pair and a buffer write.
+ */
+@Category({"Agent", "Pipeline"})
+@StackTrace(false)
+public abstract class AgentEvent extends Event {
+
+  @Label("Stage")
+  public String stage;
+
+  @Label("Request Id")
+  public String requestId;
+
+  @Label("Conversation Hash")
+  @Description("Truncated SHA-256 of the conversation id")
+  public String conversationHash;
+
+  @Label("Outcome")
+  public String outcome;
+
+  @Label("Model")
+  public String model;
+
+  @Label("Plan")
+  @Description("none, retrieval, tool or both")
+  public String plan;
+}
@@ -0,0 +1,25 @@
+package com.yourapp.ai.jfr;
+
+public final class AgentEvents {
+
+  private AgentEvents() {
+  }
+
+  /** A new, not yet begun event for {@code stage}. */
+  public static AgentEvent forStage(String stage) {
+    AgentEvent event = switch (stage) {
+      case "pipeline" -> new PipelineEvent();
+      case "planner" -> new PlanEvent();
+      case "retrieval" -> new RetrievalEvent();
+      case "search" -> new SimilaritySearchEvent();
+      case "tool" -> new ToolEvent();
+      case "answer" -> new AnswerEvent();
+      case "memory.get", "memory.put" -> new MemoryEvent();
+      default -> new StageEvent();
+    };
+    event.stage = stage;
+    event.model = "none";
+    event.plan = "none";
+    return event;
+  }
+}
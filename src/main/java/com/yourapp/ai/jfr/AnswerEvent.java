@@ -0,0 +1,21 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.yourapp.ai.Answer")
+@Label("Agent Answer")
+public class AnswerEvent extends AgentEvent {
+
+  @Label("Prompt Characters")
+  public long promptChars;
+
+  @Label("Completion Characters")
+  public long completionChars;
+
+  @Label("Total Tokens")
+  public long totalTokens;
+
+  @Label("Degraded")
+  public boolean degraded;
+}
@@ -0,0 +1,186 @@
+package com.yourapp.ai.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/jfr}: starts, lists, dumps and stops Flight Recorder recordings on a running
+ * instance, so the {@code com.yourapp.ai.*} events can be captured around a slow period without a
+ * restart or shell access. Recordings are bounded by {@code app.jfr.max-age} and
+ * {@code app.jfr.max-recordings}. A dump is written under {@code app.jfr.dump-dir}, streamed to
+ * the caller and deleted once sent; a dump whose response never completed is deleted by the next
+ * one.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+  private static final String NAME_PREFIX = "agent-";
+  private static final int STATUS_CONFLICT = 409;
+  private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+  private static final String DUMP_SUFFIX = ".jfr";
+
+  private final Path dumpDir;
+  private final Duration maxAge;
+  private final Duration maxDuration;
+  private final int maxRecordings;
+
+  public JfrEndpoint(
+      @Value("${app.jfr.dump-dir:${java.io.tmpdir}/agent-jfr}") Path dumpDir,
+      @Value("${app.jfr.max-age:10m}") Duration maxAge,
+      @Value("${app.jfr.max-duration:30m}") Duration maxDuration,
+      @Value("${app.jfr.max-recordings:2}") int maxRecordings) {
+    this.dumpDir = dumpDir;
+    this.maxAge = maxAge;
+    this.maxDuration = maxDuration;
+    this.maxRecordings = maxRecordings;
+  }
+
+  @ReadOperation
+  public List<Map<String, Object>> recordings() {
+    return ownRecordings().stream().map(JfrEndpoint::describe).toList();
+  }
+
+  /**
+   * Starts a recording. {@code settings} is a JDK configuration name ({@code default}, the
+   * low-overhead one, or {@code profile}); {@code duration} is capped at {@code app.jfr.max-duration};
+   * {@code name} may use letters, digits, {@code _} and {@code -}.
+   */
+  @WriteOperation
+  public WebEndpointResponse<Map<String, Object>> start(
+      @Nullable String settings, @Nullable Duration duration, @Nullable String name) {
+    if (name != null && !name.isBlank() && !NAME.matcher(name).matches()) {
+      return new WebEndpointResponse<>(
+          Map.of("error", "invalid_name", "allowed", NAME.pattern()),
+          WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+    long running = ownRecordings().stream()
+        .filter(recording -> recording.getState() == RecordingState.RUNNING)
+        .count();
+    if (running >= maxRecordings) {
+      return new WebEndpointResponse<>(
+          Map.of("error", "too_many_recordings", "maxRecordings", maxRecordings),
+          STATUS_CONFLICT);
+    }
+
+    Configuration configuration;
+    try {
+      configuration = Configuration.getConfiguration(settings == null ? "default" : settings);
+    } catch (IOException | ParseException e) {
+      return new WebEndpointResponse<>(
+          Map.of("error", "unknown_settings", "settings", settings),
+          WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+
+    Recording recording = new Recording(configuration);
+    recording.setName(NAME_PREFIX + (name == null || name.isBlank() ? "recording" : name));
+    recording.setMaxAge(maxAge);
+    recording.setToDisk(true);
+    recording.setDuration(duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+    recording.start();
+    return new WebEndpointResponse<>(describe(recording), WebEndpointResponse.STATUS_OK);
+  }
+
+  /**
+   * Writes the recording's current contents to a {@code .jfr} file and streams it; the file is
+   * deleted when the stream is closed.
+   */
+  @ReadOperation(produces = "application/octet-stream")
+  public WebEndpointResponse<Resource> dump(@Selector long id) {
+    Recording recording = find(id);
+    if (recording == null) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    try {
+      Files.createDirectories(dumpDir);
+      deleteDumps();
+      Path file = dumpDir.resolve(NAME_PREFIX + id + "-" + System.currentTimeMillis() + DUMP_SUFFIX);
+      recording.dump(file);
+      Resource dump = new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+      return new WebEndpointResponse<>(dump, WebEndpointResponse.STATUS_OK);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to dump JFR recording " + id, e);
+    }
+  }
+
+  /**
+   * Deletes dumps whose response never closed its stream. A download still in progress keeps
+   * reading its open file; dumps younger than a minute may still be being written.
+   */
+  private void deleteDumps() throws IOException {
+    long cutoff = System.currentTimeMillis() - Duration.ofMinutes(1).toMillis();
+    try (Stream<Path> files = Files.list(dumpDir)) {
+      for (Path file : files.toList()) {
+        String fileName = file.getFileName().toString();
+        if (fileName.startsWith(NAME_PREFIX) && fileName.endsWith(DUMP_SUFFIX)
+            && Files.getLastModifiedTime(file).toMillis() < cutoff) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  @DeleteOperation
+  public WebEndpointResponse<Void> stop(@Selector long id) {
+    Recording recording = find(id);
+    if (recording == null) {
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+    recording.close();
+    return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+  }
+
+  private Recording find(long id) {
+    return ownRecordings().stream()
+        .filter(recording -> recording.getId() == id)
+        .findFirst()
+        .orElse(null);
+  }
+
+  /** Only recordings started through this endpoint are visible to it. */
+  private static List<Recording> ownRecordings() {
+    if (!FlightRecorder.isAvailable()) {
+      return List.of();
+    }
+    return FlightRecorder.getFlightRecorder().getRecordings().stream()
+        .filter(recording -> recording.getName().startsWith(NAME_PREFIX))
+        .toList();
+  }
+
+  private static Map<String, Object> describe(Recording recording) {
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("id", recording.getId());
+    out.put("name", recording.getName());
+    out.put("state", recording.getState().name());
+    out.put("startTime", recording.getStartTime());
+    out.put("duration", recording.getDuration());
+    out.put("maxAge", recording.getMaxAge());
+    out.put("size", recording.getSize());
+    return out;
+  }
+}
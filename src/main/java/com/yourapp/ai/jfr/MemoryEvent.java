@@ -0,0 +1,10 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** {@code MemoryStore} reads and writes; {@link #stage} is {@code memory.get} or {@code memory.put}. */
+@Name("com.yourapp.ai.Memory")
+@Label("Agent Memory Access")
+public class MemoryEvent extends AgentEvent {
+}
@@ -0,0 +1,12 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.yourapp.ai.Pipeline")
+@Label("Agent Pipeline")
+public class PipelineEvent extends AgentEvent {
+
+  @Label("Mode")
+  public String mode;
+}
@@ -0,0 +1,21 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.yourapp.ai.Plan")
+@Label("Agent Plan")
+public class PlanEvent extends AgentEvent {
+
+  @Label("Needs Retrieval")
+  public boolean needsRetrieval;
+
+  @Label("Needs Tool")
+  public boolean needsTool;
+
+  @Label("Prompt Characters")
+  public long promptChars;
+
+  @Label("Total Tokens")
+  public long totalTokens;
+}
@@ -0,0 +1,15 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.yourapp.ai.Retrieval")
+@Label("Agent Retrieval")
+public class RetrievalEvent extends AgentEvent {
+
+  @Label("Chunk Count")
+  public int chunkCount;
+
+  @Label("Context Characters")
+  public long contextChars;
+}
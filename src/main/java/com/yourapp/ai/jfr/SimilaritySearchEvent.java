@@ -0,0 +1,21 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.yourapp.ai.SimilaritySearch")
+@Label("Agent Similarity Search")
+public class SimilaritySearchEvent extends AgentEvent {
+
+  @Label("Top K")
+  public int topK;
+
+  @Label("Result Count")
+  public int resultCount;
+
+  @Label("HNSW ef_search")
+  public int efSearch;
+
+  @Label("IVFFlat Probes")
+  public int probes;
+}
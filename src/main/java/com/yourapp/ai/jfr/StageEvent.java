@@ -0,0 +1,10 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Stages without dedicated fields (embed, sanitize). */
+@Name("com.yourapp.ai.Stage")
+@Label("Agent Stage")
+public class StageEvent extends AgentEvent {
+}
@@ -0,0 +1,12 @@
+package com.yourapp.ai.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.yourapp.ai.Tool")
+@Label("Agent Tool Call")
+public class ToolEvent extends AgentEvent {
+
+  @Label("Tool")
+  public String tool;
+}
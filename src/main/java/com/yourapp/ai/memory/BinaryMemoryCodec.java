@@ -0,0 +1,357 @@
+package com.yourapp.ai.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact typed binary format for conversation memory.
+ *
+ * <p>Layout: tag {@code 0xB1} (format version 1), a flags byte, then the root map. Values are a
+ * type byte followed by zigzag varints for integers, 8 bytes for doubles, and a varint length
+ * plus UTF-8 for strings; lists and maps carry a varint element count. Map keys are written once
+ * per payload and referenced by index afterwards, which keeps the repeated keys of turn lists
+ * small. Bodies larger than {@code compressionThreshold} bytes are deflated when that makes them
+ * smaller ({@link #FLAG_DEFLATED}, followed by the inflated length).
+ *
+ * <p>Values decode to the types Jackson produces for the JSON format: {@code Integer},
+ * {@code Long}, {@code Double}, {@code String}, {@code Boolean}, lists and maps. Other objects are
+ * first converted to that form with the {@link ObjectMapper}.
+ */
+public class BinaryMemoryCodec implements MemoryCodec {
+
+  public static final String NAME = "binary";
+  public static final byte TAG = (byte) 0xB1;
+
+  static final int FLAG_DEFLATED = 1;
+
+  private static final byte NULL = 0;
+  private static final byte FALSE = 1;
+  private static final byte TRUE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte STRING = 6;
+  private static final byte LIST = 7;
+  private static final byte MAP = 8;
+
+  private static final int HEADER = 2;
+
+  private final ObjectMapper mapper;
+  private final int compressionThreshold;
+
+  public BinaryMemoryCodec(ObjectMapper mapper, int compressionThreshold) {
+    this.mapper = mapper;
+    this.compressionThreshold = compressionThreshold <= 0 ? Integer.MAX_VALUE : compressionThreshold;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte tag() {
+    return TAG;
+  }
+
+  @Override
+  public byte[] encode(ConversationMemory memory) {
+    Writer out = new Writer(256);
+    out.bytes[0] = TAG;
+    out.position = HEADER;
+    out.value(memory.snapshot());
+    int bodyLength = out.position - HEADER;
+    if (bodyLength > compressionThreshold) {
+      byte[] deflated = deflate(out.bytes, HEADER, bodyLength);
+      if (deflated != null) {
+        return deflated;
+      }
+    }
+    return Arrays.copyOf(out.bytes, out.position);
+  }
+
+  @Override
+  public ConversationMemory decode(byte[] payload) {
+    if (payload.length < HEADER || payload[0] != TAG) {
+      throw new IllegalArgumentException("Not a binary memory payload");
+    }
+    Reader in;
+    if ((payload[1] & FLAG_DEFLATED) != 0) {
+      Reader header = new Reader(payload, HEADER);
+      int length = header.varint();
+      in = new Reader(inflate(payload, header.position, length), 0);
+    } else {
+      in = new Reader(payload, HEADER);
+    }
+    if (!(in.value() instanceof Map<?, ?> root)) {
+      throw new IllegalArgumentException("Binary memory payload does not hold a map");
+    }
+    @SuppressWarnings("unchecked")
+    Map<String, Object> entries = (Map<String, Object>) root;
+    return new ConversationMemory(entries);
+  }
+
+  /** Header, inflated length and deflated body, or {@code null} if deflating does not pay off. */
+  private byte[] deflate(byte[] bytes, int offset, int length) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes, offset, length);
+      deflater.finish();
+      Writer out = new Writer(HEADER + 5 + length);
+      out.bytes[0] = TAG;
+      out.bytes[1] = FLAG_DEFLATED;
+      out.position = HEADER;
+      out.varint(length);
+      int limit = out.position + length;
+      while (!deflater.finished() && out.position < limit) {
+        out.position += deflater.deflate(out.bytes, out.position, limit - out.position);
+      }
+      return deflater.finished() ? Arrays.copyOf(out.bytes, out.position) : null;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] payload, int offset, int length) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(payload, offset, payload.length - offset);
+      byte[] body = new byte[length];
+      int read = 0;
+      while (read < length && !inflater.finished()) {
+        int n = inflater.inflate(body, read, length - read);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        read += n;
+      }
+      if (read != length) {
+        throw new IllegalArgumentException("Truncated binary memory payload");
+      }
+      return body;
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupt binary memory payload", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private final class Writer {
+    private byte[] bytes;
+    private int position;
+    private final Map<String, Integer> keys = new HashMap<>();
+
+    Writer(int capacity) {
+      bytes = new byte[capacity];
+    }
+
+    void value(Object value) {
+      switch (value) {
+        case null -> write(NULL);
+        case Boolean b -> write(b ? TRUE : FALSE);
+        case Integer i -> {
+          write(INT);
+          varint((i << 1) ^ (i >> 31));
+        }
+        case Short s -> value(s.intValue());
+        case Byte b -> value(b.intValue());
+        case Long l -> {
+          write(LONG);
+          varlong((l << 1) ^ (l >> 63));
+        }
+        case Double d -> {
+          write(DOUBLE);
+          fixed64(Double.doubleToRawLongBits(d));
+        }
+        case Float f -> value(f.doubleValue());
+        case Number n -> value(n.doubleValue());
+        case CharSequence s -> {
+          write(STRING);
+          string(s.toString());
+        }
+        case List<?> list -> {
+          write(LIST);
+          varint(list.size());
+          list.forEach(this::value);
+        }
+        case Map<?, ?> map -> {
+          write(MAP);
+          varint(map.size());
+          map.forEach((key, entry) -> {
+            key(String.valueOf(key));
+            value(entry);
+          });
+        }
+        default -> {
+          Object converted = mapper.convertValue(value, Object.class);
+          if (converted != null && converted.getClass() == value.getClass()) {
+            throw new IllegalArgumentException("Cannot encode " + value.getClass().getName());
+          }
+          value(converted);
+        }
+      }
+    }
+
+    /** {@code 0} and the key for a first occurrence, else its index plus one. */
+    private void key(String key) {
+      Integer index = keys.get(key);
+      if (index != null) {
+        varint(index + 1);
+        return;
+      }
+      keys.put(key, keys.size());
+      varint(0);
+      string(key);
+    }
+
+    private void string(String s) {
+      byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+      varint(utf8.length);
+      ensure(utf8.length);
+      System.arraycopy(utf8, 0, bytes, position, utf8.length);
+      position += utf8.length;
+    }
+
+    private void varint(int value) {
+      varlong(value & 0xFFFFFFFFL);
+    }
+
+    private void varlong(long value) {
+      ensure(10);
+      while ((value & ~0x7FL) != 0) {
+        bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[position++] = (byte) value;
+    }
+
+    private void fixed64(long value) {
+      ensure(8);
+      for (int i = 0; i < 8; i++) {
+        bytes[position++] = (byte) (value >>> (8 * i));
+      }
+    }
+
+    private void write(byte b) {
+      ensure(1);
+      bytes[position++] = b;
+    }
+
+    private void ensure(int extra) {
+      if (position + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + extra));
+      }
+    }
+  }
+
+  private static final class Reader {
+    private final byte[] bytes;
+    private int position;
+    private final List<String> keys = new ArrayList<>();
+
+    Reader(byte[] bytes, int position) {
+      this.bytes = bytes;
+      this.position = position;
+    }
+
+    Object value() {
+      byte type = next();
+      return switch (type) {
+        case NULL -> null;
+        case FALSE -> Boolean.FALSE;
+        case TRUE -> Boolean.TRUE;
+        case INT -> {
+          int zigzag = varint();
+          yield (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        case LONG -> {
+          long zigzag = varlong();
+          yield (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        case DOUBLE -> Double.longBitsToDouble(fixed64());
+        case STRING -> string();
+        case LIST -> {
+          int size = varint();
+          List<Object> list = new ArrayList<>(Math.min(size, bytes.length));
+          for (int i = 0; i < size; i++) {
+            list.add(value());
+          }
+          yield list;
+        }
+        case MAP -> {
+          int size = varint();
+          Map<String, Object> map = new LinkedHashMap<>();
+          for (int i = 0; i < size; i++) {
+            String key = key();
+            map.put(key, value());
+          }
+          yield map;
+        }
+        default -> throw new IllegalArgumentException("Unknown value type " + type);
+      };
+    }
+
+    private String key() {
+      int reference = varint();
+      if (reference == 0) {
+        String key = string();
+        keys.add(key);
+        return key;
+      }
+      if (reference > keys.size()) {
+        throw new IllegalArgumentException("Unknown key reference " + reference);
+      }
+      return keys.get(reference - 1);
+    }
+
+    private String string() {
+      int length = varint();
+      if (length < 0 || length > bytes.length - position) {
+        throw new IllegalArgumentException("Truncated binary memory payload");
+      }
+      String s = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return s;
+    }
+
+    int varint() {
+      return (int) varlong();
+    }
+
+    private long varlong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = next();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private long fixed64() {
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value |= (next() & 0xFFL) << (8 * i);
+      }
+      return value;
+    }
+
+    private byte next() {
+      if (position >= bytes.length) {
+        throw new IllegalArgumentException("Truncated binary memory payload");
+      }
+      return bytes[position++];
+    }
+  }
+}
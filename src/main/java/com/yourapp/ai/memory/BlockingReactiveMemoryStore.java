@@ -0,0 +1,38 @@
+package com.yourapp.ai.memory;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Adapts a blocking {@link MemoryStore} to {@link ReactiveMemoryStore} by running each call on
+ * the given scheduler. Used for stores without a native reactive client (e.g. in-memory).
+ */
+public class BlockingReactiveMemoryStore implements ReactiveMemoryStore {
+
+  private final MemoryStore delegate;
+  private final Scheduler scheduler;
+
+  public BlockingReactiveMemoryStore(MemoryStore delegate, Scheduler scheduler) {
+    this.delegate = delegate;
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public Mono<ConversationMemory> get(String conversationId) {
+    return Mono.fromCallable(() -> delegate.get(conversationId))
+        .flatMap(Mono::justOrEmpty)
+        .subscribeOn(scheduler);
+  }
+
+  @Override
+  public Mono<Void> put(String conversationId, ConversationMemory memory) {
+    return Mono.<Void>fromRunnable(() -> delegate.put(conversationId, memory))
+        .subscribeOn(scheduler);
+  }
+
+  @Override
+  public Mono<Void> remove(String conversationId) {
+    return Mono.<Void>fromRunnable(() -> delegate.remove(conversationId))
+        .subscribeOn(scheduler);
+  }
+}
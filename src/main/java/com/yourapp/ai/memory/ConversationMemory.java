@@ -2,9 +2,13 @@ package com.yourapp.ai.memory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class ConversationMemory {
 
+    /** Keys with this prefix hold bookkeeping (e.g. token usage) and are never shown to the model. */
+    public static final String INTERNAL_PREFIX = "_";
+
     private final Map<String, Object> memory = new HashMap<>();
 
     public ConversationMemory() {}
@@ -30,4 +34,11 @@ public class ConversationMemory {
     public Map<String, Object> snapshot() {
         return Map.copyOf(memory);
     }
+
+    /** The entries the model may see in the MEMORY block. */
+    public Map<String, Object> promptSnapshot() {
+        return memory.entrySet().stream()
+                .filter(entry -> !entry.getKey().startsWith(INTERNAL_PREFIX))
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
 }
@@ -0,0 +1,53 @@
+package com.yourapp.ai.memory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * The original format: the memory snapshot as a JSON object. Its tag is the opening brace, so
+ * entries written before codecs existed are read by this codec unchanged.
+ */
+public class JsonMemoryCodec implements MemoryCodec {
+
+  public static final String NAME = "json";
+
+  private static final TypeReference<Map<String, Object>> MAP_TYPE =
+      new TypeReference<>() {};
+
+  private final ObjectMapper mapper;
+
+  public JsonMemoryCodec(ObjectMapper mapper) {
+    this.mapper = mapper;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte tag() {
+    return '{';
+  }
+
+  @Override
+  public byte[] encode(ConversationMemory memory) {
+    try {
+      return mapper.writeValueAsBytes(memory.snapshot());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public ConversationMemory decode(byte[] payload) {
+    try {
+      return new ConversationMemory(mapper.readValue(payload, MAP_TYPE));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
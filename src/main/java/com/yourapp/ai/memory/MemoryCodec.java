@@ -0,0 +1,23 @@
+package com.yourapp.ai.memory;
+
+/**
+ * Serialized form of a {@link ConversationMemory} in a persistent store.
+ *
+ * <p>Every payload starts with the codec's {@link #tag()}, so stores can hold entries written by
+ * different codecs side by side and {@link MemoryCodecs} can pick the right one to read each.
+ * Codecs are registered by declaring them as beans; {@code app.memory.codec.format} names the one
+ * used for writing.
+ */
+public interface MemoryCodec {
+
+  /** The name {@code app.memory.codec.format} selects this codec by. */
+  String name();
+
+  /** First byte of every payload this codec writes; unique among registered codecs. */
+  byte tag();
+
+  byte[] encode(ConversationMemory memory);
+
+  /** Decodes a payload whose first byte is {@link #tag()}. */
+  ConversationMemory decode(byte[] payload);
+}
@@ -0,0 +1,59 @@
+package com.yourapp.ai.memory;
+
+import java.util.List;
+
+/**
+ * The registered {@link MemoryCodec}s: writes use the configured one, reads dispatch on the
+ * payload's first byte. Every registered codec stays readable, so a store can be switched between
+ * formats while entries of the old one are still live (they are rewritten in the new format on
+ * the conversation's next turn).
+ */
+public final class MemoryCodecs {
+
+  private final MemoryCodec writer;
+  private final MemoryCodec[] readers = new MemoryCodec[256];
+
+  public MemoryCodecs(String format, List<MemoryCodec> codecs) {
+    MemoryCodec selected = null;
+    for (MemoryCodec codec : codecs) {
+      int tag = codec.tag() & 0xFF;
+      if (readers[tag] != null) {
+        throw new IllegalStateException("Memory codecs " + readers[tag].name() + " and "
+            + codec.name() + " share tag " + tag);
+      }
+      readers[tag] = codec;
+      if (codec.name().equals(format)) {
+        selected = codec;
+      }
+    }
+    if (selected == null) {
+      throw new IllegalStateException("Unknown memory codec " + format);
+    }
+    this.writer = selected;
+  }
+
+  public MemoryCodec writer() {
+    return writer;
+  }
+
+  public byte[] encode(ConversationMemory memory, String conversationId) {
+    try {
+      return writer.encode(memory);
+    } catch (RuntimeException e) {
+      throw new IllegalStateException("Failed to serialize memory for " + conversationId, e);
+    }
+  }
+
+  public ConversationMemory decode(byte[] payload, String conversationId) {
+    MemoryCodec codec = readers[payload[0] & 0xFF];
+    if (codec == null) {
+      throw new IllegalStateException(
+          "Failed to deserialize memory for " + conversationId + ": unknown format tag " + (payload[0] & 0xFF));
+    }
+    try {
+      return codec.decode(payload);
+    } catch (RuntimeException e) {
+      throw new IllegalStateException("Failed to deserialize memory for " + conversationId, e);
+    }
+  }
+}
@@ -1,9 +1,29 @@
 package com.yourapp.ai.memory;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 public interface MemoryStore {
   Optional<ConversationMemory> get(String conversationId);
   void put(String conversationId, ConversationMemory memory);
   void remove(String conversationId);
+
+  /**
+   * Reads several conversations; conversations without stored memory are left out. Stores with a
+   * round-trip per call should batch them.
+   */
+  default Map<String, ConversationMemory> getAll(Collection<String> conversationIds) {
+    Map<String, ConversationMemory> memories = new LinkedHashMap<>();
+    for (String conversationId : conversationIds) {
+      get(conversationId).ifPresent(memory -> memories.put(conversationId, memory));
+    }
+    return memories;
+  }
+
+  /** Stores several conversations; stores with a round-trip per call should batch them. */
+  default void putAll(Map<String, ConversationMemory> memories) {
+    memories.forEach(this::put);
+  }
 }
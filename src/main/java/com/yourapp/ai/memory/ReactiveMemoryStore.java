@@ -0,0 +1,9 @@
+package com.yourapp.ai.memory;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveMemoryStore {
+  Mono<ConversationMemory> get(String conversationId);
+  Mono<Void> put(String conversationId, ConversationMemory memory);
+  Mono<Void> remove(String conversationId);
+}
@@ -0,0 +1,63 @@
+package com.yourapp.ai.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RedisMemoryStore} backed by Lettuce reactive commands.
+ * Uses the same key layout and {@link MemoryCodecs}, so both stores can serve the same
+ * conversations.
+ */
+public class ReactiveRedisMemoryStore implements ReactiveMemoryStore {
+
+  private final ReactiveStringRedisTemplate redis;
+  private final MemoryCodecs codecs;
+  private final Duration ttl;
+  private final String keyPrefix;
+
+  public ReactiveRedisMemoryStore(
+      ReactiveStringRedisTemplate redis,
+      MemoryCodecs codecs,
+      Duration ttl,
+      String keyPrefix) {
+    this.redis = redis;
+    this.codecs = codecs;
+    this.ttl = ttl;
+    this.keyPrefix = keyPrefix;
+  }
+
+  @Override
+  public Mono<ConversationMemory> get(String conversationId) {
+    return redis.execute(connection -> connection.stringCommands().get(key(conversationId)))
+        .next()
+        .filter(ByteBuffer::hasRemaining)
+        .map(buffer -> {
+          byte[] payload = new byte[buffer.remaining()];
+          buffer.get(payload);
+          return codecs.decode(payload, conversationId);
+        });
+  }
+
+  @Override
+  public Mono<Void> put(String conversationId, ConversationMemory memory) {
+    return Mono.fromCallable(() -> ByteBuffer.wrap(codecs.encode(memory, conversationId)))
+        .flatMap(payload -> redis.execute(connection -> connection.stringCommands()
+                .set(key(conversationId), payload, Expiration.from(ttl), SetOption.upsert()))
+            .then())
+        .then();
+  }
+
+  @Override
+  public Mono<Void> remove(String conversationId) {
+    return redis.delete(keyPrefix + conversationId).then();
+  }
+
+  private ByteBuffer key(String conversationId) {
+    return ByteBuffer.wrap((keyPrefix + conversationId).getBytes(StandardCharsets.UTF_8));
+  }
+}
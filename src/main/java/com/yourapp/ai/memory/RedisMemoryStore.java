@@ -1,64 +1,97 @@
 package com.yourapp.ai.memory;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 
+/** Stores each conversation under its own key, encoded with {@link MemoryCodecs}. */
 public class RedisMemoryStore implements MemoryStore {
 
-  private static final TypeReference<Map<String, Object>> MAP_TYPE =
-      new TypeReference<>() {};
-
   private final StringRedisTemplate redis;
-  private final ObjectMapper mapper;
+  private final MemoryCodecs codecs;
   private final Duration ttl;
   private final String keyPrefix;
 
   public RedisMemoryStore(
       StringRedisTemplate redis,
-      ObjectMapper mapper,
+      MemoryCodecs codecs,
       Duration ttl,
       String keyPrefix) {
     this.redis = redis;
-    this.mapper = mapper;
+    this.codecs = codecs;
     this.ttl = ttl;
     this.keyPrefix = keyPrefix;
   }
 
   @Override
   public Optional<ConversationMemory> get(String conversationId) {
-    String json = redis.opsForValue().get(key(conversationId));
-    if (json == null || json.isBlank()) {
+    byte[] key = key(conversationId);
+    byte[] payload = redis.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+    if (payload == null || payload.length == 0) {
       return Optional.empty();
     }
 
-    try {
-      Map<String, Object> map = mapper.readValue(json, MAP_TYPE);
-      return Optional.of(new ConversationMemory(map));
-    } catch (Exception e) {
-      throw new IllegalStateException("Failed to deserialize memory for " + conversationId, e);
+    return Optional.of(codecs.decode(payload, conversationId));
+  }
+
+  /** Reads all entries with one {@code MGET}. */
+  @Override
+  public Map<String, ConversationMemory> getAll(Collection<String> conversationIds) {
+    Map<String, ConversationMemory> memories = new LinkedHashMap<>();
+    if (conversationIds.isEmpty()) {
+      return memories;
     }
+    List<String> ids = new ArrayList<>(conversationIds);
+    byte[][] keys = ids.stream().map(this::key).toArray(byte[][]::new);
+    List<byte[]> payloads = redis.execute((RedisCallback<List<byte[]>>) connection ->
+        connection.stringCommands().mGet(keys));
+    for (int i = 0; payloads != null && i < ids.size(); i++) {
+      byte[] payload = payloads.get(i);
+      if (payload != null && payload.length > 0) {
+        memories.put(ids.get(i), codecs.decode(payload, ids.get(i)));
+      }
+    }
+    return memories;
   }
 
   @Override
   public void put(String conversationId, ConversationMemory memory) {
-    try {
-      String json = mapper.writeValueAsString(memory.snapshot());
-      redis.opsForValue().set(key(conversationId), json, ttl);
-    } catch (Exception e) {
-      throw new IllegalStateException("Failed to serialize memory for " + conversationId, e);
+    byte[] key = key(conversationId);
+    byte[] payload = codecs.encode(memory, conversationId);
+    redis.execute((RedisCallback<Boolean>) connection ->
+        connection.stringCommands().set(key, payload, Expiration.from(ttl), SetOption.upsert()));
+  }
+
+  /** Writes all entries in one pipelined round-trip. */
+  @Override
+  public void putAll(Map<String, ConversationMemory> memories) {
+    if (memories.isEmpty()) {
+      return;
     }
+    Map<byte[], byte[]> payloads = new LinkedHashMap<>();
+    memories.forEach((id, memory) -> payloads.put(key(id), codecs.encode(memory, id)));
+    redis.executePipelined((RedisCallback<Object>) connection -> {
+      payloads.forEach((key, payload) ->
+          connection.stringCommands().set(key, payload, Expiration.from(ttl), SetOption.upsert()));
+      return null;
+    });
   }
 
   @Override
   public void remove(String conversationId) {
-    redis.delete(key(conversationId));
+    redis.delete(keyPrefix + conversationId);
   }
 
-  private String key(String conversationId) {
-    return keyPrefix + conversationId;
+  private byte[] key(String conversationId) {
+    return (keyPrefix + conversationId).getBytes(StandardCharsets.UTF_8);
   }
 }
@@ -0,0 +1,105 @@
+package com.yourapp.ai.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded turn history stored in a {@link ConversationMemory} under internal keys, so it is
+ * persisted, serialized and expired together with the rest of the conversation.
+ *
+ * <p>The newest {@code capacity} turns are kept verbatim. Each turn that falls out of that window
+ * moves to a pending list until it is folded into the rolling summary; at most {@code maxPending}
+ * turns wait there, the oldest are dropped beyond that. Turns are plain maps so the Redis JSON
+ * round-trip needs no type information.
+ */
+public final class TurnHistory {
+
+    public static final String TURNS_KEY = ConversationMemory.INTERNAL_PREFIX + "turns";
+    public static final String PENDING_KEY = ConversationMemory.INTERNAL_PREFIX + "pendingTurns";
+    public static final String SUMMARY_KEY = ConversationMemory.INTERNAL_PREFIX + "summary";
+
+    public record Turn(String question, String answer) {
+
+        public Turn {
+            question = question == null ? "" : question;
+            answer = answer == null ? "" : answer;
+        }
+
+        Map<String, String> toMap() {
+            return Map.of("q", question, "a", answer);
+        }
+
+        static Turn fromMap(Object value) {
+            if (value instanceof Map<?, ?> map) {
+                return new Turn(String.valueOf(map.get("q")), String.valueOf(map.get("a")));
+            }
+            return null;
+        }
+    }
+
+    private TurnHistory() {
+    }
+
+    /** Appends {@code turn}, moving turns beyond {@code capacity} to the pending list. */
+    public static void append(ConversationMemory memory, Turn turn, int capacity, int maxPending) {
+        List<Turn> turns = new ArrayList<>(recent(memory));
+        List<Turn> pending = new ArrayList<>(pending(memory));
+        turns.add(turn);
+        while (turns.size() > capacity) {
+            pending.add(turns.remove(0));
+        }
+        while (pending.size() > maxPending) {
+            pending.remove(0);
+        }
+        memory.put(TURNS_KEY, toMaps(turns));
+        memory.put(PENDING_KEY, toMaps(pending));
+    }
+
+    /** The verbatim window, oldest first. */
+    public static List<Turn> recent(ConversationMemory memory) {
+        return fromMaps(memory.get(TURNS_KEY));
+    }
+
+    /** Turns that left the window and are not yet part of the summary, oldest first. */
+    public static List<Turn> pending(ConversationMemory memory) {
+        return fromMaps(memory.get(PENDING_KEY));
+    }
+
+    public static String summary(ConversationMemory memory) {
+        return memory.get(SUMMARY_KEY) instanceof String summary ? summary : "";
+    }
+
+    /**
+     * Replaces the summary with one that covers {@code compacted}, removing those turns from the
+     * pending list. Returns {@code false}, leaving the memory untouched, when the pending list no
+     * longer starts with {@code compacted} (another instance folded first, or turns were dropped).
+     */
+    public static boolean fold(ConversationMemory memory, List<Turn> compacted, String summary) {
+        List<Turn> pending = pending(memory);
+        if (pending.size() < compacted.size() || !pending.subList(0, compacted.size()).equals(compacted)) {
+            return false;
+        }
+        memory.put(SUMMARY_KEY, summary);
+        memory.put(PENDING_KEY, toMaps(pending.subList(compacted.size(), pending.size())));
+        return true;
+    }
+
+    private static List<Map<String, String>> toMaps(List<Turn> turns) {
+        return turns.stream().map(Turn::toMap).toList();
+    }
+
+    private static List<Turn> fromMaps(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return List.of();
+        }
+        List<Turn> turns = new ArrayList<>(list.size());
+        for (Object item : list) {
+            Turn turn = Turn.fromMap(item);
+            if (turn != null) {
+                turns.add(turn);
+            }
+        }
+        return turns;
+    }
+}
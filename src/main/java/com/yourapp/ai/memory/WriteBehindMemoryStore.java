@@ -0,0 +1,209 @@
+package com.yourapp.ai.memory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind decorator for a {@link MemoryStore}.
+ *
+ * <p>Writes and removals are queued per conversation, the latest one winning, and a background
+ * thread flushes them to the delegate every {@code flushInterval} in batches of up to
+ * {@code batchSize} through {@link MemoryStore#putAll}. A queued write stays visible to
+ * {@link #get} and {@link #getAll} until it has been persisted, so this node always reads its own
+ * writes; other nodes see it after the flush. Once {@code maxPending} conversations are queued,
+ * writes for further conversations go straight to the delegate. A failed flush keeps its entries
+ * for the next one, and {@link #close} flushes whatever is still queued.
+ */
+public class WriteBehindMemoryStore implements MemoryStore, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(WriteBehindMemoryStore.class);
+
+  /** A queued write; a null memory is a removal. */
+  private record Pending(ConversationMemory memory) {}
+
+  private final MemoryStore delegate;
+  private final int maxPending;
+  private final int batchSize;
+  private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService flusher;
+  private final Timer flushTimer;
+  private final Counter flushed;
+  private final Counter failed;
+  private final Counter overflow;
+
+  public WriteBehindMemoryStore(
+      MemoryStore delegate,
+      int maxPending,
+      int batchSize,
+      Duration flushInterval,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.maxPending = Math.max(1, maxPending);
+    this.batchSize = Math.max(1, batchSize);
+    Gauge.builder("agent.memory.writebehind.pending", pending, Map::size)
+        .description("Conversations with a memory write not yet persisted")
+        .register(meterRegistry);
+    this.flushTimer = Timer.builder("agent.memory.writebehind.flush")
+        .description("Time to persist one batch of queued memory writes")
+        .register(meterRegistry);
+    this.flushed = writes(meterRegistry, "flushed");
+    this.failed = writes(meterRegistry, "failed");
+    this.overflow = writes(meterRegistry, "overflow");
+
+    this.flusher = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("memory-write-behind").daemon(true).factory());
+    long intervalNanos = Math.max(1, flushInterval.toNanos());
+    flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static Counter writes(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("agent.memory.writebehind.writes")
+        .description("Queued memory writes by result; overflow writes bypassed the queue")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Optional<ConversationMemory> get(String conversationId) {
+    Pending queued = pending.get(conversationId);
+    if (queued != null) {
+      return queued.memory() == null ? Optional.empty() : Optional.of(copy(queued.memory()));
+    }
+    return delegate.get(conversationId);
+  }
+
+  /** Answers queued conversations from the queue and reads the rest in one delegate call. */
+  @Override
+  public Map<String, ConversationMemory> getAll(Collection<String> conversationIds) {
+    Map<String, ConversationMemory> memories = new LinkedHashMap<>();
+    List<String> unqueued = new ArrayList<>();
+    for (String conversationId : conversationIds) {
+      Pending queued = pending.get(conversationId);
+      if (queued == null) {
+        unqueued.add(conversationId);
+      } else if (queued.memory() != null) {
+        memories.put(conversationId, copy(queued.memory()));
+      }
+    }
+    if (!unqueued.isEmpty()) {
+      memories.putAll(delegate.getAll(unqueued));
+    }
+    return memories;
+  }
+
+  @Override
+  public void put(String conversationId, ConversationMemory memory) {
+    if (!enqueue(conversationId, new Pending(copy(memory)))) {
+      delegate.put(conversationId, memory);
+    }
+  }
+
+  @Override
+  public void remove(String conversationId) {
+    if (!enqueue(conversationId, new Pending(null))) {
+      delegate.remove(conversationId);
+    }
+  }
+
+  @Override
+  public void putAll(Map<String, ConversationMemory> memories) {
+    memories.forEach(this::put);
+  }
+
+  /**
+   * Queues {@code write} unless the queue is full. A conversation that is already queued can
+   * always be replaced; one that is not is also not being flushed, so writing it through cannot
+   * be overtaken by an older queued write.
+   */
+  private boolean enqueue(String conversationId, Pending write) {
+    if (pending.size() >= maxPending && !pending.containsKey(conversationId)) {
+      overflow.increment();
+      return false;
+    }
+    pending.put(conversationId, write);
+    return true;
+  }
+
+  /** Persists everything queued so far. */
+  public synchronized void flush() {
+    List<Map.Entry<String, Pending>> batch = new ArrayList<>(batchSize);
+    for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+      batch.add(Map.entry(entry.getKey(), entry.getValue()));
+      if (batch.size() == batchSize) {
+        write(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      write(batch);
+    }
+  }
+
+  private void write(List<Map.Entry<String, Pending>> batch) {
+    Map<String, ConversationMemory> puts = new LinkedHashMap<>();
+    long start = System.nanoTime();
+    try {
+      for (Map.Entry<String, Pending> entry : batch) {
+        if (entry.getValue().memory() == null) {
+          delegate.remove(entry.getKey());
+        } else {
+          puts.put(entry.getKey(), entry.getValue().memory());
+        }
+      }
+      delegate.putAll(puts);
+    } catch (RuntimeException e) {
+      failed.increment(batch.size());
+      throw e;
+    }
+    flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    // Only dequeue what was written; a newer write queued meanwhile stays for the next flush.
+    for (Map.Entry<String, Pending> entry : batch) {
+      pending.remove(entry.getKey(), entry.getValue());
+    }
+    flushed.increment(batch.size());
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warn("Memory write-behind flush failed; {} conversations stay queued", pending.size(), e);
+    }
+  }
+
+  @Override
+  public void close() {
+    flusher.shutdown();
+    try {
+      flusher.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.error("Lost {} queued memory writes on shutdown", pending.size(), e);
+    }
+  }
+
+  /** Callers keep mutating their instance after a put; the queue holds its own. */
+  private static ConversationMemory copy(ConversationMemory memory) {
+    return new ConversationMemory(memory.snapshot());
+  }
+}
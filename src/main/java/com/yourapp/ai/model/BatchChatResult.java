@@ -0,0 +1,10 @@
+package com.yourapp.ai.model;
+
+import com.yourapp.ai.agent.AgentAnswer;
+
+public record BatchChatResult(
+        int index,
+        String conversationId,
+        AgentAnswer answer,
+        String error
+) {}
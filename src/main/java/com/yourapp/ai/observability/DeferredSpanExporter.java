@@ -0,0 +1,58 @@
+package com.yourapp.ai.observability;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SpanExporter} whose real exporter is only built by {@link #start()}, so its HTTP
+ * client and protocol classes are not loaded on the startup path. Spans exported before then,
+ * i.e. from startup itself, are dropped and counted in {@link #dropped()}.
+ */
+public class DeferredSpanExporter implements SpanExporter {
+
+  private final Supplier<SpanExporter> factory;
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile SpanExporter delegate;
+  private volatile boolean shutdown;
+
+  public DeferredSpanExporter(Supplier<SpanExporter> factory) {
+    this.factory = factory;
+  }
+
+  public synchronized void start() {
+    if (delegate == null && !shutdown) {
+      delegate = factory.get();
+    }
+  }
+
+  public long dropped() {
+    return dropped.get();
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<SpanData> spans) {
+    SpanExporter exporter = delegate;
+    if (exporter == null) {
+      dropped.addAndGet(spans.size());
+      return CompletableResultCode.ofSuccess();
+    }
+    return exporter.export(spans);
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    SpanExporter exporter = delegate;
+    return exporter == null ? CompletableResultCode.ofSuccess() : exporter.flush();
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    shutdown = true;
+    SpanExporter exporter = delegate;
+    return exporter == null ? CompletableResultCode.ofSuccess() : exporter.shutdown();
+  }
+}
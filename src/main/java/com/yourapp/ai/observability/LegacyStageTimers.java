@@ -0,0 +1,60 @@
+package com.yourapp.ai.observability;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the timers that predate {@code agent.stage} ({@code agent.planner.duration},
+ * {@code agent.answer.duration}, {@code agent.tool.duration}, {@code agent.retrieval.duration})
+ * for existing dashboards: each is recorded when the {@code agent.stage} observation of the same
+ * stage stops. The aliases are deprecated and will be removed in the next release; dashboards
+ * should move to {@code agent.stage{stage=...}}.
+ */
+public class LegacyStageTimers implements ObservationHandler<Observation.Context> {
+
+  private static final String START = LegacyStageTimers.class.getName() + ".start";
+
+  private final Map<String, Timer> timers;
+
+  public LegacyStageTimers(MeterRegistry meterRegistry) {
+    this.timers = Map.of(
+        "planner", timer(meterRegistry, "agent.planner.duration", "Planner LLM call duration"),
+        "answer", timer(meterRegistry, "agent.answer.duration", "Answer LLM call duration"),
+        "tool", timer(meterRegistry, "agent.tool.duration", "Tool execution duration"),
+        "retrieval", timer(meterRegistry, "agent.retrieval.duration", "Retrieval duration"));
+  }
+
+  private static Timer timer(MeterRegistry meterRegistry, String name, String description) {
+    return Timer.builder(name)
+        .description(description + " (deprecated, use agent.stage)")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public boolean supportsContext(Observation.Context context) {
+    return StageObserver.STAGE_METRIC.equals(context.getName());
+  }
+
+  @Override
+  public void onStart(Observation.Context context) {
+    context.put(START, System.nanoTime());
+  }
+
+  @Override
+  public void onStop(Observation.Context context) {
+    Long start = context.get(START);
+    KeyValue stage = context.getLowCardinalityKeyValue("stage");
+    if (start == null || stage == null) {
+      return;
+    }
+    Timer timer = timers.get(stage.getValue());
+    if (timer != null) {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
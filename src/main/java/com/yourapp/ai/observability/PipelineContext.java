@@ -0,0 +1,169 @@
+package com.yourapp.ai.observability;
+
+import com.yourapp.ai.concurrency.Deadline;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-request state shared by every stage of the chat pipeline: the request id, the conversation,
+ * the calling tenant and work class used for fair scheduling, the request deadline and the time
+ * spent in each stage. Bound to the request thread by {@code RequestIdFilter} and
+ * propagated to stage threads through {@link PipelineContextAccessor}. A batch request binds one
+ * {@link #forConversation} context per item, so items of different conversations can run
+ * concurrently.
+ */
+public final class PipelineContext {
+
+  private static final ThreadLocal<PipelineContext> CURRENT = new ThreadLocal<>();
+
+  private final String requestId;
+  private final PipelineContext parent;
+  private final long startNanos = System.nanoTime();
+  private final Map<String, StageTotal> stages = new LinkedHashMap<>();
+  private volatile String conversationId;
+  private volatile String conversationHash;
+  private volatile String tenant;
+  private volatile String workClass;
+  private volatile Deadline deadline = Deadline.NONE;
+
+  public PipelineContext(String requestId) {
+    this(requestId, null);
+  }
+
+  private PipelineContext(String requestId, PipelineContext parent) {
+    this.requestId = requestId;
+    this.parent = parent;
+  }
+
+  /**
+   * A context for one conversation of this request: same request id, caller and deadline, its
+   * own conversation id, and stage times recorded into this context.
+   */
+  public PipelineContext forConversation(String conversationId) {
+    PipelineContext child = new PipelineContext(requestId, this);
+    child.conversationId(conversationId);
+    child.caller(tenant, workClass);
+    child.deadline(deadline);
+    return child;
+  }
+
+  /** The context of the current request, or {@code null} outside a request (e.g. warm-up). */
+  public static PipelineContext current() {
+    return CURRENT.get();
+  }
+
+  /** The deadline of the current request, or {@link Deadline#NONE} outside a request. */
+  public static Deadline currentDeadline() {
+    PipelineContext context = CURRENT.get();
+    return context == null ? Deadline.NONE : context.deadline;
+  }
+
+  public static void bind(PipelineContext context) {
+    if (context == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(context);
+    }
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  public String requestId() {
+    return requestId;
+  }
+
+  public String conversationId() {
+    return conversationId;
+  }
+
+  public void conversationId(String conversationId) {
+    this.conversationId = conversationId;
+    this.conversationHash = hash(conversationId);
+  }
+
+  /** Stable, non-reversible conversation key for profiling data (JFR events). */
+  public String conversationHash() {
+    return conversationHash;
+  }
+
+  /** JWT subject or client id of the caller, or {@code null} when unauthenticated. */
+  public String tenant() {
+    return tenant;
+  }
+
+  public String workClass() {
+    return workClass;
+  }
+
+  public void caller(String tenant, String workClass) {
+    this.tenant = tenant;
+    this.workClass = workClass;
+  }
+
+  public Deadline deadline() {
+    return deadline;
+  }
+
+  public void deadline(Deadline deadline) {
+    this.deadline = deadline == null ? Deadline.NONE : deadline;
+  }
+
+  public void record(String stage, long nanos) {
+    if (parent != null) {
+      parent.record(stage, nanos);
+      return;
+    }
+    synchronized (this) {
+      stages.computeIfAbsent(stage, key -> new StageTotal()).add(nanos);
+    }
+  }
+
+  /**
+   * Stage breakdown in {@code Server-Timing} syntax. Repeated stages (e.g. several similarity
+   * searches) are summed and report their count in {@code desc}.
+   */
+  public synchronized String serverTiming() {
+    StringBuilder out = new StringBuilder();
+    stages.forEach((stage, total) -> {
+      out.append(stage).append(";dur=").append(millis(total.nanos));
+      if (total.count > 1) {
+        out.append(";desc=\"x").append(total.count).append('"');
+      }
+      out.append(", ");
+    });
+    return out.append("total;dur=").append(millis(System.nanoTime() - startNanos)).toString();
+  }
+
+  static String hash(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 8);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+  }
+
+  private static final class StageTotal {
+    private long nanos;
+    private int count;
+
+    void add(long elapsed) {
+      nanos += elapsed;
+      count++;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.yourapp.ai.observability;
+
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * Carries {@link PipelineContext} across the stage executor and Reactor operators, alongside the
+ * request id MDC and the current observation.
+ */
+public class PipelineContextAccessor implements ThreadLocalAccessor<PipelineContext> {
+
+  public static final String KEY = "agent.pipelineContext";
+
+  @Override
+  public Object key() {
+    return KEY;
+  }
+
+  @Override
+  public PipelineContext getValue() {
+    return PipelineContext.current();
+  }
+
+  @Override
+  public void setValue(PipelineContext value) {
+    PipelineContext.bind(value);
+  }
+
+  @Override
+  public void setValue() {
+    PipelineContext.clear();
+  }
+}
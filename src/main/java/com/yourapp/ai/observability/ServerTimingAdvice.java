@@ -0,0 +1,41 @@
+package com.yourapp.ai.observability;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's stage breakdown as a {@code Server-Timing} header. Applies to bodies written
+ * in one piece ({@code /chat} and error responses); streamed responses commit their headers
+ * before the stages finish, so their breakdown is only available from the spans and timers.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+  static final String HEADER = "Server-Timing";
+
+  @Override
+  public boolean supports(
+      MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      Object body,
+      MethodParameter returnType,
+      MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request,
+      ServerHttpResponse response) {
+    PipelineContext context = PipelineContext.current();
+    if (context != null && !response.getHeaders().containsKey(HEADER)) {
+      response.getHeaders().add(HEADER, context.serverTiming());
+    }
+    return body;
+  }
+}
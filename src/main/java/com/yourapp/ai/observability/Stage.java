@@ -0,0 +1,102 @@
+package com.yourapp.ai.observability;
+
+import com.yourapp.ai.jfr.AgentEvent;
+import io.micrometer.observation.Observation;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A running pipeline stage: one observation (span + histogram timer), one JFR event and an entry
+ * in the request's {@link PipelineContext}. Every stage of a given name carries the same tag keys so
+ * the timers stay compatible across exporters; unset tags read {@code none}.
+ */
+public final class Stage {
+
+  private final String name;
+  private final Observation observation;
+  private final PipelineContext context;
+  private final AgentEvent event;
+  private final long startNanos = System.nanoTime();
+  private final AtomicBoolean stopped = new AtomicBoolean();
+  private volatile String outcome;
+
+  Stage(
+      String name,
+      Observation observation,
+      PipelineContext context,
+      AgentEvent event,
+      String defaultOutcome) {
+    this.name = name;
+    this.observation = observation;
+    this.context = context;
+    this.event = event;
+    this.outcome = defaultOutcome;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  Observation observation() {
+    return observation;
+  }
+
+  public Stage tag(String key, String value) {
+    String tagValue = value == null ? "none" : value;
+    observation.lowCardinalityKeyValue(key, tagValue);
+    if ("model".equals(key)) {
+      event.model = tagValue;
+    } else if ("plan".equals(key)) {
+      event.plan = tagValue;
+    }
+    return this;
+  }
+
+  /**
+   * Fills stage-specific JFR fields when the stage's event is a {@code type} and recording is on.
+   * Must be called before {@link #stop()}.
+   */
+  public <E extends AgentEvent> Stage jfr(Class<E> type, Consumer<E> fields) {
+    if (type.isInstance(event) && event.isEnabled()) {
+      fields.accept(type.cast(event));
+    }
+    return this;
+  }
+
+  public Stage outcome(String outcome) {
+    this.outcome = outcome;
+    return this;
+  }
+
+  /** Sets the outcome and passes {@code value} through, for use in return statements. */
+  public <T> T end(String outcome, T value) {
+    outcome(outcome);
+    return value;
+  }
+
+  public void error(Throwable error) {
+    outcome("error");
+    observation.error(error);
+  }
+
+  /** Stops the stage once; later calls are ignored. Returns the elapsed time in milliseconds. */
+  public long stop() {
+    long elapsed = System.nanoTime() - startNanos;
+    if (stopped.compareAndSet(false, true)) {
+      observation.lowCardinalityKeyValue("outcome", outcome);
+      observation.stop();
+      if (context != null) {
+        context.record(name, elapsed);
+      }
+      if (event.shouldCommit()) {
+        event.outcome = outcome;
+        if (context != null) {
+          event.requestId = context.requestId();
+          event.conversationHash = context.conversationHash();
+        }
+        event.commit();
+      }
+    }
+    return elapsed / 1_000_000;
+  }
+}
@@ -0,0 +1,114 @@
+package com.yourapp.ai.observability;
+
+import com.yourapp.ai.jfr.AgentEvent;
+import com.yourapp.ai.jfr.AgentEvents;
+import com.yourapp.ai.jfr.PipelineEvent;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Instrumentation for the chat pipeline.
+ *
+ * <p>Stages (planner, retrieval, search, embed, tool, answer, sanitize, memory.get, memory.put)
+ * become {@code agent.stage} observations tagged {@code stage}, {@code model}, {@code plan} and
+ * {@code outcome}; a whole request becomes an {@code agent.pipeline} observation tagged
+ * {@code mode}, {@code plan} and {@code outcome}, where the outcome also names early returns such
+ * as {@code missing_order_id}. Each observation yields a span, tagged with the request id, and a
+ * timer whose histogram and SLO buckets are configured in {@code ObservabilityConfig}. Every
+ * stage also emits a JFR event ({@code com.yourapp.ai.jfr}) while a recording is active.
+ */
+@Component
+public class StageObserver {
+
+  public static final String STAGE_METRIC = "agent.stage";
+  public static final String PIPELINE_METRIC = "agent.pipeline";
+
+  private final ObservationRegistry registry;
+
+  public StageObserver(ObservationRegistry registry) {
+    this.registry = registry;
+  }
+
+  public Stage start(String stage) {
+    Observation observation = Observation.createNotStarted(STAGE_METRIC, registry)
+        .contextualName("agent " + stage)
+        .lowCardinalityKeyValue("stage", stage)
+        .lowCardinalityKeyValue("model", "none")
+        .lowCardinalityKeyValue("plan", "none");
+    return begin(stage, observation, "success");
+  }
+
+  /** Starts the request-level observation. {@code mode} is sync, stream or batch. */
+  public Stage pipeline(String mode) {
+    Observation observation = Observation.createNotStarted(PIPELINE_METRIC, registry)
+        .contextualName("agent pipeline")
+        .lowCardinalityKeyValue("mode", mode)
+        .lowCardinalityKeyValue("plan", "none");
+    return begin("pipeline", observation, "answered")
+        .jfr(PipelineEvent.class, event -> event.mode = mode);
+  }
+
+  /** Runs {@code work} as a stage, with the stage span current so nested spans attach to it. */
+  public <T> T observe(String stage, Supplier<T> work) {
+    return observe(start(stage), work);
+  }
+
+  public void run(String stage, Runnable work) {
+    observe(stage, () -> {
+      work.run();
+      return null;
+    });
+  }
+
+  public <T> T observe(Stage stage, Supplier<T> work) {
+    try {
+      return stage.observation().scoped(work);
+    } catch (RuntimeException e) {
+      stage.error(e);
+      throw e;
+    } finally {
+      stage.stop();
+    }
+  }
+
+  public <T> Mono<T> observe(String stage, Mono<T> source) {
+    return Mono.defer(() -> observe(start(stage), source));
+  }
+
+  public <T> Mono<T> observe(Stage stage, Mono<T> source) {
+    return source
+        .doOnError(stage::error)
+        .doOnCancel(() -> stage.outcome("cancelled"))
+        .doFinally(signal -> stage.stop());
+  }
+
+  public <T> Flux<T> observe(String stage, Flux<T> source) {
+    return Flux.defer(() -> observe(start(stage), source));
+  }
+
+  /** Ties an already started stage to {@code source}; it stops on completion, error or cancel. */
+  public <T> Flux<T> observe(Stage stage, Flux<T> source) {
+    return source
+        .doOnError(stage::error)
+        .doOnCancel(() -> stage.outcome("cancelled"))
+        .doFinally(signal -> stage.stop());
+  }
+
+  private Stage begin(String name, Observation observation, String defaultOutcome) {
+    PipelineContext context = PipelineContext.current();
+    if (context != null) {
+      observation.highCardinalityKeyValue("requestId", context.requestId());
+      if (context.conversationId() != null) {
+        observation.highCardinalityKeyValue("conversationId", context.conversationId());
+      }
+    }
+    observation.start();
+    AgentEvent event = AgentEvents.forStage(name);
+    event.begin();
+    return new Stage(name, observation, context, event, defaultOutcome);
+  }
+}
@@ -0,0 +1,79 @@
+package com.yourapp.ai.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token and prompt-size metrics for LLM calls.
+ *
+ * <ul>
+ *   <li>{@code agent.llm.tokens}: prompt and completion tokens reported by the model, tagged
+ *       {@code role} (planner/answer), {@code type} (prompt/completion), {@code model},
+ *       {@code plan}.</li>
+ *   <li>{@code agent.prompt.section.chars} / {@code agent.prompt.section.tokens}: size of each
+ *       prompt section (system, question, memory, context, tool_result), tagged {@code section},
+ *       {@code model}, {@code plan}. Ollama only reports totals, so section tokens are estimated
+ *       at {@value #CHARS_PER_TOKEN} characters per token.</li>
+ * </ul>
+ */
+@Component
+public class TokenAccounting {
+
+  public static final int CHARS_PER_TOKEN = 4;
+
+  private final MeterRegistry registry;
+
+  public TokenAccounting(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /** Records the usage on {@code response} and returns prompt + completion tokens. */
+  public long recordUsage(String role, String model, String plan, ChatResponse response) {
+    Usage usage = usage(response);
+    if (usage == null) {
+      return 0;
+    }
+    long prompt = usage.getPromptTokens() == null ? 0 : usage.getPromptTokens();
+    long completion = usage.getCompletionTokens() == null ? 0 : usage.getCompletionTokens();
+    summary("agent.llm.tokens", "LLM tokens per call", "tokens",
+        "role", role, "type", "prompt", "model", model, "plan", plan).record(prompt);
+    summary("agent.llm.tokens", "LLM tokens per call", "tokens",
+        "role", role, "type", "completion", "model", model, "plan", plan).record(completion);
+    return prompt + completion;
+  }
+
+  public void recordPromptSections(String model, String plan, Map<String, String> sections) {
+    sections.forEach((section, text) -> {
+      int chars = text == null ? 0 : text.length();
+      summary("agent.prompt.section.chars", "Prompt section size", "chars",
+          "section", section, "model", model, "plan", plan).record(chars);
+      summary("agent.prompt.section.tokens", "Estimated prompt section tokens", "tokens",
+          "section", section, "model", model, "plan", plan).record(estimateTokens(chars));
+    });
+  }
+
+  public static long estimateTokens(int chars) {
+    return (chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+  }
+
+  private static Usage usage(ChatResponse response) {
+    if (response == null) {
+      return null;
+    }
+    ChatResponseMetadata metadata = response.getMetadata();
+    return metadata == null ? null : metadata.getUsage();
+  }
+
+  private DistributionSummary summary(String name, String description, String unit, String... tags) {
+    return DistributionSummary.builder(name)
+        .description(description)
+        .baseUnit(unit)
+        .tags(tags)
+        .register(registry);
+  }
+}
@@ -0,0 +1,411 @@
+package com.yourapp.ai.ollama;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes calls for one model role over several Ollama hosts, each represented by a model client
+ * {@code M} bound to that host.
+ *
+ * <ul>
+ *   <li>Routing: each call goes to the available endpoint with the fewest outstanding calls; ties
+ *       rotate. A slow host accumulates outstanding calls and so receives fewer new ones.</li>
+ *   <li>Ejection: after {@code ejectAfterFailures} consecutive failures an endpoint is taken out
+ *       of rotation for {@code ejectionTime}. When it comes back a single further failure ejects
+ *       it again. If every endpoint is ejected, the one due back first is used anyway.</li>
+ *   <li>Failover: a failed call that was not rejected by the host as invalid (4xx) is retried
+ *       once on another endpoint.</li>
+ *   <li>Hedging: with a {@link HedgePolicy}, a call still outstanding after the policy's
+ *       latency percentile is also sent to a second endpoint; the first result wins and the
+ *       other call is cancelled. Blocking calls are timed to completion, streams to their first
+ *       chunk.</li>
+ * </ul>
+ *
+ * <p>Cancelled calls (interrupts, hedge losers, client disconnects) are not held against an
+ * endpoint's health.
+ */
+public final class EndpointPool<M> {
+
+  private static final Logger log = LoggerFactory.getLogger(EndpointPool.class);
+
+  private static final int LATENCY_WINDOW = 256;
+
+  /** One Ollama host and the model client bound to it. */
+  public static final class Endpoint<M> {
+    private final String url;
+    private final M model;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private int consecutiveFailures;
+    private long ejectedUntilNanos;
+    private boolean ejected;
+    private Counter ejections;
+    private Timer latency;
+
+    public Endpoint(String url, M model) {
+      this.url = url;
+      this.model = model;
+    }
+
+    public String url() {
+      return url;
+    }
+
+    public M model() {
+      return model;
+    }
+  }
+
+  private final String name;
+  private final List<Endpoint<M>> endpoints;
+  private final int ejectAfterFailures;
+  private final Duration ejectionTime;
+  private final HedgePolicy hedge;
+  private final ExecutorService hedgeExecutor;
+  private final LatencyWindow callLatency = new LatencyWindow(LATENCY_WINDOW);
+  private final LatencyWindow firstChunkLatency = new LatencyWindow(LATENCY_WINDOW);
+  private final AtomicInteger rotation = new AtomicInteger();
+  private final Counter hedgesSent;
+  private final Counter hedgesWon;
+
+  public EndpointPool(
+      String name,
+      List<Endpoint<M>> endpoints,
+      int ejectAfterFailures,
+      Duration ejectionTime,
+      HedgePolicy hedge,
+      ExecutorService hedgeExecutor,
+      MeterRegistry meterRegistry) {
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("Pool " + name + " has no endpoints");
+    }
+    this.name = name;
+    this.endpoints = List.copyOf(endpoints);
+    this.ejectAfterFailures = Math.max(1, ejectAfterFailures);
+    this.ejectionTime = ejectionTime;
+    this.hedge = hedge;
+    this.hedgeExecutor = hedgeExecutor;
+
+    for (Endpoint<M> endpoint : this.endpoints) {
+      Gauge.builder("agent.ollama.outstanding", endpoint.outstanding, AtomicInteger::get)
+          .description("Calls in flight to an Ollama endpoint")
+          .tag("pool", name)
+          .tag("endpoint", endpoint.url)
+          .register(meterRegistry);
+      Gauge.builder("agent.ollama.available", endpoint, this::availability)
+          .description("1 while the endpoint is in rotation, 0 while it is ejected")
+          .tag("pool", name)
+          .tag("endpoint", endpoint.url)
+          .register(meterRegistry);
+      endpoint.ejections = Counter.builder("agent.ollama.ejections")
+          .description("Times an Ollama endpoint was taken out of rotation")
+          .tag("pool", name)
+          .tag("endpoint", endpoint.url)
+          .register(meterRegistry);
+      endpoint.latency = Timer.builder("agent.ollama.latency")
+          .description("Latency of successful calls to an Ollama endpoint")
+          .tag("pool", name)
+          .tag("endpoint", endpoint.url)
+          .register(meterRegistry);
+    }
+    this.hedgesSent = Counter.builder("agent.ollama.hedges")
+        .description("Hedged calls sent to a second endpoint, and how many of them won")
+        .tag("pool", name)
+        .tag("result", "sent")
+        .register(meterRegistry);
+    this.hedgesWon = Counter.builder("agent.ollama.hedges")
+        .description("Hedged calls sent to a second endpoint, and how many of them won")
+        .tag("pool", name)
+        .tag("result", "won")
+        .register(meterRegistry);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public List<Endpoint<M>> endpoints() {
+    return endpoints;
+  }
+
+  /** Runs a blocking call on one endpoint, hedging and failing over as configured. */
+  public <R> R call(Function<M, R> call) {
+    Endpoint<M> first = select(null);
+    long hedgeAfter = hedgeDelayNanos(callLatency);
+    if (hedgeAfter < 0) {
+      try {
+        return attempt(first, call);
+      } catch (RuntimeException e) {
+        Endpoint<M> second = failoverTarget(first, e);
+        if (second == null) {
+          throw e;
+        }
+        log.warn("Ollama call to {} failed; failing over to {}", first.url, second.url, e);
+        return attempt(second, call);
+      }
+    }
+    return hedged(first, hedgeAfter, call);
+  }
+
+  /**
+   * Runs a streaming call on one endpoint. A stream that fails before its first chunk fails over
+   * once; with hedging, a stream whose first chunk is late is raced against a second endpoint.
+   */
+  public <R> Flux<R> stream(Function<M, Flux<R>> call) {
+    return Flux.defer(() -> {
+      Endpoint<M> first = select(null);
+      long hedgeAfter = hedgeDelayNanos(firstChunkLatency);
+      if (hedgeAfter < 0) {
+        AtomicBoolean emitted = new AtomicBoolean();
+        return attemptStream(first, call)
+            .doOnNext(chunk -> emitted.set(true))
+            .onErrorResume(
+                e -> !emitted.get() && failoverTarget(first, e) != null,
+                e -> {
+                  Endpoint<M> second = failoverTarget(first, e);
+                  log.warn("Ollama stream from {} failed; failing over to {}", first.url, second.url, e);
+                  return attemptStream(second, call);
+                });
+      }
+      AtomicBoolean backupWon = new AtomicBoolean();
+      Flux<R> backup = Mono.delay(Duration.ofNanos(hedgeAfter))
+          .thenMany(Flux.defer(() -> {
+            hedgesSent.increment();
+            return attemptStream(select(first), call);
+          }))
+          .doOnNext(chunk -> {
+            if (backupWon.compareAndSet(false, true)) {
+              hedgesWon.increment();
+            }
+          });
+      return Flux.firstWithValue(attemptStream(first, call), backup)
+          .onErrorMap(NoSuchElementException.class::isInstance, EndpointPool::firstSuppressed);
+    });
+  }
+
+  /** Runs {@code call} once against every endpoint, e.g. to preload a model everywhere. */
+  public void forEach(Consumer<M> call) {
+    for (Endpoint<M> endpoint : endpoints) {
+      attempt(endpoint, model -> {
+        call.accept(model);
+        return null;
+      });
+    }
+  }
+
+  private <R> R hedged(Endpoint<M> first, long hedgeAfterNanos, Function<M, R> call) {
+    Race<R> race = new Race<>();
+    try {
+      race.start(first, call);
+      try {
+        return race.result.get(hedgeAfterNanos, TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        Endpoint<M> second = select(first);
+        hedgesSent.increment();
+        race.start(second, call);
+        R result = race.result.get();
+        if (race.winner.get() == second) {
+          hedgesWon.increment();
+        }
+        return result;
+      } catch (ExecutionException e) {
+        // The first endpoint failed before the hedge delay: fail over on this thread.
+        RuntimeException cause = unwrap(e);
+        Endpoint<M> second = failoverTarget(first, cause);
+        if (second == null) {
+          throw cause;
+        }
+        log.warn("Ollama call to {} failed; failing over to {}", first.url, second.url, cause);
+        return attempt(second, call);
+      }
+    } catch (ExecutionException e) {
+      throw unwrap(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for pool " + name, e);
+    } finally {
+      race.cancel();
+    }
+  }
+
+  /** Copies of one call on different endpoints; the first success completes {@link #result}. */
+  private final class Race<R> {
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    private final List<Future<?>> attempts = new ArrayList<>(2);
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicReference<Endpoint<M>> winner = new AtomicReference<>();
+
+    void start(Endpoint<M> endpoint, Function<M, R> call) {
+      pending.incrementAndGet();
+      attempts.add(hedgeExecutor.submit(() -> {
+        try {
+          R value = attempt(endpoint, call);
+          if (winner.compareAndSet(null, endpoint)) {
+            result.complete(value);
+          }
+        } catch (RuntimeException e) {
+          if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(e);
+          }
+        }
+      }));
+    }
+
+    /** Interrupts the losing call, which aborts its HTTP request. */
+    void cancel() {
+      attempts.forEach(attempt -> attempt.cancel(true));
+    }
+  }
+
+  private <R> R attempt(Endpoint<M> endpoint, Function<M, R> call) {
+    endpoint.outstanding.incrementAndGet();
+    long start = System.nanoTime();
+    try {
+      R result = call.apply(endpoint.model);
+      succeeded(endpoint, System.nanoTime() - start, callLatency);
+      return result;
+    } catch (RuntimeException e) {
+      if (!Thread.currentThread().isInterrupted()) {
+        failed(endpoint, e);
+      }
+      throw e;
+    } finally {
+      endpoint.outstanding.decrementAndGet();
+    }
+  }
+
+  private <R> Flux<R> attemptStream(Endpoint<M> endpoint, Function<M, Flux<R>> call) {
+    return Flux.defer(() -> {
+      endpoint.outstanding.incrementAndGet();
+      long start = System.nanoTime();
+      AtomicBoolean first = new AtomicBoolean(true);
+      return call.apply(endpoint.model)
+          .doOnNext(chunk -> {
+            if (first.compareAndSet(true, false)) {
+              succeeded(endpoint, System.nanoTime() - start, firstChunkLatency);
+            }
+          })
+          .doOnError(e -> failed(endpoint, e))
+          .doFinally(signal -> endpoint.outstanding.decrementAndGet());
+    });
+  }
+
+  /**
+   * The available endpoint with the fewest outstanding calls, other than {@code exclude}. Ties
+   * rotate so idle endpoints share the load.
+   */
+  private Endpoint<M> select(Endpoint<M> exclude) {
+    long now = System.nanoTime();
+    int size = endpoints.size();
+    int offset = Math.floorMod(rotation.getAndIncrement(), size);
+    Endpoint<M> best = null;
+    Endpoint<M> soonestBack = null;
+    for (int i = 0; i < size; i++) {
+      Endpoint<M> candidate = endpoints.get((offset + i) % size);
+      if (candidate == exclude) {
+        continue;
+      }
+      if (isEjected(candidate, now)) {
+        if (soonestBack == null || candidate.ejectedUntilNanos - soonestBack.ejectedUntilNanos < 0) {
+          soonestBack = candidate;
+        }
+      } else if (best == null || candidate.outstanding.get() < best.outstanding.get()) {
+        best = candidate;
+      }
+    }
+    if (best != null) {
+      return best;
+    }
+    return soonestBack != null ? soonestBack : exclude;
+  }
+
+  private Endpoint<M> failoverTarget(Endpoint<M> failed, Throwable error) {
+    if (endpoints.size() < 2 || !retryable(error) || Thread.currentThread().isInterrupted()) {
+      return null;
+    }
+    return select(failed);
+  }
+
+  /** Invalid requests would fail on any host and say nothing about this one's health. */
+  private static boolean retryable(Throwable error) {
+    return !(error instanceof NonTransientAiException)
+        && !(error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+  }
+
+  private long hedgeDelayNanos(LatencyWindow latencies) {
+    if (!hedge.enabled() || endpoints.size() < 2) {
+      return -1;
+    }
+    long percentile = latencies.percentile(hedge.percentile(), hedge.minSamples());
+    return percentile < 0 ? -1 : Math.max(percentile, hedge.minDelay().toNanos());
+  }
+
+  private void succeeded(Endpoint<M> endpoint, long nanos, LatencyWindow latencies) {
+    latencies.record(nanos);
+    endpoint.latency.record(nanos, TimeUnit.NANOSECONDS);
+    synchronized (endpoint) {
+      endpoint.consecutiveFailures = 0;
+      endpoint.ejected = false;
+    }
+  }
+
+  private void failed(Endpoint<M> endpoint, Throwable error) {
+    if (!retryable(error)) {
+      return;
+    }
+    synchronized (endpoint) {
+      endpoint.consecutiveFailures++;
+      long now = System.nanoTime();
+      if (endpoint.consecutiveFailures >= ejectAfterFailures && !isEjected(endpoint, now)) {
+        endpoint.ejected = true;
+        endpoint.ejectedUntilNanos = now + ejectionTime.toNanos();
+        endpoint.ejections.increment();
+        log.warn("Ejecting Ollama endpoint {} from pool {} for {} after {} consecutive failures",
+            endpoint.url, name, ejectionTime, endpoint.consecutiveFailures);
+      }
+    }
+  }
+
+  private boolean isEjected(Endpoint<M> endpoint, long now) {
+    synchronized (endpoint) {
+      return endpoint.ejected && endpoint.ejectedUntilNanos - now > 0;
+    }
+  }
+
+  private double availability(Endpoint<M> endpoint) {
+    return isEjected(endpoint, System.nanoTime()) ? 0 : 1;
+  }
+
+  /** {@code firstWithValue} reports "all sources failed"; surface the primary's error instead. */
+  private static Throwable firstSuppressed(Throwable error) {
+    return error.getSuppressed().length > 0 ? error.getSuppressed()[0] : error;
+  }
+
+  private static RuntimeException unwrap(ExecutionException e) {
+    return e.getCause() instanceof RuntimeException runtime
+        ? runtime
+        : new IllegalStateException(e.getCause());
+  }
+}
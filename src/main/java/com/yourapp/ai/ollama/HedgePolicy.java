@@ -0,0 +1,20 @@
+package com.yourapp.ai.ollama;
+
+import java.time.Duration;
+
+/**
+ * When a pool sends a second, hedged copy of a slow call to another endpoint: once the call has
+ * been outstanding longer than the {@code percentile} of the pool's recent latencies, and never
+ * sooner than {@code minDelay}. Until {@code minSamples} latencies have been seen nothing is
+ * hedged, so a cold pool does not double its load.
+ */
+public record HedgePolicy(boolean enabled, double percentile, Duration minDelay, int minSamples) {
+
+  public static final HedgePolicy DISABLED = new HedgePolicy(false, 0.95, Duration.ZERO, 0);
+
+  public HedgePolicy {
+    percentile = Math.min(0.999, Math.max(0.5, percentile));
+    minDelay = minDelay == null ? Duration.ZERO : minDelay;
+    minSamples = Math.max(1, minSamples);
+  }
+}
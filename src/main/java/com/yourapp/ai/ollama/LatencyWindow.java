@@ -0,0 +1,31 @@
+package com.yourapp.ai.ollama;
+
+import java.util.Arrays;
+
+/** The most recent call latencies of a pool, for the hedging percentile. */
+final class LatencyWindow {
+
+  private final long[] samples;
+  private int next;
+  private int count;
+
+  LatencyWindow(int size) {
+    this.samples = new long[size];
+  }
+
+  synchronized void record(long nanos) {
+    samples[next] = nanos;
+    next = (next + 1) % samples.length;
+    count = Math.min(count + 1, samples.length);
+  }
+
+  /** The {@code percentile} of the window, or {@code -1} with fewer than {@code minSamples}. */
+  synchronized long percentile(double percentile, int minSamples) {
+    if (count < minSamples) {
+      return -1;
+    }
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+  }
+}
@@ -0,0 +1,31 @@
+package com.yourapp.ai.ollama;
+
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.ai.chat.model.ChatModel;
+
+/**
+ * The pooled models configured under {@code app.ollama.pools}, by role ({@code planner},
+ * {@code answer}). A role without endpoints has no pool and uses the single
+ * {@code spring.ai.ollama.base-url} model.
+ */
+public record OllamaPools(Map<String, PooledChatModel> chatModels, PooledEmbeddingModel embeddingModel) {
+
+  public static final String PLANNER = "planner";
+  public static final String ANSWER = "answer";
+  public static final String EMBEDDING = "embedding";
+
+  public OllamaPools {
+    chatModels = Map.copyOf(chatModels);
+  }
+
+  /** The pooled model for {@code role}, or {@code fallback} when the role has no pool. */
+  public ChatModel chatModel(String role, ChatModel fallback) {
+    PooledChatModel pooled = chatModels.get(role);
+    return pooled == null ? fallback : pooled;
+  }
+
+  public Optional<PooledEmbeddingModel> embedding() {
+    return Optional.ofNullable(embeddingModel);
+  }
+}
@@ -0,0 +1,38 @@
+package com.yourapp.ai.ollama;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/** A {@link ChatModel} whose calls are routed over an {@link EndpointPool} of per-host models. */
+public class PooledChatModel implements ChatModel {
+
+  private final EndpointPool<ChatModel> pool;
+  private final ChatOptions defaultOptions;
+
+  public PooledChatModel(EndpointPool<ChatModel> pool) {
+    this.pool = pool;
+    this.defaultOptions = pool.endpoints().get(0).model().getDefaultOptions();
+  }
+
+  @Override
+  public ChatResponse call(Prompt prompt) {
+    return pool.call(model -> model.call(prompt));
+  }
+
+  @Override
+  public Flux<ChatResponse> stream(Prompt prompt) {
+    return pool.stream(model -> model.stream(prompt));
+  }
+
+  @Override
+  public ChatOptions getDefaultOptions() {
+    return defaultOptions;
+  }
+
+  public EndpointPool<ChatModel> pool() {
+    return pool;
+  }
+}
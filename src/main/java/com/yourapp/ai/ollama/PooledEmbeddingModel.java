@@ -0,0 +1,36 @@
+package com.yourapp.ai.ollama;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/** An {@link EmbeddingModel} whose calls are routed over an {@link EndpointPool} of per-host models. */
+public class PooledEmbeddingModel implements EmbeddingModel {
+
+  private final EndpointPool<EmbeddingModel> pool;
+
+  public PooledEmbeddingModel(EndpointPool<EmbeddingModel> pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public EmbeddingResponse call(EmbeddingRequest request) {
+    return pool.call(model -> model.call(request));
+  }
+
+  @Override
+  public float[] embed(Document document) {
+    return pool.call(model -> model.embed(document));
+  }
+
+  /** Every host serves the same model, so any of them can answer. */
+  @Override
+  public int dimensions() {
+    return pool.call(EmbeddingModel::dimensions);
+  }
+
+  public EndpointPool<EmbeddingModel> pool() {
+    return pool;
+  }
+}
@@ -1,27 +1,167 @@
 package com.yourapp.ai.rag;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.TokenCountBatchingStrategy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.*;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Component;
 
+/**
+ * Chunks the policy documents, embeds them and loads them into an {@link EmbeddingSearch}: the
+ * live store by default, or a shadow generation during a re-index.
+ *
+ * <p>When {@code app.rag.snapshot.dir} is set, the embedded corpus is also written to an
+ * {@link EmbeddingSnapshot} named after the embedding model and a hash of the chunked content. A
+ * later start with the same documents, chunking and model restores that snapshot through
+ * {@link EmbeddingSearch#add} instead of embedding every chunk again.
+ *
+ * <p>{@link #generation()} counts ingests (and promotions of re-indexed tables, see
+ * {@link #advanceGeneration()}); anything derived from search results can be tagged with it and
+ * discarded once it moves on.
+ */
 @Component
 public class DocIngestor {
 
-    private final VectorStore vectorStore;
+    private static final Logger log = LoggerFactory.getLogger(DocIngestor.class);
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
 
-    public DocIngestor(VectorStore vectorStore) {
-        this.vectorStore = vectorStore;
+    static final int DEFAULT_CHUNK_SIZE = 800;
+    static final int DEFAULT_CHUNK_OVERLAP = 100;
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingSearch embeddingSearch;
+    private final ObjectMapper mapper;
+    private final int chunkSize;
+    private final int chunkOverlap;
+    private final String embeddingModelName;
+    private final Path snapshotDir;
+    private final EmbeddingSnapshot.Quantization quantization;
+    private final AtomicLong generation = new AtomicLong();
+
+    public DocIngestor(
+            EmbeddingModel embeddingModel,
+            EmbeddingSearch embeddingSearch,
+            ObjectMapper mapper,
+            @Value("${app.rag.chunk-size:800}") int chunkSize,
+            @Value("${app.rag.chunk-overlap:100}") int chunkOverlap,
+            @Value("${spring.ai.ollama.embedding.options.model:nomic-embed-text}") String embeddingModelName,
+            @Value("${app.rag.snapshot.dir:}") String snapshotDir,
+            @Value("${app.rag.snapshot.quantization:float32}") String quantization) {
+        if (chunkSize <= 0 || chunkOverlap < 0 || chunkOverlap >= chunkSize) {
+            throw new IllegalArgumentException(
+                    "Invalid chunking: size=" + chunkSize + " overlap=" + chunkOverlap);
+        }
+        this.embeddingModel = embeddingModel;
+        this.embeddingSearch = embeddingSearch;
+        this.mapper = mapper;
+        this.chunkSize = chunkSize;
+        this.chunkOverlap = chunkOverlap;
+        this.embeddingModelName = embeddingModelName;
+        this.snapshotDir = snapshotDir == null || snapshotDir.isBlank() ? null : Path.of(snapshotDir);
+        this.quantization = EmbeddingSnapshot.Quantization.valueOf(quantization.toUpperCase(Locale.ROOT));
     }
 
     public int ingestClasspathDocs(String pattern) throws IOException {
+        return ingestClasspathDocs(pattern, embeddingSearch);
+    }
+
+    /**
+     * Hex SHA-256 of what an ingest of {@code pattern} would store: the chunked documents and the
+     * embedding model. Equal hashes mean a rebuild would produce the same corpus.
+     */
+    public String corpusHash(String pattern) throws IOException {
+        byte[] contentHash = contentHash(readChunks(pattern));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(embeddingModelName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(contentHash);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** The current index generation; it changes whenever the searchable corpus may have. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void advanceGeneration() {
+        generation.incrementAndGet();
+    }
+
+    public int ingestClasspathDocs(String pattern, EmbeddingSearch target) throws IOException {
+        try {
+            return ingest(pattern, target);
+        } finally {
+            // Even a failed ingest may have written some chunks.
+            advanceGeneration();
+        }
+    }
+
+    private int ingest(String pattern, EmbeddingSearch target) throws IOException {
+        List<Document> docs = readChunks(pattern);
+        if (snapshotDir == null) {
+            target.add(docs, embed(docs));
+            return docs.size();
+        }
+
+        byte[] contentHash = contentHash(docs);
+        Path file = snapshotDir.resolve(snapshotName(contentHash));
+        if (Files.exists(file)) {
+            long start = System.nanoTime();
+            EmbeddingSnapshot.Contents snapshot =
+                    EmbeddingSnapshot.read(file, embeddingModelName, contentHash, this::readMetadata);
+            if (snapshot != null) {
+                target.add(snapshot.documents(), snapshot.embeddings());
+                log.info("Restored {} chunks from embedding snapshot {} in {} ms",
+                        snapshot.documents().size(), file, (System.nanoTime() - start) / 1_000_000);
+                return snapshot.documents().size();
+            }
+        }
+
+        List<float[]> embeddings = embed(docs);
+        target.add(docs, embeddings);
+        try {
+            EmbeddingSnapshot.write(file, embeddingModelName, contentHash, docs, embeddings, quantization,
+                    this::writeMetadata);
+            deleteStaleSnapshots(file);
+            log.info("Wrote embedding snapshot {} ({} chunks, {})", file, docs.size(), quantization);
+        } catch (IOException e) {
+            // The corpus is already stored; a missing snapshot only costs the next start.
+            log.warn("Failed to write embedding snapshot {}", file, e);
+        }
+        return docs.size();
+    }
+
+    /** Same batching as {@code PgVectorStore.add}, but the vectors are kept for the caller. */
+    private List<float[]> embed(List<Document> docs) {
+        return embeddingModel.embed(docs, EmbeddingOptions.builder().build(), new TokenCountBatchingStrategy());
+    }
+
+    private List<Document> readChunks(String pattern) throws IOException {
         ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
         Resource[] resources = resolver.getResources(pattern);
+        // Stable order, so the content hash only changes when the documents do.
+        Arrays.sort(resources, Comparator.comparing(r -> String.valueOf(r.getFilename())));
 
         List<Document> docs = new ArrayList<>();
         for (Resource r : resources) {
@@ -35,17 +175,68 @@ public class DocIngestor {
                     "path", filename,
                     "policyId", policyId,
                     "title", title
-            )));
+            ), chunkSize, chunkOverlap));
         }
+        return docs;
+    }
 
-        vectorStore.add(docs);
-        return docs.size();
+    /** SHA-256 over every chunk's text and sorted metadata; document ids are random and excluded. */
+    private byte[] contentHash(List<Document> docs) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Document doc : docs) {
+                digest.update(doc.getText().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(writeMetadata(new TreeMap<>(doc.getMetadata())).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String snapshotName(byte[] contentHash) {
+        return snapshotPrefix() + HexFormat.of().formatHex(contentHash, 0, 8) + ".snap";
+    }
+
+    private String snapshotPrefix() {
+        return embeddingModelName.replaceAll("[^A-Za-z0-9._-]", "_") + "-";
     }
 
-    private List<Document> chunk(String text, Map<String, Object> baseMeta) {
-        int size = 800;
-        int overlap = 100;
+    /** Snapshots of the same model for an older corpus can never match again. */
+    private void deleteStaleSnapshots(Path current) throws IOException {
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (!file.equals(current) && name.startsWith(snapshotPrefix()) && name.endsWith(".snap")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private String writeMetadata(Map<String, Object> metadata) {
+        try {
+            return mapper.writeValueAsString(metadata);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write document metadata", e);
+        }
+    }
+
+    private Map<String, Object> readMetadata(String json) {
+        try {
+            return mapper.readValue(json, MAP_TYPE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read document metadata", e);
+        }
+    }
+
+    static List<Document> chunk(String text, Map<String, Object> baseMeta) {
+        return chunk(text, baseMeta, DEFAULT_CHUNK_SIZE, DEFAULT_CHUNK_OVERLAP);
+    }
 
+    static List<Document> chunk(String text, Map<String, Object> baseMeta, int size, int overlap) {
         List<Document> out = new ArrayList<>();
         int chunkIndex = 0;
         for (int start = 0; start < text.length(); start += (size - overlap)) {
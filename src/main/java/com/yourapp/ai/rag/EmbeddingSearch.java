@@ -0,0 +1,21 @@
+package com.yourapp.ai.rag;
+
+import java.util.List;
+import org.springframework.ai.document.Document;
+
+/**
+ * Vector store access with precomputed embeddings. Scores follow {@code VectorStore} semantics:
+ * cosine similarity, higher is closer.
+ */
+public interface EmbeddingSearch {
+
+    List<Document> search(float[] embedding, double similarityThreshold, int topK);
+
+    /** Search with per-query index settings; stores without an ANN index ignore them. */
+    default List<Document> search(float[] embedding, double similarityThreshold, int topK, SearchTuning tuning) {
+        return search(embedding, similarityThreshold, topK);
+    }
+
+    /** Stores documents whose embeddings are already known, e.g. restored from a snapshot. */
+    void add(List<Document> documents, List<float[]> embeddings);
+}
@@ -0,0 +1,254 @@
+package com.yourapp.ai.rag;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.ai.document.Document;
+
+/**
+ * Binary snapshot of an ingested corpus: chunk ids, text and metadata plus their embeddings, so an
+ * unchanged corpus can be restored without calling the embedding model.
+ *
+ * <p>Layout (big-endian):
+ * <pre>
+ *   int magic, int version, short+bytes model, 32 bytes content hash,
+ *   byte quantization (0 = float32, 1 = int8), int dimensions, int count, int blobLength
+ *   count x {int idOffset, int idLength, int textOffset, int textLength, int metaOffset, int metaLength}
+ *   blob: UTF-8 ids, texts and metadata JSON, padded to 4 bytes
+ *   float32: count x dimensions floats
+ *   int8:    count floats (per-vector scale), then count x dimensions bytes
+ * </pre>
+ * Reads go through a read-only memory mapping: the offsets table lets each chunk be decoded in
+ * place and the vectors are bulk-copied straight out of the mapping.
+ */
+public final class EmbeddingSnapshot {
+
+    private static final int MAGIC = 0x41474553; // "AGES"
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+
+    public enum Quantization {
+        FLOAT32, INT8
+    }
+
+    /** A decoded snapshot; {@code embeddings.get(i)} belongs to {@code documents.get(i)}. */
+    public record Contents(String model, byte[] contentHash, List<Document> documents, List<float[]> embeddings) {}
+
+    private EmbeddingSnapshot() {
+    }
+
+    public static void write(
+            Path file,
+            String model,
+            byte[] contentHash,
+            List<Document> documents,
+            List<float[]> embeddings,
+            Quantization quantization,
+            Function<Map<String, Object>, String> metadataJson) throws IOException {
+        if (contentHash.length != HASH_BYTES) {
+            throw new IllegalArgumentException("Content hash must be SHA-256");
+        }
+        int dimensions = embeddings.isEmpty() ? 0 : embeddings.get(0).length;
+        byte[] modelBytes = model.getBytes(StandardCharsets.UTF_8);
+
+        int[] table = new int[documents.size() * 6];
+        ByteArrayBlob blob = new ByteArrayBlob();
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            blob.append(document.getId(), table, i * 6);
+            blob.append(document.getText(), table, i * 6 + 2);
+            blob.append(metadataJson.apply(document.getMetadata()), table, i * 6 + 4);
+        }
+        int blobLength = align(blob.size());
+
+        int vectorBytes = quantization == Quantization.FLOAT32
+                ? documents.size() * dimensions * Float.BYTES
+                : documents.size() * (Float.BYTES + dimensions);
+        int size = 4 + 4 + 2 + modelBytes.length + HASH_BYTES + 1 + 4 + 4 + 4
+                + table.length * Integer.BYTES + blobLength + vectorBytes;
+
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION);
+        out.putShort((short) modelBytes.length).put(modelBytes);
+        out.put(contentHash);
+        out.put((byte) quantization.ordinal());
+        out.putInt(dimensions).putInt(documents.size()).putInt(blobLength);
+        for (int value : table) {
+            out.putInt(value);
+        }
+        out.put(blob.bytes(), 0, blob.size());
+        out.position(out.position() + blobLength - blob.size());
+
+        if (quantization == Quantization.FLOAT32) {
+            for (float[] embedding : embeddings) {
+                out.asFloatBuffer().put(checkDimensions(embedding, dimensions));
+                out.position(out.position() + dimensions * Float.BYTES);
+            }
+        } else {
+            byte[][] quantized = new byte[embeddings.size()][];
+            for (int i = 0; i < embeddings.size(); i++) {
+                float[] embedding = checkDimensions(embeddings.get(i), dimensions);
+                float scale = scale(embedding);
+                out.putFloat(scale);
+                quantized[i] = quantize(embedding, scale);
+            }
+            for (byte[] vector : quantized) {
+                out.put(vector);
+            }
+        }
+
+        // Write next to the target and move it into place so a reader never maps a partial file.
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, out.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps {@code file} and decodes it. Returns {@code null} when the file was written for another
+     * model or another corpus, so the caller re-embeds.
+     */
+    public static Contents read(
+            Path file,
+            String expectedModel,
+            byte[] expectedHash,
+            Function<String, Map<String, Object>> metadataParser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return null;
+            }
+            byte[] modelBytes = new byte[in.getShort()];
+            in.get(modelBytes);
+            byte[] hash = new byte[HASH_BYTES];
+            in.get(hash);
+            String model = new String(modelBytes, StandardCharsets.UTF_8);
+            if (!model.equals(expectedModel) || !Arrays.equals(hash, expectedHash)) {
+                return null;
+            }
+
+            Quantization quantization = Quantization.values()[in.get()];
+            int dimensions = in.getInt();
+            int count = in.getInt();
+            int blobLength = in.getInt();
+            int[] table = new int[count * 6];
+            in.asIntBuffer().get(table);
+            in.position(in.position() + table.length * Integer.BYTES);
+            int blobStart = in.position();
+
+            List<Document> documents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int base = i * 6;
+                documents.add(Document.builder()
+                        .id(string(in, blobStart, table[base], table[base + 1]))
+                        .text(string(in, blobStart, table[base + 2], table[base + 3]))
+                        .metadata(metadataParser.apply(string(in, blobStart, table[base + 4], table[base + 5])))
+                        .build());
+            }
+
+            in.position(blobStart + blobLength);
+            List<float[]> embeddings = new ArrayList<>(count);
+            if (quantization == Quantization.FLOAT32) {
+                for (int i = 0; i < count; i++) {
+                    float[] vector = new float[dimensions];
+                    in.asFloatBuffer().get(vector);
+                    in.position(in.position() + dimensions * Float.BYTES);
+                    embeddings.add(vector);
+                }
+            } else {
+                float[] scales = new float[count];
+                in.asFloatBuffer().get(scales);
+                in.position(in.position() + count * Float.BYTES);
+                byte[] quantized = new byte[dimensions];
+                for (int i = 0; i < count; i++) {
+                    in.get(quantized);
+                    embeddings.add(dequantize(quantized, scales[i]));
+                }
+            }
+            return new Contents(model, hash, documents, embeddings);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Truncated embedding snapshot " + file, e);
+        }
+    }
+
+    /** Symmetric int8 quantization: each vector keeps its own scale, max |x| maps to 127. */
+    static float scale(float[] embedding) {
+        float max = 0;
+        for (float value : embedding) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max == 0 ? 1f : max / 127f;
+    }
+
+    static byte[] quantize(float[] embedding, float scale) {
+        byte[] out = new byte[embedding.length];
+        for (int i = 0; i < embedding.length; i++) {
+            out[i] = (byte) Math.max(-127, Math.min(127, Math.round(embedding[i] / scale)));
+        }
+        return out;
+    }
+
+    static float[] dequantize(byte[] quantized, float scale) {
+        float[] out = new float[quantized.length];
+        for (int i = 0; i < quantized.length; i++) {
+            out[i] = quantized[i] * scale;
+        }
+        return out;
+    }
+
+    private static String string(ByteBuffer in, int blobStart, int offset, int length) {
+        byte[] bytes = new byte[length];
+        in.get(blobStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static float[] checkDimensions(float[] embedding, int dimensions) {
+        if (embedding.length != dimensions) {
+            throw new IllegalArgumentException(
+                    "Mixed embedding dimensions: " + embedding.length + " vs " + dimensions);
+        }
+        return embedding;
+    }
+
+    private static int align(int length) {
+        return (length + 3) & ~3;
+    }
+
+    /** Growable UTF-8 buffer that records (offset, length) pairs into the chunk table. */
+    private static final class ByteArrayBlob {
+        private byte[] bytes = new byte[4096];
+        private int size;
+
+        void append(String value, int[] table, int slot) {
+            byte[] encoded = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            if (size + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + encoded.length));
+            }
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            table[slot] = size;
+            table[slot + 1] = encoded.length;
+            size += encoded.length;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.yourapp.ai.rag;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Direct JDBC access to the pgvector table written by {@code PgVectorStore}.
+ *
+ * <p>{@code VectorStore.similaritySearch} always embeds the query text itself. This component
+ * searches with a precomputed embedding instead, so callers that already hold embeddings (for
+ * example from one batched embedding call) do not pay for a second round-trip to Ollama.
+ *
+ * <p>The corpus lives in generations. Generation 0 is {@code app.rag.vector-table} itself; a
+ * re-index builds generation {@code n} in a shadow table {@code <vector-table>_g<n>} and
+ * {@link #promote promotes} it by updating the one-row {@code <vector-table>_generation} table.
+ * Each query reads the active table once, so a switch is atomic for readers; other instances pick
+ * it up with {@link #refresh()}.
+ *
+ * <p>The table a promotion replaces is recorded in {@code <vector-table>_retired} with the time of
+ * the switch, and {@link #dropStale(Duration)} only drops it once that is longer ago than instances
+ * take to notice the switch. The pointer row also keeps the {@link #corpusHash() corpus hash} of
+ * the active generation, so an unchanged corpus need not be built again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.vector-store", havingValue = "pgvector", matchIfMissing = true)
+public class PgVectorTable implements EmbeddingSearch {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    /** A generation of the corpus and the table holding it. */
+    public record Generation(String table, long number) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate writeTransactionTemplate;
+    private final ObjectMapper mapper;
+    private final String baseTable;
+    private final String generationTable;
+    private final String retiredTable;
+    private volatile Generation active;
+    private volatile boolean generationTableReady;
+
+    public PgVectorTable(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper mapper,
+            @Value("${app.rag.vector-table:vector_store}") String vectorTable) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.writeTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.mapper = mapper;
+        this.baseTable = sanitizeTableName(vectorTable);
+        this.generationTable = baseTable + "_generation";
+        this.retiredTable = baseTable + "_retired";
+        this.active = new Generation(baseTable, 0);
+    }
+
+    /** The table queries currently read. */
+    public String table() {
+        return active.table();
+    }
+
+    public Generation active() {
+        return active;
+    }
+
+    /** Reads the active generation, which another instance may have promoted. Returns whether it changed. */
+    public boolean refresh() {
+        ensureGenerationTable();
+        Generation current = jdbcTemplate.queryForObject(
+                "SELECT active_table, generation FROM " + generationTable,
+                (rs, rowNum) -> new Generation(rs.getString(1), rs.getLong(2)));
+        if (current == null || current.equals(active)) {
+            return false;
+        }
+        active = current;
+        return true;
+    }
+
+    /** Hash of the corpus the active generation was built from, or {@code null} if unknown. */
+    public String corpusHash() {
+        ensureGenerationTable();
+        return jdbcTemplate.queryForObject("SELECT corpus_hash FROM " + generationTable, String.class);
+    }
+
+    /**
+     * Claims the next generation number and creates its empty table with the base table's
+     * columns. Numbers are claimed atomically, so concurrent builds never share a table.
+     */
+    public Generation createShadow() {
+        ensureGenerationTable();
+        Long number = jdbcTemplate.queryForObject(
+                "UPDATE " + generationTable + " SET next_generation = GREATEST(next_generation, generation) + 1"
+                        + " RETURNING next_generation",
+                Long.class);
+        Generation shadow = new Generation(baseTable + "_g" + number, number);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + shadow.table());
+        jdbcTemplate.execute("CREATE TABLE " + shadow.table() + " (LIKE " + baseTable + " INCLUDING DEFAULTS)");
+        jdbcTemplate.execute("ALTER TABLE " + shadow.table() + " ADD PRIMARY KEY (id)");
+        return shadow;
+    }
+
+    /** Refreshes planner statistics of a freshly loaded table before it takes traffic. */
+    public void analyze(Generation generation) {
+        jdbcTemplate.execute("ANALYZE " + generation.table());
+    }
+
+    /**
+     * Makes {@code shadow}, built from the corpus with {@code corpusHash}, the active generation
+     * unless a newer one was promoted meanwhile. The table it replaces is retired, not dropped:
+     * queries and instances that have not switched yet still read it.
+     */
+    public boolean promote(Generation shadow, String corpusHash) {
+        Boolean promoted = writeTransactionTemplate.execute(status -> {
+            List<String> replaced = jdbcTemplate.queryForList(
+                    "SELECT active_table FROM " + generationTable + " WHERE generation < ? FOR UPDATE",
+                    String.class, shadow.number());
+            if (replaced.isEmpty()) {
+                return false;
+            }
+            jdbcTemplate.update(
+                    "UPDATE " + generationTable + " SET active_table = ?, generation = ?, corpus_hash = ?,"
+                            + " switched_at = now()",
+                    shadow.table(), shadow.number(), corpusHash);
+            if (!replaced.get(0).equals(baseTable)) {
+                jdbcTemplate.update("INSERT INTO " + retiredTable + " (table_name, retired_at) VALUES (?, now())"
+                        + " ON CONFLICT (table_name) DO UPDATE SET retired_at = EXCLUDED.retired_at",
+                        replaced.get(0));
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(promoted)) {
+            return false;
+        }
+        active = shadow;
+        return true;
+    }
+
+    /**
+     * Drops generation tables that were switched away from more than {@code grace} ago, i.e. that
+     * no instance polling at least that often can still be reading.
+     */
+    public List<String> dropStale(Duration grace) {
+        ensureGenerationTable();
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM " + retiredTable
+                        + " WHERE retired_at < now() - make_interval(secs => ?)"
+                        + " AND table_name <> (SELECT active_table FROM " + generationTable + ")",
+                String.class, grace.toMillis() / 1000.0);
+        List<String> dropped = new ArrayList<>();
+        for (String stale : tables) {
+            drop(stale);
+            jdbcTemplate.update("DELETE FROM " + retiredTable + " WHERE table_name = ?", stale);
+            dropped.add(stale);
+        }
+        return dropped;
+    }
+
+    public void drop(String generationTableName) {
+        if (generationTableName.equals(baseTable)) {
+            throw new IllegalArgumentException("Refusing to drop the base vector table " + baseTable);
+        }
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + sanitizeTableName(generationTableName));
+    }
+
+    /** Search and upserts against one generation's table, e.g. to load a shadow before promotion. */
+    public EmbeddingSearch forGeneration(Generation generation) {
+        String target = generation.table();
+        return new EmbeddingSearch() {
+            @Override
+            public List<Document> search(float[] embedding, double similarityThreshold, int topK) {
+                return query(target, embedding, similarityThreshold, topK);
+            }
+
+            @Override
+            public void add(List<Document> documents, List<float[]> embeddings) {
+                insert(target, documents, embeddings);
+            }
+        };
+    }
+
+    private void ensureGenerationTable() {
+        if (generationTableReady) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + generationTable + " ("
+                + "id boolean PRIMARY KEY DEFAULT true CHECK (id),"
+                + " active_table text NOT NULL,"
+                + " generation bigint NOT NULL,"
+                + " next_generation bigint NOT NULL,"
+                + " switched_at timestamptz NOT NULL DEFAULT now(),"
+                + " corpus_hash text)");
+        // Pointer tables created before the corpus hash was tracked.
+        jdbcTemplate.execute("ALTER TABLE " + generationTable + " ADD COLUMN IF NOT EXISTS corpus_hash text");
+        jdbcTemplate.update("INSERT INTO " + generationTable + " (active_table, generation, next_generation)"
+                + " VALUES (?, 0, 0) ON CONFLICT (id) DO NOTHING", baseTable);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + retiredTable + " ("
+                + "table_name text PRIMARY KEY,"
+                + " retired_at timestamptz NOT NULL DEFAULT now())");
+        generationTableReady = true;
+    }
+
+    /**
+     * Cosine similarity search matching {@code PgVectorStore} semantics: score = 1 - distance.
+     */
+    @Override
+    public List<Document> search(float[] embedding, double similarityThreshold, int topK) {
+        return query(table(), embedding, similarityThreshold, topK);
+    }
+
+    /**
+     * The ANN settings are applied with {@code set_config(..., true)}, i.e. {@code SET LOCAL}, so
+     * they last for this query's transaction and never leak to other users of the pooled connection.
+     * The same goes for the deadline's {@code statement_timeout}, which makes the server cancel a
+     * query whose result would arrive too late to be used.
+     */
+    @Override
+    public List<Document> search(float[] embedding, double similarityThreshold, int topK, SearchTuning tuning) {
+        String table = table();
+        if (tuning.isDefault()) {
+            return query(table, embedding, similarityThreshold, topK);
+        }
+        return transactionTemplate.execute(status -> {
+            applyTuning(tuning);
+            return query(table, embedding, similarityThreshold, topK);
+        });
+    }
+
+    void applyTuning(SearchTuning tuning) {
+        if (tuning.efSearch() > 0) {
+            jdbcTemplate.queryForObject("SELECT set_config('hnsw.ef_search', ?, true)",
+                    String.class, Integer.toString(tuning.efSearch()));
+        }
+        if (tuning.probes() > 0) {
+            jdbcTemplate.queryForObject("SELECT set_config('ivfflat.probes', ?, true)",
+                    String.class, Integer.toString(tuning.probes()));
+        }
+        if (tuning.timeoutMillis() > 0) {
+            jdbcTemplate.queryForObject("SELECT set_config('statement_timeout', ?, true)",
+                    String.class, Long.toString(tuning.timeoutMillis()));
+        }
+    }
+
+    /** The similarity query, shared with {@code VectorIndexManager}'s plan check. */
+    String searchSql(String table) {
+        return "SELECT id, content, metadata, embedding <=> ?::vector AS distance"
+                + " FROM " + table
+                + " WHERE embedding <=> ?::vector < ?"
+                + " ORDER BY distance LIMIT ?";
+    }
+
+    private List<Document> query(String table, float[] embedding, double similarityThreshold, int topK) {
+        String vector = toVectorLiteral(embedding);
+        return jdbcTemplate.query(
+                searchSql(table),
+                (rs, rowNum) -> Document.builder()
+                        .id(rs.getString("id"))
+                        .text(rs.getString("content"))
+                        .metadata(readMetadata(rs.getString("metadata")))
+                        .score(1.0 - rs.getDouble("distance"))
+                        .build(),
+                vector,
+                vector,
+                1.0 - similarityThreshold,
+                topK);
+    }
+
+    /** Upserts rows in the {@code PgVectorStore} schema without calling the embedding model. */
+    @Override
+    public void add(List<Document> documents, List<float[]> embeddings) {
+        insert(table(), documents, embeddings);
+    }
+
+    private void insert(String table, List<Document> documents, List<float[]> embeddings) {
+        String sql = "INSERT INTO " + table + " (id, content, metadata, embedding)"
+                + " VALUES (?::uuid, ?, ?::json, ?::vector)"
+                + " ON CONFLICT (id) DO UPDATE SET content = EXCLUDED.content,"
+                + " metadata = EXCLUDED.metadata, embedding = EXCLUDED.embedding";
+        List<Object[]> rows = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            rows.add(new Object[] {
+                    document.getId(),
+                    document.getText(),
+                    writeMetadata(document.getMetadata()),
+                    toVectorLiteral(embeddings.get(i))});
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    static String toVectorLiteral(float[] embedding) {
+        StringBuilder out = new StringBuilder(embedding.length * 12);
+        out.append('[');
+        for (int i = 0; i < embedding.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(embedding[i]);
+        }
+        return out.append(']').toString();
+    }
+
+    static String sanitizeTableName(String vectorTable) {
+        String sanitized = vectorTable.replaceAll("[^A-Za-z0-9_]", "");
+        if (sanitized.isBlank()) {
+            throw new IllegalArgumentException("Invalid vector table name: " + vectorTable);
+        }
+        return sanitized;
+    }
+
+    private String writeMetadata(Map<String, Object> metadata) {
+        try {
+            return mapper.writeValueAsString(metadata);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to write vector metadata", e);
+        }
+    }
+
+    private Map<String, Object> readMetadata(String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return mapper.readValue(json, MAP_TYPE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to read vector metadata", e);
+        }
+    }
+}
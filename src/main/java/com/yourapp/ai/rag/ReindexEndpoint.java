@@ -0,0 +1,41 @@
+package com.yourapp.ai.rag;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/reindex}: reports the active vector generation and the last re-index, and
+ * starts a blue/green re-index ({@link VectorReindexer}) without a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.vector-store", havingValue = "pgvector", matchIfMissing = true)
+@Endpoint(id = "reindex")
+public class ReindexEndpoint {
+
+    private static final int STATUS_ACCEPTED = 202;
+    private static final int STATUS_CONFLICT = 409;
+
+    private final VectorReindexer reindexer;
+
+    public ReindexEndpoint(VectorReindexer reindexer) {
+        this.reindexer = reindexer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return reindexer.status();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> reindex() {
+        if (!reindexer.trigger("actuator")) {
+            return new WebEndpointResponse<>(Map.of("error", "reindex_running"), STATUS_CONFLICT);
+        }
+        return new WebEndpointResponse<>(reindexer.status(), STATUS_ACCEPTED);
+    }
+}
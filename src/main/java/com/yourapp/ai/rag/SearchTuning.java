@@ -0,0 +1,35 @@
+package com.yourapp.ai.rag;
+
+import java.time.Duration;
+
+/**
+ * Per-query settings: {@code hnsw.ef_search}, {@code ivfflat.probes} and a
+ * {@code statement_timeout} derived from the request deadline. Zero leaves the server default in
+ * place. Only the ANN setting matching the table's index has any effect.
+ */
+public record SearchTuning(int efSearch, int probes, long timeoutMillis) {
+
+    public static final SearchTuning DEFAULT = new SearchTuning(0, 0);
+
+    /** {@code statement_timeout} is an int of milliseconds. */
+    public static final Duration MAX_TIMEOUT = Duration.ofMillis(Integer.MAX_VALUE);
+
+    public SearchTuning(int efSearch, int probes) {
+        this(efSearch, probes, 0);
+    }
+
+    /** HNSW returns at most {@code ef_search} rows, so it must not be below {@code topK}. */
+    public SearchTuning forTopK(int topK) {
+        return efSearch > 0 && efSearch < topK ? new SearchTuning(topK, probes, timeoutMillis) : this;
+    }
+
+    /** Cancels the query server-side after {@code timeout}; at least one millisecond. */
+    public SearchTuning withTimeout(Duration timeout) {
+        long millis = Math.min(MAX_TIMEOUT.toMillis(), timeout.toMillis());
+        return new SearchTuning(efSearch, probes, Math.max(1, millis));
+    }
+
+    public boolean isDefault() {
+        return efSearch <= 0 && probes <= 0 && timeoutMillis <= 0;
+    }
+}
@@ -0,0 +1,99 @@
+package com.yourapp.ai.rag;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the corpus at startup ({@code app.rag.ingest-on-startup}) and makes sure the ANN index
+ * exists.
+ *
+ * <p>By default this runs as a {@link CommandLineRunner}, before the node reports ready. With
+ * {@code app.startup.defer-ingestion} it runs on a background thread once the node accepts
+ * traffic instead, so a scaled-out node serves from the corpus already in the vector store (with
+ * pgvector, the active generation stays in place until the re-index promotes a new one). Only
+ * picking up the active generation stays on the startup path.
+ */
+@Component
+public class StartupIngestion implements CommandLineRunner, ApplicationListener<AvailabilityChangeEvent<ReadinessState>> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupIngestion.class);
+
+    private final DocIngestor ingestor;
+    private final ObjectProvider<VectorIndexManager> indexManager;
+    private final ObjectProvider<VectorReindexer> reindexer;
+    private final boolean ingestOnStartup;
+    private final boolean clearOnStartup;
+    private final String docsPattern;
+    private final boolean deferred;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    public StartupIngestion(
+            DocIngestor ingestor,
+            ObjectProvider<VectorIndexManager> indexManager,
+            ObjectProvider<VectorReindexer> reindexer,
+            @Value("${app.rag.ingest-on-startup:false}") boolean ingestOnStartup,
+            @Value("${app.rag.clear-on-startup:false}") boolean clearOnStartup,
+            @Value("${app.rag.docs-pattern:classpath:/docs/*.txt}") String docsPattern,
+            @Value("${app.startup.defer-ingestion:false}") boolean deferred) {
+        this.ingestor = ingestor;
+        this.indexManager = indexManager;
+        this.reindexer = reindexer;
+        this.ingestOnStartup = ingestOnStartup;
+        this.clearOnStartup = clearOnStartup;
+        this.docsPattern = docsPattern;
+        this.deferred = deferred;
+    }
+
+    @Override
+    public void run(String... args) {
+        // Another instance may have promoted a newer generation since this one last ran.
+        reindexer.ifAvailable(VectorReindexer::refresh);
+        if (!deferred) {
+            prepareCorpus();
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+        if (deferred && event.getState() == ReadinessState.ACCEPTING_TRAFFIC && started.compareAndSet(false, true)) {
+            Thread.ofPlatform().name("deferred-ingestion").daemon(true).start(() -> {
+                long start = System.nanoTime();
+                try {
+                    prepareCorpus();
+                    log.info("Deferred ingestion finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+                } catch (RuntimeException e) {
+                    log.error("Deferred ingestion failed", e);
+                }
+            });
+        }
+    }
+
+    private void prepareCorpus() {
+        VectorReindexer blueGreen = reindexer.getIfAvailable();
+        if (ingestOnStartup && clearOnStartup && blueGreen != null) {
+            // Builds a fresh generation and switches to it, unless the active one holds the same
+            // corpus already; replaces truncating the live table.
+            blueGreen.reindexIfChanged("startup");
+            return;
+        }
+        if (ingestOnStartup) {
+            try {
+                int count = ingestor.ingestClasspathDocs(docsPattern);
+                log.info("Ingested {} document chunks from {}", count, docsPattern);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to ingest docs from " + docsPattern, e);
+            }
+        }
+        // After ingestion: IVFFlat clusters whatever rows exist when the index is built.
+        indexManager.ifAvailable(VectorIndexManager::ensureIndex);
+    }
+}
@@ -0,0 +1,220 @@
+package com.yourapp.ai.rag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Owns the ANN index on the pgvector table ({@code spring.ai.vectorstore.pgvector.index-type} is
+ * {@code NONE}, so {@code PgVectorStore} creates none of its own).
+ *
+ * <p>{@link #ensureIndex(String)} runs after ingestion, on the active table at startup and on the
+ * shadow table during a re-index, before it is promoted. It creates the configured HNSW or
+ * IVFFlat index (IVFFlat clusters the rows present at build time, so it must follow the data),
+ * rebuilds it when its parameters changed, records the build time as
+ * {@code agent.vector.index.build} and checks with {@code EXPLAIN} that the similarity query
+ * actually uses an index.
+ *
+ * <p>There is one index per table. Partial indexes per document {@code source} are not built:
+ * the similarity query has no source predicate, so the planner would never pick them.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.vector-store", havingValue = "pgvector", matchIfMissing = true)
+public class VectorIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorIndexManager.class);
+
+    public enum IndexType {
+        NONE, HNSW, IVFFLAT
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PgVectorTable vectorTable;
+    private final MeterRegistry meterRegistry;
+    private final IndexType type;
+    private final int m;
+    private final int efConstruction;
+    private final int lists;
+    private final boolean rebuildOnStartup;
+    private final SearchTuning tuning;
+
+    public VectorIndexManager(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PgVectorTable vectorTable,
+            MeterRegistry meterRegistry,
+            @Value("${app.rag.index.type:hnsw}") String type,
+            @Value("${app.rag.index.m:16}") int m,
+            @Value("${app.rag.index.ef-construction:64}") int efConstruction,
+            @Value("${app.rag.index.lists:0}") int lists,
+            @Value("${app.rag.index.rebuild-on-startup:false}") boolean rebuildOnStartup,
+            @Value("${app.rag.index.ef-search:0}") int efSearch,
+            @Value("${app.rag.index.probes:0}") int probes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.vectorTable = vectorTable;
+        this.meterRegistry = meterRegistry;
+        this.type = IndexType.valueOf(type.toUpperCase(Locale.ROOT));
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.lists = lists;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.tuning = new SearchTuning(efSearch, probes);
+    }
+
+    /** Creates or rebuilds the configured indexes of the active table, then checks the query plan. */
+    public void ensureIndex() {
+        ensureIndex(vectorTable.table());
+    }
+
+    public void ensureIndex(String table) {
+        if (type == IndexType.NONE) {
+            log.info("Vector index management disabled (app.rag.index.type=none)");
+            return;
+        }
+        String wanted = indexName(table);
+        build(table, rowCount(table));
+        // Indexes of another type (or per-source partial indexes of older versions) only slow down writes.
+        for (String index : managedIndexes(table)) {
+            if (!wanted.equals(index)) {
+                jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+                log.info("Dropped vector index {}", index);
+            }
+        }
+        checkQueryPlan(table);
+    }
+
+    /** Drops and recreates every managed index of the active table, e.g. after a large re-ingest. */
+    public void rebuild() {
+        String table = vectorTable.table();
+        for (String index : managedIndexes(table)) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+        }
+        ensureIndex(table);
+    }
+
+    private void build(String table, long rows) {
+        String name = indexName(table);
+        String definition = definition(table, rows);
+        String existing = existingDefinition(table, name);
+        if (existing != null && !rebuildOnStartup && matches(table, existing, rows)) {
+            log.info("Vector index {} is up to date", name);
+            return;
+        }
+        if (existing != null) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + name);
+        }
+
+        long start = System.nanoTime();
+        jdbcTemplate.execute(definition);
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("agent.vector.index.build")
+                .description("Time to build a pgvector ANN index")
+                .tag("type", type.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Built vector index {} over {} rows in {} ms: {}",
+                name, rows, TimeUnit.NANOSECONDS.toMillis(elapsed), definition);
+    }
+
+    String definition(String table, long rows) {
+        String with = switch (type) {
+            case HNSW -> "USING hnsw (embedding vector_cosine_ops) WITH (m = " + m
+                    + ", ef_construction = " + efConstruction + ")";
+            case IVFFLAT -> "USING ivfflat (embedding vector_cosine_ops) WITH (lists = " + ivfflatLists(rows) + ")";
+            case NONE -> throw new IllegalStateException("No index type configured");
+        };
+        return "CREATE INDEX " + indexName(table) + " ON " + table + " " + with;
+    }
+
+    /** pgvector guidance: rows / 1000 up to a million rows, sqrt(rows) beyond; {@code lists > 0} overrides. */
+    int ivfflatLists(long rows) {
+        if (lists > 0) {
+            return lists;
+        }
+        if (rows <= 1_000_000) {
+            return (int) Math.max(1, rows / 1000);
+        }
+        return (int) Math.sqrt(rows);
+    }
+
+    /**
+     * Compares the access method and {@code WITH} parameters of the live definition (as reported
+     * by {@code pg_indexes}, which quotes values) with the configured ones. Automatic IVFFlat list
+     * counts are not compared, so growth alone does not trigger a rebuild; use {@link #rebuild()}.
+     */
+    private boolean matches(String table, String existing, long rows) {
+        String live = normalize(existing);
+        if (type == IndexType.IVFFLAT && lists == 0) {
+            return live.contains("usingivfflat");
+        }
+        String wanted = normalize(definition(table, rows));
+        return live.contains(wanted.substring(wanted.indexOf("using")));
+    }
+
+    private static String normalize(String definition) {
+        return definition.toLowerCase(Locale.ROOT).replace(" ", "").replace("'", "");
+    }
+
+    private void checkQueryPlan(String table) {
+        String sample = jdbcTemplate.query("SELECT embedding::text FROM " + table + " LIMIT 1",
+                rs -> rs.next() ? rs.getString(1) : null);
+        if (sample == null) {
+            log.info("Vector table {} is empty; skipping query plan check", table);
+            return;
+        }
+        List<String> plan = transactionTemplate.execute(status -> {
+            vectorTable.applyTuning(tuning);
+            // Small tables favour a sequential scan; the check is about whether the index can be used.
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return jdbcTemplate.queryForList("EXPLAIN " + vectorTable.searchSql(table), String.class,
+                    sample, sample, 1.0, 4);
+        });
+        String joined = String.join("\n", plan);
+        if (joined.contains(indexName(table))) {
+            log.info("Similarity search uses {}:\n{}", indexName(table), joined);
+        } else {
+            log.warn("Similarity search does not use the {} index; check the operator class and query:\n{}",
+                    type.name().toLowerCase(Locale.ROOT), joined);
+        }
+    }
+
+    private String indexName(String table) {
+        return table + "_embedding_" + type.name().toLowerCase(Locale.ROOT) + "_idx";
+    }
+
+    private String existingDefinition(String table, String name) {
+        List<String> definitions = jdbcTemplate.queryForList(
+                "SELECT indexdef FROM pg_indexes WHERE tablename = ? AND indexname = ?",
+                String.class, table, name);
+        return definitions.isEmpty() ? null : definitions.get(0);
+    }
+
+    private List<String> managedIndexes(String table) {
+        List<String> names = new ArrayList<>();
+        for (IndexType candidate : List.of(IndexType.HNSW, IndexType.IVFFLAT)) {
+            names.addAll(jdbcTemplate.queryForList(
+                    "SELECT indexname FROM pg_indexes WHERE tablename = ? AND indexname LIKE ?",
+                    String.class, table,
+                    table + "_embedding_" + candidate.name().toLowerCase(Locale.ROOT) + "_idx%"));
+        }
+        return names;
+    }
+
+    private long rowCount(String table) {
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+        return rows == null ? 0 : rows;
+    }
+}
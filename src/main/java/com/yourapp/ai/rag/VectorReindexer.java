@@ -0,0 +1,309 @@
+package com.yourapp.ai.rag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Blue/green re-index of the pgvector corpus.
+ *
+ * <p>A re-index claims a new generation, ingests the documents into its shadow table, builds the
+ * ANN index and statistics there, and only then promotes it (see {@link PgVectorTable}). Queries
+ * keep reading the previous generation until the switch and never see a partially built table.
+ * Builds run one at a time on a background thread and embed one batch at a time, so a re-index
+ * holds at most one embedding slot on Ollama while queries keep theirs.
+ *
+ * <p>Triggers: startup when {@code app.rag.clear-on-startup} is set, {@code /actuator/reindex},
+ * and, with {@code app.rag.reindex.watch}, changes under a {@code file:} docs pattern, debounced
+ * by {@code app.rag.reindex.debounce}. Every {@code app.rag.reindex.poll-interval} the active
+ * generation is re-read, so instances that did not build it switch as well.
+ *
+ * <p>Startup and watch triggers skip the build when the {@link DocIngestor#corpusHash corpus hash}
+ * equals the active generation's, so restarting a fleet does not churn generations; the actuator
+ * always rebuilds. A replaced table is dropped once it was switched away from more than
+ * {@code poll-interval} plus {@code app.rag.reindex.drop-margin} ago, by whichever instance
+ * promotes or polls next.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rag.vector-store", havingValue = "pgvector", matchIfMissing = true)
+public class VectorReindexer implements ApplicationListener<ApplicationReadyEvent>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorReindexer.class);
+
+    private final PgVectorTable vectorTable;
+    private final DocIngestor ingestor;
+    private final ObjectProvider<VectorIndexManager> indexManager;
+    private final MeterRegistry meterRegistry;
+    private final String docsPattern;
+    private final boolean watch;
+    private final Duration debounce;
+    private final Duration pollInterval;
+    private final Duration dropGrace;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Map.of();
+    private volatile ScheduledFuture<?> pendingWatchTrigger;
+    private volatile WatchService watchService;
+
+    public VectorReindexer(
+            PgVectorTable vectorTable,
+            DocIngestor ingestor,
+            ObjectProvider<VectorIndexManager> indexManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.rag.docs-pattern:classpath:/docs/*.txt}") String docsPattern,
+            @Value("${app.rag.reindex.watch:false}") boolean watch,
+            @Value("${app.rag.reindex.debounce:5s}") Duration debounce,
+            @Value("${app.rag.reindex.poll-interval:30s}") Duration pollInterval,
+            @Value("${app.rag.reindex.drop-margin:30s}") Duration dropMargin) {
+        this.vectorTable = vectorTable;
+        this.ingestor = ingestor;
+        this.indexManager = indexManager;
+        this.meterRegistry = meterRegistry;
+        this.docsPattern = docsPattern;
+        this.watch = watch;
+        this.debounce = debounce;
+        this.pollInterval = pollInterval;
+        this.dropGrace = pollInterval.isNegative() ? dropMargin : pollInterval.plus(dropMargin);
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("vector-reindex").daemon(true).factory());
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!pollInterval.isZero() && !pollInterval.isNegative()) {
+            long nanos = pollInterval.toNanos();
+            executor.scheduleWithFixedDelay(this::refreshQuietly, nanos, nanos, TimeUnit.NANOSECONDS);
+        }
+        if (watch) {
+            startWatching();
+        }
+    }
+
+    /** Re-reads the active generation; returns whether this instance switched. */
+    public boolean refresh() {
+        boolean switched = vectorTable.refresh();
+        if (switched) {
+            ingestor.advanceGeneration();
+            log.info("Switched vector reads to {} (generation {})",
+                    vectorTable.active().table(), vectorTable.active().number());
+        }
+        return switched;
+    }
+
+    /** Starts a re-index in the background unless one is running; returns whether it started. */
+    public boolean trigger(String reason) {
+        return trigger(reason, false);
+    }
+
+    private boolean trigger(String reason, boolean onlyIfChanged) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                build(reason, onlyIfChanged);
+            } catch (RuntimeException e) {
+                log.error("Vector re-index ({}) failed; reads stay on {}", reason, vectorTable.table(), e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Runs a re-index on the calling thread, e.g. during startup before traffic is accepted,
+     * unless the active generation already holds the current corpus.
+     */
+    public void reindexIfChanged(String reason) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A vector re-index is already running");
+        }
+        try {
+            build(reason, true);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("activeTable", vectorTable.active().table());
+        status.put("generation", vectorTable.active().number());
+        status.put("lastRun", lastRun);
+        return status;
+    }
+
+    private void build(String reason, boolean onlyIfChanged) {
+        long start = System.nanoTime();
+        String corpusHash;
+        try {
+            corpusHash = ingestor.corpusHash(docsPattern);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read docs from " + docsPattern, e);
+        }
+        if (onlyIfChanged && corpusHash.equals(vectorTable.corpusHash())) {
+            log.info("Corpus unchanged in {}; skipping the {} re-index", vectorTable.table(), reason);
+            record(reason, vectorTable.table(), "unchanged", 0, System.nanoTime() - start);
+            return;
+        }
+        String result = "failure";
+        PgVectorTable.Generation shadow = vectorTable.createShadow();
+        log.info("Re-indexing into {} ({})", shadow.table(), reason);
+        int chunks = 0;
+        try {
+            chunks = ingestor.ingestClasspathDocs(docsPattern, vectorTable.forGeneration(shadow));
+            indexManager.ifAvailable(manager -> manager.ensureIndex(shadow.table()));
+            vectorTable.analyze(shadow);
+            if (vectorTable.promote(shadow, corpusHash)) {
+                ingestor.advanceGeneration();
+                result = "promoted";
+                log.info("Promoted {} with {} chunks; dropped {}", shadow.table(), chunks,
+                        vectorTable.dropStale(dropGrace));
+            } else {
+                // Another instance promoted a newer generation while this one was building.
+                result = "superseded";
+                vectorTable.drop(shadow.table());
+                refresh();
+            }
+        } catch (IOException e) {
+            vectorTable.drop(shadow.table());
+            throw new IllegalStateException("Failed to ingest docs from " + docsPattern, e);
+        } catch (RuntimeException e) {
+            vectorTable.drop(shadow.table());
+            throw e;
+        } finally {
+            record(reason, shadow.table(), result, chunks, System.nanoTime() - start);
+        }
+    }
+
+    private void record(String reason, String table, String result, int chunks, long elapsed) {
+        Timer.builder("agent.vector.reindex")
+                .description("Time to build and promote a new generation of the vector table")
+                .tag("result", result)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("reason", reason);
+        run.put("table", table);
+        run.put("result", result);
+        run.put("chunks", chunks);
+        run.put("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        run.put("finishedAt", Instant.now().toString());
+        lastRun = run;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+            List<String> dropped = vectorTable.dropStale(dropGrace);
+            if (!dropped.isEmpty()) {
+                log.info("Dropped retired vector tables {}", dropped);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to read the active vector generation", e);
+        }
+    }
+
+    private void startWatching() {
+        Path dir = watchedDirectory(docsPattern);
+        if (dir == null) {
+            log.warn("app.rag.reindex.watch needs a file: docs pattern, not {}", docsPattern);
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            log.warn("Cannot watch {} for document changes", dir, e);
+            return;
+        }
+        Thread.ofPlatform().name("vector-reindex-watch").daemon(true).start(this::watchLoop);
+        log.info("Watching {} for document changes", dir);
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = !key.pollEvents().isEmpty();
+                key.reset();
+                if (changed) {
+                    scheduleWatchTrigger();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down.
+        }
+    }
+
+    /** Editors write a file in several steps; one re-index follows the last change of a burst. */
+    private void scheduleWatchTrigger() {
+        ScheduledFuture<?> previous = pendingWatchTrigger;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        pendingWatchTrigger = executor.schedule(() -> {
+            if (!trigger("docs changed", true)) {
+                // A build is running and may have read the old files; try again after it.
+                scheduleWatchTrigger();
+            }
+        }, debounce.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /** The directory of a {@code file:} pattern, up to its first wildcard. */
+    static Path watchedDirectory(String pattern) {
+        if (!pattern.startsWith("file:")) {
+            return null;
+        }
+        String path = pattern.substring("file:".length());
+        int wildcard = path.indexOf('*');
+        String fixed = wildcard < 0 ? path : path.substring(0, wildcard);
+        Path dir = Path.of(fixed.isEmpty() ? "." : fixed);
+        if (wildcard >= 0 && !fixed.endsWith("/")) {
+            dir = dir.getParent();
+        } else if (wildcard < 0) {
+            dir = dir.toAbsolutePath().getParent();
+        }
+        return dir;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.yourapp.ai.retreival;
+
+import com.yourapp.ai.rag.DocIngestor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of {@link RetrievalResult}s, keyed by the question with case and whitespace
+ * normalized.
+ *
+ * <p>Each entry carries the index generation ({@link DocIngestor#generation()}) read before its
+ * retrieval started, and is only served while that generation is current. An ingest or a
+ * promoted re-index therefore invalidates every older entry at once; stale entries are dropped
+ * when they are next looked up or evicted. At most {@code maxEntries} results and roughly
+ * {@code maxBytes} of text are held, least recently used evicted first. {@code maxEntries = 0}
+ * disables the cache.
+ */
+@Component
+public class RetrievalCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** Rough per-entry and per-citation overhead of the map entry, record and list. */
+    private static final long ENTRY_OVERHEAD = 160;
+    private static final long CITATION_OVERHEAD = 48;
+
+    private record Entry(RetrievalResult result, long generation, long bytes) {
+    }
+
+    private final LongSupplier generation;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+
+    @Autowired
+    public RetrievalCache(
+            DocIngestor ingestor,
+            MeterRegistry meterRegistry,
+            @Value("${app.rag.retrieval.cache.max-entries:1000}") int maxEntries,
+            @Value("${app.rag.retrieval.cache.max-bytes:16777216}") long maxBytes) {
+        this(ingestor::generation, maxEntries, maxBytes, meterRegistry);
+    }
+
+    public RetrievalCache(LongSupplier generation, int maxEntries, long maxBytes, MeterRegistry meterRegistry) {
+        this.generation = generation;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxBytes = maxBytes <= 0 ? Long.MAX_VALUE : maxBytes;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.stale = lookups(meterRegistry, "stale");
+        Gauge.builder("agent.retrieval.cache.size", this, RetrievalCache::size)
+                .description("Retrieval results currently cached")
+                .register(meterRegistry);
+        Gauge.builder("agent.retrieval.cache.bytes", this, RetrievalCache::bytes)
+                .description("Approximate heap held by cached retrieval results")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("agent.retrieval.cache.hit.ratio", this, RetrievalCache::hitRatio)
+                .description("Share of retrieval cache lookups served from the cache since startup")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("agent.retrieval.cache")
+                .description("Retrieval cache lookups by result; stale entries belong to an older index generation")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    /** The generation to pass to {@link #get} and {@link #put}; read it before retrieving. */
+    public long generation() {
+        return generation.getAsLong();
+    }
+
+    /** The cached result for {@code question} computed in {@code generation}, or {@code null}. */
+    public RetrievalResult get(String question, long generation) {
+        if (!enabled()) {
+            return null;
+        }
+        String key = normalize(question);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.generation() != generation) {
+                remove(key);
+                stale.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.result();
+        }
+    }
+
+    /** Caches {@code result} unless the index has moved past {@code generation} meanwhile. */
+    public void put(String question, long generation, RetrievalResult result) {
+        if (!enabled() || generation != this.generation.getAsLong()) {
+            return;
+        }
+        String key = normalize(question);
+        long size = estimateBytes(key, result);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(result, generation, size));
+            bytes += size - (previous == null ? 0 : previous.bytes());
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().bytes();
+                eldest.remove();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.bytes();
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    private double hitRatio() {
+        double lookups = hits.count() + misses.count() + stale.count();
+        return lookups == 0 ? 0 : hits.count() / lookups;
+    }
+
+    static String normalize(String question) {
+        return WHITESPACE.matcher(question.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    /** UTF-16 upper bound for the strings plus fixed overheads; compact strings use less. */
+    private static long estimateBytes(String key, RetrievalResult result) {
+        long size = ENTRY_OVERHEAD + 2L * key.length();
+        for (String chunk : result.chunks()) {
+            size += 2L * chunk.length();
+        }
+        for (String citation : result.citations()) {
+            size += CITATION_OVERHEAD + 2L * citation.length();
+        }
+        return size;
+    }
+}
@@ -2,7 +2,16 @@ package com.yourapp.ai.retreival;
 
 import java.util.List;
 
+/**
+ * Retrieved chunks in rank order, each with the citation at the same index.
+ */
 public record RetrievalResult(
-        String context,
+        List<String> chunks,
         List<String> citations
-) {}
+) {
+
+    /** The chunks as the CONTEXT block of the answer prompt. */
+    public String context() {
+        return String.join("\n\n", chunks);
+    }
+}
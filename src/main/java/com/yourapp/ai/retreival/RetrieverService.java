@@ -1,17 +1,35 @@
 package com.yourapp.ai.retreival;
 
+import com.yourapp.ai.concurrency.AdaptiveConcurrencyLimiter;
+import com.yourapp.ai.concurrency.Deadline;
+import com.yourapp.ai.concurrency.LimiterRejectedException;
+import com.yourapp.ai.jfr.SimilaritySearchEvent;
+import com.yourapp.ai.observability.PipelineContext;
+import com.yourapp.ai.observability.Stage;
+import com.yourapp.ai.observability.StageObserver;
+import com.yourapp.ai.rag.EmbeddingSearch;
+import com.yourapp.ai.rag.SearchTuning;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -19,61 +37,146 @@ import java.util.regex.Pattern;
 @Service
 public class RetrieverService {
 
-    private final VectorStore vectorStore;
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingSearch vectorTable;
     private final Counter retrievalCounter;
+    private final AdaptiveConcurrencyLimiter embeddingLimiter;
+    private final StageObserver stages;
+    private final RetrievalCache cache;
+    private final double similarityThreshold;
+    private final int topK;
+    private final int maxExpansions;
+    private final SearchTuning tuning;
     private static final Pattern POLICY_REF =
             Pattern.compile("Policy:\\s*([A-Za-z][A-Za-z\\s]{1,60})");
+    private static final String POLICY_QUERY_PREFIX = "Policy: ";
 
-    public RetrieverService(VectorStore vectorStore, MeterRegistry meterRegistry) {
-        this.vectorStore = vectorStore;
+    public RetrieverService(
+            EmbeddingModel embeddingModel,
+            EmbeddingSearch vectorTable,
+            MeterRegistry meterRegistry,
+            @Qualifier("embeddingLimiter") AdaptiveConcurrencyLimiter embeddingLimiter,
+            StageObserver stages,
+            RetrievalCache cache,
+            @Value("${app.rag.retrieval.similarity-threshold:0.60}") double similarityThreshold,
+            @Value("${app.rag.retrieval.top-k:4}") int topK,
+            @Value("${app.rag.retrieval.max-expansions:3}") int maxExpansions,
+            @Value("${app.rag.index.ef-search:0}") int efSearch,
+            @Value("${app.rag.index.probes:0}") int probes) {
+        this.embeddingModel = embeddingModel;
+        this.vectorTable = vectorTable;
+        this.embeddingLimiter = embeddingLimiter;
+        this.stages = stages;
+        this.cache = cache;
+        this.similarityThreshold = similarityThreshold;
+        this.topK = topK;
+        this.maxExpansions = maxExpansions;
+        this.tuning = new SearchTuning(efSearch, probes).forTopK(topK);
         this.retrievalCounter = Counter.builder("agent.retrieval.count")
                 .description("Number of retrieval calls")
                 .register(meterRegistry);
     }
 
     /**
-     * Retrieve relevant documents for RAG
+     * Retrieve relevant documents for RAG. The threshold, topK and number of policy expansions
+     * come from {@code app.rag.retrieval.*}; {@code mvn -Peval} measures their effect on recall.
+     * Queries are embedded here rather than inside {@code VectorStore.similaritySearch}, so every
+     * search carries the ANN settings from {@code app.rag.index.*}. Results, expansions included,
+     * are served from the {@link RetrievalCache} while the index generation is unchanged.
      */
     public RetrievalResult retrieve(String question) {
+        return retrieve(question, PipelineContext.currentDeadline());
+    }
 
-        List<Document> docs =
-                vectorStore.similaritySearch(
-                        SearchRequest.builder()
-                                .query(question)
-                                .similarityThreshold(0.60)
-                                .build()
-                );
+    /**
+     * Retrieve within {@code deadline}: no embedding or search starts once it has passed, and
+     * each search runs with the time left as its {@code statement_timeout}.
+     */
+    public RetrievalResult retrieve(String question, Deadline deadline) {
+        long generation = cache.generation();
+        RetrievalResult cached = cache.get(question, generation);
         retrievalCounter.increment();
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Document> docs = search(embed(question, deadline), deadline);
+
+        RetrievalResult result = assemble(
+                docs, policy -> search(embed(POLICY_QUERY_PREFIX + policy, deadline), deadline), maxExpansions);
+        cache.put(question, generation, result);
+        return result;
+    }
+
+    /**
+     * Retrieve for many questions at once. All distinct questions are embedded in one batched
+     * call, and each referenced policy is expanded once for the whole batch, however many
+     * questions point at it. Cached questions are left out of the batch.
+     */
+    public Map<String, RetrievalResult> retrieveAll(Collection<String> questions) {
+        Deadline deadline = PipelineContext.currentDeadline();
+        long generation = cache.generation();
+        Map<String, RetrievalResult> results = new LinkedHashMap<>();
+        List<String> distinctQuestions = new ArrayList<>();
+        for (String question : new LinkedHashSet<>(questions)) {
+            RetrievalResult cached = cache.get(question, generation);
+            results.put(question, cached);
+            if (cached == null) {
+                distinctQuestions.add(question);
+            } else {
+                retrievalCounter.increment();
+            }
+        }
+        if (distinctQuestions.isEmpty()) {
+            return results;
+        }
+
+        List<float[]> questionEmbeddings = embed(distinctQuestions, deadline);
+        Map<String, List<Document>> primary = new LinkedHashMap<>();
+        for (int i = 0; i < distinctQuestions.size(); i++) {
+            primary.put(distinctQuestions.get(i), search(questionEmbeddings.get(i), deadline));
+            retrievalCounter.increment();
+        }
 
+        Set<String> policies = new LinkedHashSet<>();
+        for (List<Document> docs : primary.values()) {
+            policies.addAll(limitReferences(extractPolicyReferences(docs), maxExpansions));
+        }
+        Map<String, List<Document>> expansions = new HashMap<>();
+        if (!policies.isEmpty()) {
+            List<String> policyList = new ArrayList<>(policies);
+            List<float[]> policyEmbeddings =
+                    embed(policyList.stream().map(policy -> POLICY_QUERY_PREFIX + policy).toList(), deadline);
+            for (int i = 0; i < policyList.size(); i++) {
+                expansions.put(policyList.get(i), search(policyEmbeddings.get(i), deadline));
+            }
+        }
+
+        primary.forEach((question, docs) -> {
+            RetrievalResult result = assemble(docs, policy -> expansions.getOrDefault(policy, List.of()), maxExpansions);
+            cache.put(question, generation, result);
+            results.put(question, result);
+        });
+        return results;
+    }
+
+    static RetrievalResult assemble(
+            List<Document> docs, Function<String, List<Document>> expand, int maxExpansions) {
         Map<String, Document> deduped = new LinkedHashMap<>();
         for (Document doc : docs) {
             deduped.putIfAbsent(doc.getText(), doc);
         }
 
-        Set<String> referencedPolicies = extractPolicyReferences(docs);
-        int maxReferences = 3;
-        int count = 0;
-        for (String policy : referencedPolicies) {
-            if (count >= maxReferences) {
-                break;
-            }
-            List<Document> related =
-                    vectorStore.similaritySearch(
-                            SearchRequest.builder()
-                                    .query("Policy: " + policy)
-                                    .similarityThreshold(0.60)
-                                    .build()
-                    );
-            for (Document doc : related) {
+        for (String policy : limitReferences(extractPolicyReferences(docs), maxExpansions)) {
+            for (Document doc : expand.apply(policy)) {
                 deduped.putIfAbsent(doc.getText(), doc);
             }
-            count++;
         }
 
-        String context =
+        List<String> chunks =
                 deduped.values().stream()
                         .map(Document::getText)
-                        .collect(Collectors.joining("\n\n"));
+                        .collect(Collectors.toList());
 
         List<String> citations =
                 deduped.values().stream()
@@ -91,10 +194,64 @@ public class RetrieverService {
                         })
                         .collect(Collectors.toList());
 
-        return new RetrievalResult(context, citations);
+        return new RetrievalResult(chunks, citations);
+    }
+
+    private static List<String> limitReferences(Set<String> referencedPolicies, int maxExpansions) {
+        return referencedPolicies.stream().limit(maxExpansions).toList();
+    }
+
+    private List<Document> search(float[] embedding, Deadline deadline) {
+        deadline.check("search");
+        SearchTuning tuning = deadline.isNone()
+                ? this.tuning
+                : this.tuning.withTimeout(deadline.remainingOr(SearchTuning.MAX_TIMEOUT));
+        Stage stage = stages.start("search");
+        return stages.observe(stage, () -> {
+            List<Document> results = withinDeadline(deadline, "search",
+                    () -> vectorTable.search(embedding, similarityThreshold, topK, tuning));
+            stage.jfr(SimilaritySearchEvent.class, event -> {
+                event.topK = topK;
+                event.resultCount = results.size();
+                event.efSearch = tuning.efSearch();
+                event.probes = tuning.probes();
+            });
+            return results;
+        });
+    }
+
+    private float[] embed(String text, Deadline deadline) {
+        return embed(List.of(text), deadline).get(0);
+    }
+
+    /**
+     * Embedding calls go to Ollama, so they are gated by the embedding limiter. A request with a
+     * deadline waits for a permit no longer than the time it has left.
+     */
+    private List<float[]> embed(List<String> texts, Deadline deadline) {
+        deadline.check("embed");
+        Duration maxWait = deadline.remainingOr(embeddingLimiter.maxQueueWait());
+        return stages.observe("embed", () -> withinDeadline(deadline, "embed",
+                () -> embeddingLimiter.execute(embeddingLimiter.currentFlow(), maxWait,
+                        () -> embeddingModel.embed(texts))));
+    }
+
+    /**
+     * A limiter rejection or cancelled query after the deadline has passed is reported as the
+     * deadline being exceeded, not as overload or a database failure.
+     */
+    private static <T> T withinDeadline(Deadline deadline, String stage, Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (LimiterRejectedException | DataAccessException e) {
+            if (deadline.expired()) {
+                throw deadline.exceeded(stage);
+            }
+            throw e;
+        }
     }
 
-    private Set<String> extractPolicyReferences(List<Document> docs) {
+    private static Set<String> extractPolicyReferences(List<Document> docs) {
         Set<String> policies = new HashSet<>();
         for (Document doc : docs) {
             Matcher matcher = POLICY_REF.matcher(doc.getText());